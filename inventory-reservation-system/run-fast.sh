@@ -0,0 +1,23 @@
+#!/bin/bash
+
+# Fast startup run script
+# AOT-processed application context + AppCDS archive + warm-up before readiness
+
+set -e
+cd "$(dirname "$0")"
+
+FAST_DIR=build/fast-startup
+
+if [ ! -f "$FAST_DIR/app.jsa" ] || [ ! -f "$FAST_DIR/classpath.txt" ]; then
+    echo "📦 Building fast startup layout and CDS archive (training run)..."
+    ./gradlew fastStartupArchive -PfastStartup --no-daemon
+fi
+
+echo "🚀 Starting Inventory Reservation System (fast startup)..."
+echo ""
+exec java \
+    -XX:SharedArchiveFile="$FAST_DIR/app.jsa" \
+    -Dspring.aot.enabled=true \
+    -cp "$(cat "$FAST_DIR/classpath.txt")" \
+    com.interview.practice.inventory.InventoryReservationApplication \
+    --spring.profiles.active=fast-startup "$@"
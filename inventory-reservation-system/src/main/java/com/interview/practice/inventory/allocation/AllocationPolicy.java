@@ -0,0 +1,50 @@
+package com.interview.practice.inventory.allocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation Policy
+ * Decides how a reservation quantity is split across the locations holding a SKU.
+ *
+ * Policies only plan: they see an unlocked snapshot of each location's available units and
+ * the candidates together always hold at least the requested quantity. The allocation service
+ * then takes the planned units with guarded UPDATEs and re-plans if a location ran short.
+ */
+public interface AllocationPolicy {
+
+    /**
+     * Name clients select the policy by (e.g. NEAREST_FIRST)
+     */
+    String name();
+
+    List<Allocation> allocate(List<Candidate> candidates, int quantity);
+
+    /**
+     * Take units from the candidates in the given order until the quantity is covered
+     */
+    static List<Allocation> fill(List<Candidate> ordered, int quantity) {
+        List<Allocation> allocations = new ArrayList<>();
+        int remaining = quantity;
+        for (Candidate candidate : ordered) {
+            if (remaining == 0) {
+                break;
+            }
+            int units = Math.min(remaining, candidate.availableQuantity());
+            if (units > 0) {
+                allocations.add(new Allocation(candidate.locationStockId(), candidate.locationCode(), units));
+                remaining -= units;
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * A location holding the SKU, with its distance from the delivery point (0 when unknown)
+     */
+    record Candidate(Long locationStockId, String locationCode, int availableQuantity, double distanceKm) {
+    }
+
+    record Allocation(Long locationStockId, String locationCode, int quantity) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.interview.practice.inventory.allocation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fewest Splits
+ * Uses as few locations as possible: the nearest single location that covers the whole quantity,
+ * otherwise the largest locations first (the k largest hold the most units any k locations can)
+ */
+@Component
+public class FewestSplitsAllocationPolicy implements AllocationPolicy {
+
+    public static final String NAME = "FEWEST_SPLITS";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<Allocation> allocate(List<Candidate> candidates, int quantity) {
+        Comparator<Candidate> nearest = Comparator.comparingDouble(Candidate::distanceKm)
+                .thenComparing(Candidate::locationCode);
+        return candidates.stream()
+                .filter(candidate -> candidate.availableQuantity() >= quantity)
+                .min(nearest)
+                .map(candidate -> AllocationPolicy.fill(List.of(candidate), quantity))
+                .orElseGet(() -> AllocationPolicy.fill(candidates.stream()
+                        .sorted(Comparator.comparingInt(Candidate::availableQuantity).reversed()
+                                .thenComparing(nearest))
+                        .toList(), quantity));
+    }
+}
@@ -0,0 +1,444 @@
+package com.interview.practice.inventory.allocation;
+
+import com.interview.practice.inventory.dto.LocationStockResponse;
+import com.interview.practice.inventory.dto.ReservationLineResponse;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.dto.SplitReservationRequest;
+import com.interview.practice.inventory.exception.InsufficientInventoryException;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.mapper.InventoryMapper;
+import com.interview.practice.inventory.metrics.ReservationAnalytics;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.model.Location;
+import com.interview.practice.inventory.model.LocationStock;
+import com.interview.practice.inventory.model.OutboxEvent;
+import com.interview.practice.inventory.model.Reservation;
+import com.interview.practice.inventory.model.ReservationLine;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.LocationRepository;
+import com.interview.practice.inventory.repository.LocationStockRepository;
+import com.interview.practice.inventory.repository.OutboxEventRepository;
+import com.interview.practice.inventory.repository.ReservationLineRepository;
+import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.service.AvailableToPromiseProjection;
+import com.interview.practice.inventory.service.InventoryReadCoalescer;
+import com.interview.practice.inventory.service.ProductSearchIndex;
+import com.interview.practice.inventory.service.SoldOutIndex;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Location Allocation Service
+ * Reservations split across the locations holding a SKU, one reservation line per location.
+ *
+ * Units moved into a location's stock leave the item's counters, so a split reservation never
+ * touches the item row: a hot SKU stocked at K locations has K independent row locks. An
+ * allocation is planned by a pluggable policy from an unlocked read, then each planned location
+ * is taken with one guarded UPDATE in location stock id order, so concurrent allocations always
+ * lock rows in the same order and cannot deadlock. If a location ran short in the meantime the
+ * transaction is rolled back and re-planned. Release, confirm and expiry first move the
+ * reservation with a guarded status UPDATE, then adjust the lines' locations in the same order.
+ * Their outbox events are written per line, after the line's location row is locked, and carry
+ * that location's counters: the item row is never locked here, so it has no counters to offer.
+ */
+@Service
+@Slf4j
+public class LocationAllocationService {
+
+    private static final int DEFAULT_RESERVATION_TIMEOUT_MINUTES = 15;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationLineRepository reservationLineRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private InventoryMapper inventoryMapper;
+
+    @Autowired
+    private ReservationAnalytics reservationAnalytics;
+
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private List<AllocationPolicy> allocationPolicies;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.locations.max-allocation-attempts:3}")
+    private int maxAllocationAttempts;
+
+    private final Map<String, AllocationPolicy> policiesByName = new HashMap<>();
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        allocationPolicies.forEach(policy -> policiesByName.put(policy.name(), policy));
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stock of a SKU at each location
+     */
+    public List<LocationStockResponse> getLocationStock(String sku) {
+        return shardRouter.forSku(sku, () -> readOnlyTransaction.execute(status ->
+                locationStockRepository.findBySkuOrderByLocationCode(sku).stream()
+                        .map(stock -> LocationStockResponse.builder()
+                                .sku(stock.getSku())
+                                .locationCode(stock.getLocationCode())
+                                .totalQuantity(stock.getTotalQuantity())
+                                .availableQuantity(stock.getAvailableQuantity())
+                                .reservedQuantity(stock.getReservedQuantity())
+                                .build())
+                        .toList()));
+    }
+
+    /**
+     * Move available units of a SKU from the item's counters into a location's stock
+     */
+    public LocationStockResponse stockLocation(String sku, String locationCode, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        if (!locationRepository.existsById(locationCode)) {
+            throw new IllegalArgumentException("Unknown location: " + locationCode);
+        }
+        log.info("Moving {} units of SKU: {} to location: {}", quantity, sku, locationCode);
+
+        InventoryItem inventoryItem = shardRouter.forSku(sku, () -> transaction.execute(status -> {
+            InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+            if (item.getAvailableQuantity() < quantity) {
+                throw new InsufficientInventoryException(String.format(
+                        "Insufficient inventory. Available: %d, Requested: %d", item.getAvailableQuantity(), quantity));
+            }
+            item.setTotalQuantity(item.getTotalQuantity() - quantity);
+            item.setAvailableQuantity(item.getAvailableQuantity() - quantity);
+            inventoryRepository.save(item);
+
+            // The item lock serializes stocking, so the row cannot be created twice concurrently
+            LocalDateTime now = LocalDateTime.now();
+            locationStockRepository.findBySkuAndLocationCode(sku, locationCode).ifPresentOrElse(
+                    stock -> locationStockRepository.applyCounters(stock.getId(), quantity, quantity, 0, now),
+                    () -> locationStockRepository.save(LocationStock.builder()
+                            .itemId(item.getId())
+                            .sku(sku)
+                            .locationCode(locationCode)
+                            .totalQuantity(quantity)
+                            .availableQuantity(quantity)
+                            .reservedQuantity(0)
+                            .build()));
+            appendEvent(item, OutboxEvent.EventType.TRANSFERRED, null, quantity);
+            return item;
+        }));
+
+        soldOutIndex.record(inventoryItem);
+        productSearchIndex.record(inventoryItem);
+        availableToPromiseProjection.record(inventoryItem);
+        inventoryReadCoalescer.invalidate(sku);
+        return getLocationStock(sku).stream()
+                .filter(stock -> stock.getLocationCode().equals(locationCode))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Reserve a quantity of a SKU across its locations, split by the requested policy
+     */
+    public ReservationResponse reserve(SplitReservationRequest request) {
+        String policyName = request.getPolicy() != null
+                ? request.getPolicy().toUpperCase(Locale.ROOT)
+                : NearestFirstAllocationPolicy.NAME;
+        AllocationPolicy policy = policiesByName.get(policyName);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown allocation policy: " + request.getPolicy()
+                    + ". Known policies: " + policiesByName.keySet());
+        }
+        log.info("Attempting to reserve {} units of SKU: {} across locations ({})",
+                request.getQuantity(), request.getSku(), policy.name());
+
+        for (int attempt = 1; ; attempt++) {
+            Optional<ReservationResponse> response = shardRouter.forSku(request.getSku(), () -> transaction.execute(status -> {
+                Optional<ReservationResponse> reserved = tryReserve(request, policy);
+                if (reserved.isEmpty()) {
+                    status.setRollbackOnly();
+                }
+                return reserved;
+            }));
+            if (response.isPresent()) {
+                reservationAnalytics.recordReserved(request.getSku(), request.getQuantity());
+                log.info("Successfully created split reservation: {} for SKU: {} across {} locations",
+                        response.get().getReservationId(), request.getSku(), response.get().getLines().size());
+                return response.get();
+            }
+            if (attempt >= maxAllocationAttempts) {
+                throw new IllegalStateException(String.format(
+                        "Location stock for SKU %s changed during allocation %d times; try again",
+                        request.getSku(), attempt));
+            }
+            log.debug("Location stock for SKU: {} changed during allocation, re-planning (attempt {})",
+                    request.getSku(), attempt);
+        }
+    }
+
+    /**
+     * Plan from an unlocked read, then take each planned location in id order
+     * Empty if a location no longer had its planned units (the caller rolls back and re-plans)
+     */
+    private Optional<ReservationResponse> tryReserve(SplitReservationRequest request, AllocationPolicy policy) {
+        String sku = request.getSku();
+        int quantity = request.getQuantity();
+        InventoryItem inventoryItem = inventoryRepository.findBySku(sku)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+
+        List<AllocationPolicy.Candidate> candidates = candidates(sku, request.getLatitude(), request.getLongitude());
+        int available = candidates.stream().mapToInt(AllocationPolicy.Candidate::availableQuantity).sum();
+        if (available < quantity) {
+            log.warn("Insufficient location stock for SKU: {}. Available: {}, Requested: {}", sku, available, quantity);
+            throw new InsufficientInventoryException(String.format(
+                    "Insufficient inventory. Available: %d, Requested: %d", available, quantity));
+        }
+        List<AllocationPolicy.Allocation> allocations = policy.allocate(candidates, quantity).stream()
+                .sorted(Comparator.comparing(AllocationPolicy.Allocation::locationStockId))
+                .toList();
+        if (allocations.stream().mapToInt(AllocationPolicy.Allocation::quantity).sum() != quantity) {
+            throw new IllegalStateException("Allocation policy " + policy.name() + " did not cover the quantity");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (AllocationPolicy.Allocation allocation : allocations) {
+            if (locationStockRepository.reserveUnits(allocation.locationStockId(), allocation.quantity(), now) == 0) {
+                return Optional.empty();
+            }
+        }
+
+        int timeoutMinutes = request.getTimeoutMinutes() != null
+                ? request.getTimeoutMinutes()
+                : DEFAULT_RESERVATION_TIMEOUT_MINUTES;
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+                .reservationId(shardRouter.newReservationId(sku))
+                .inventoryItem(inventoryItem)
+                .quantity(quantity)
+                .status(Reservation.ReservationStatus.ACTIVE)
+                .expiresAt(now.plusMinutes(timeoutMinutes))
+                .locationSplit(true)
+                .build());
+        List<ReservationLine> lines = allocations.stream()
+                .map(allocation -> ReservationLine.builder()
+                        .reservationId(reservation.getId())
+                        .locationStockId(allocation.locationStockId())
+                        .locationCode(allocation.locationCode())
+                        .quantity(allocation.quantity())
+                        .build())
+                .toList();
+        reservationLineRepository.saveAll(lines);
+        // The planned location rows are still locked by the guarded UPDATEs above
+        lines.forEach(line -> appendLocationEvent(inventoryItem, OutboxEvent.EventType.RESERVED,
+                reservation.getReservationId(), line));
+        return Optional.of(toResponse(reservation, lines, reservation.getStatus()));
+    }
+
+    /**
+     * Release an ACTIVE location-split reservation, returning its units to their locations
+     */
+    public ReservationResponse releaseReservation(Reservation reservation) {
+        ReservationResponse response = transaction.execute(status -> {
+            requireTransition(reservation, reservationRepository.transitionIf(reservation.getId(),
+                    Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.RELEASED,
+                    LocalDateTime.now()), "release", "released");
+            List<ReservationLine> lines = applyLines(reservation, OutboxEvent.EventType.RELEASED, 0, 1, -1);
+            return toResponse(reservation, lines, Reservation.ReservationStatus.RELEASED);
+        });
+        reservationAnalytics.recordReleased(response.getSku());
+        log.info("Successfully released split reservation: {}", reservation.getReservationId());
+        return response;
+    }
+
+    /**
+     * Confirm an ACTIVE location-split reservation, consuming its units at each location
+     */
+    public ReservationResponse confirmReservation(Reservation reservation, String orderId) {
+        ReservationResponse response = transaction.execute(status -> {
+            requireTransition(reservation, reservationRepository.confirmAllIfActive(List.of(reservation.getId()),
+                    Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.CONFIRMED,
+                    orderId, LocalDateTime.now()), "confirm", "confirmed");
+            List<ReservationLine> lines = applyLines(reservation, OutboxEvent.EventType.CONFIRMED, -1, 0, -1);
+            return toResponse(reservation, lines, Reservation.ReservationStatus.CONFIRMED);
+        });
+        reservationAnalytics.recordConfirmed(response.getSku(),
+                Duration.between(reservation.getCreatedAt(), LocalDateTime.now()));
+        log.info("Successfully confirmed split reservation: {} for order: {}", reservation.getReservationId(), orderId);
+        return response;
+    }
+
+    /**
+     * Expire a location-split reservation past its deadline (cleanup job)
+     * Returns false if it was released, confirmed or extended since it was read
+     */
+    public boolean expireReservation(Reservation reservation, LocalDateTime now) {
+        Boolean expired = transaction.execute(status -> {
+            int updated = reservationRepository.transitionIfExpired(reservation.getId(),
+                    Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.EXPIRED, now);
+            if (updated == 0) {
+                return false;
+            }
+            applyLines(reservation, OutboxEvent.EventType.EXPIRED, 0, 1, -1);
+            return true;
+        });
+        if (Boolean.TRUE.equals(expired)) {
+            reservationAnalytics.recordExpired(reservation.getInventoryItem().getSku(), 1);
+            log.debug("Cleaned up expired split reservation: {}", reservation.getReservationId());
+            return true;
+        }
+        return false;
+    }
+
+    private void requireTransition(Reservation reservation, int updated, String action, String outcome) {
+        if (updated == 1) {
+            return;
+        }
+        Reservation.ReservationStatus currentStatus = reservationRepository.findStatusById(reservation.getId());
+        log.warn("Cannot {} reservation {} with status: {}", action, reservation.getReservationId(), currentStatus);
+        throw new IllegalStateException(String.format(
+                "Cannot %s reservation with status: %s. Only ACTIVE reservations can be %s.",
+                action, currentStatus, outcome));
+    }
+
+    /**
+     * Apply each line's quantity, times the given signs, to its location's counters in id order,
+     * appending the line's event while its location row is locked
+     */
+    private List<ReservationLine> applyLines(Reservation reservation, OutboxEvent.EventType eventType,
+                                             int totalSign, int availableSign, int reservedSign) {
+        List<ReservationLine> lines = reservationLineRepository.findByReservationIdOrderByLocationStockId(
+                reservation.getId());
+        LocalDateTime now = LocalDateTime.now();
+        for (ReservationLine line : lines) {
+            int units = line.getQuantity();
+            locationStockRepository.applyCounters(line.getLocationStockId(),
+                    totalSign * units, availableSign * units, reservedSign * units, now);
+            appendLocationEvent(reservation.getInventoryItem(), eventType, reservation.getReservationId(), line);
+        }
+        return lines;
+    }
+
+    private List<AllocationPolicy.Candidate> candidates(String sku, Double latitude, Double longitude) {
+        Map<String, Location> locations = new HashMap<>();
+        if (latitude != null && longitude != null) {
+            locationRepository.findAll().forEach(location -> locations.put(location.getCode(), location));
+        }
+        return locationStockRepository.findAvailableBySku(sku).stream()
+                .map(stock -> {
+                    Location location = locations.get(stock.getLocationCode());
+                    double distanceKm = location != null
+                            ? distanceKm(latitude, longitude, location.getLatitude(), location.getLongitude())
+                            : 0.0;
+                    return new AllocationPolicy.Candidate(stock.getId(), stock.getLocationCode(),
+                            stock.getAvailableQuantity(), distanceKm);
+                })
+                .toList();
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points
+     */
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private void appendEvent(InventoryItem inventoryItem, OutboxEvent.EventType eventType,
+                             String reservationId, int quantity) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .itemId(inventoryItem.getId())
+                .sku(inventoryItem.getSku())
+                .eventType(eventType)
+                .reservationId(reservationId)
+                .quantity(quantity)
+                .totalQuantity(inventoryItem.getTotalQuantity())
+                .availableQuantity(inventoryItem.getAvailableQuantity())
+                .reservedQuantity(inventoryItem.getReservedQuantity())
+                .build());
+    }
+
+    private void appendLocationEvent(InventoryItem inventoryItem, OutboxEvent.EventType eventType,
+                                     String reservationId, ReservationLine line) {
+        LocationStockRepository.Counters counters = locationStockRepository.findCountersById(line.getLocationStockId());
+        outboxEventRepository.save(OutboxEvent.builder()
+                .itemId(inventoryItem.getId())
+                .sku(inventoryItem.getSku())
+                .eventType(eventType)
+                .reservationId(reservationId)
+                .locationCode(counters.getLocationCode())
+                .quantity(line.getQuantity())
+                .totalQuantity(counters.getTotalQuantity())
+                .availableQuantity(counters.getAvailableQuantity())
+                .reservedQuantity(counters.getReservedQuantity())
+                .build());
+    }
+
+    private ReservationResponse toResponse(Reservation reservation, List<ReservationLine> lines,
+                                           Reservation.ReservationStatus status) {
+        ReservationResponse response = inventoryMapper.toReservationResponse(reservation);
+        response.setStatus(status.name());
+        response.setLines(lines.stream()
+                .map(line -> ReservationLineResponse.builder()
+                        .locationCode(line.getLocationCode())
+                        .quantity(line.getQuantity())
+                        .build())
+                .toList());
+        return response;
+    }
+}
@@ -0,0 +1,29 @@
+package com.interview.practice.inventory.allocation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Nearest First
+ * Takes units from the closest location first, then the next closest, and so on
+ */
+@Component
+public class NearestFirstAllocationPolicy implements AllocationPolicy {
+
+    public static final String NAME = "NEAREST_FIRST";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<Allocation> allocate(List<Candidate> candidates, int quantity) {
+        return AllocationPolicy.fill(candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distanceKm)
+                        .thenComparing(Candidate::locationCode))
+                .toList(), quantity);
+    }
+}
@@ -0,0 +1,328 @@
+package com.interview.practice.inventory.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.practice.inventory.dto.BulkOperation;
+import com.interview.practice.inventory.dto.BulkOperationResult;
+import com.interview.practice.inventory.dto.ReservationRequest;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.exception.InsufficientInventoryException;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.exception.ReservationNotFoundException;
+import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.service.InventoryService;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk Operation Processor
+ * Runs a newline-delimited JSON stream of reserve, release and confirm operations.
+ *
+ * Lines are read in micro-batches: a batch is dispatched when it is full or when no more input
+ * has arrived yet, so a slow producer is never held back. Release and confirm SKUs are resolved
+ * with one query per batch. Operations on the same SKU are chained so they run in stream order;
+ * different SKUs run concurrently on a shared pool. In-flight operations per stream are bounded,
+ * which pushes back on the reader. Results are written as each operation completes, tagged with
+ * the operation's line number, so they may come back out of order across SKUs.
+ */
+@Component
+@Slf4j
+public class BulkOperationProcessor {
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.ops.threads:8}")
+    private int threads;
+
+    @Value("${inventory.ops.batch-size:100}")
+    private int batchSize;
+
+    @Value("${inventory.ops.max-in-flight:256}")
+    private int maxInFlight;
+
+    private ExecutorService executor;
+
+    private final AtomicLong streamCount = new AtomicLong();
+    private final AtomicLong operationCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @PostConstruct
+    void initExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-ops-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Read operations from the input until it ends, writing one result line per operation.
+     * Returns once every dispatched operation has completed and its result has been written.
+     */
+    public void process(InputStream input, OutputStream output) throws IOException {
+        streamCount.incrementAndGet();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ResultWriter writer = new ResultWriter(output);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Map<String, CompletableFuture<Void>> tails = new HashMap<>();
+        List<Parsed> batch = new ArrayList<>(batchSize);
+
+        long seq = 0;
+        String line;
+        while (!writer.broken && (line = reader.readLine()) != null) {
+            seq++;
+            if (!line.isBlank()) {
+                batch.add(parse(seq, line));
+            }
+            if (batch.size() >= batchSize || (!batch.isEmpty() && !reader.ready())) {
+                dispatch(batch, tails, inFlight, writer);
+                batch.clear();
+            }
+        }
+        dispatch(batch, tails, inFlight, writer);
+
+        CompletableFuture.allOf(tails.values().toArray(CompletableFuture[]::new)).join();
+        writer.flush();
+        if (writer.broken) {
+            log.warn("Bulk operations stream closed by the client after {} lines", seq);
+        }
+    }
+
+    /**
+     * Counters across all streams
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("streams", streamCount.get());
+        stats.put("operations", operationCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("threads", threads);
+        stats.put("batchSize", batchSize);
+        stats.put("maxInFlight", maxInFlight);
+        return stats;
+    }
+
+    private void dispatch(List<Parsed> batch, Map<String, CompletableFuture<Void>> tails,
+                          Semaphore inFlight, ResultWriter writer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, String> reservationSkus = resolveSkus(batch);
+        for (Parsed parsed : batch) {
+            if (parsed.error() != null) {
+                failedCount.incrementAndGet();
+                writer.write(failure(parsed, 400, parsed.error()));
+                continue;
+            }
+            String key = orderingKey(parsed.operation(), reservationSkus);
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<Void> tail = tails.getOrDefault(key, COMPLETED);
+            // execute() never throws, so a failed operation does not cancel the rest of its chain
+            tails.put(key, tail.thenRunAsync(() -> {
+                try {
+                    writer.write(execute(parsed));
+                } finally {
+                    inFlight.release();
+                }
+            }, executor));
+        }
+        // Finished chains are no longer needed for ordering; keep the map as small as the live work
+        tails.values().removeIf(CompletableFuture::isDone);
+    }
+
+    private Map<String, String> resolveSkus(List<Parsed> batch) {
+        Set<String> reservationIds = batch.stream()
+                .filter(parsed -> parsed.error() == null && parsed.operation().getOp() != BulkOperation.Type.RESERVE)
+                .map(parsed -> parsed.operation().getReservationId())
+                .collect(Collectors.toSet());
+        Map<String, String> skus = new HashMap<>();
+        for (int shard : shardRouter.shards()) {
+            // Ids carrying another shard are skipped; ids without a shard prefix are looked for everywhere
+            Set<String> shardIds = reservationIds.stream()
+                    .filter(id -> shardRouter.shardOfReservationId(id).orElse(shard) == shard)
+                    .collect(Collectors.toSet());
+            if (!shardIds.isEmpty()) {
+                for (Object[] row : shardRouter.onShard(shard, () -> reservationRepository.findSkusByReservationIdIn(shardIds))) {
+                    skus.put((String) row[0], (String) row[1]);
+                }
+            }
+        }
+        return skus;
+    }
+
+    private static String orderingKey(BulkOperation operation, Map<String, String> reservationSkus) {
+        if (operation.getOp() == BulkOperation.Type.RESERVE) {
+            return operation.getSku();
+        }
+        // Unknown reservations fail on their own; they do not need to wait behind any SKU
+        String sku = reservationSkus.get(operation.getReservationId());
+        return sku != null ? sku : "reservation:" + operation.getReservationId();
+    }
+
+    private BulkOperationResult execute(Parsed parsed) {
+        BulkOperation operation = parsed.operation();
+        operationCount.incrementAndGet();
+        try {
+            ReservationResponse reservation = switch (operation.getOp()) {
+                case RESERVE -> inventoryService.reserveInventory(ReservationRequest.builder()
+                        .sku(operation.getSku())
+                        .quantity(operation.getQuantity())
+                        .timeoutMinutes(operation.getTimeoutMinutes())
+                        .build());
+                case RELEASE -> inventoryService.releaseReservation(operation.getReservationId());
+                case CONFIRM -> inventoryService.confirmReservation(operation.getReservationId(),
+                        operation.getOrderId());
+            };
+            return BulkOperationResult.builder()
+                    .seq(parsed.seq())
+                    .id(operation.getId())
+                    .op(operation.getOp())
+                    .status(200)
+                    .reservation(reservation)
+                    .build();
+        } catch (InventoryNotFoundException | ReservationNotFoundException e) {
+            return failed(parsed, 404, e);
+        } catch (InsufficientInventoryException | IllegalStateException e) {
+            return failed(parsed, 409, e);
+        } catch (IllegalArgumentException e) {
+            return failed(parsed, 400, e);
+        } catch (RuntimeException e) {
+            log.error("Bulk operation {} failed at line {}", operation.getOp(), parsed.seq(), e);
+            return failed(parsed, 500, e);
+        }
+    }
+
+    private BulkOperationResult failed(Parsed parsed, int status, RuntimeException e) {
+        failedCount.incrementAndGet();
+        return failure(parsed, status, e.getMessage());
+    }
+
+    private static BulkOperationResult failure(Parsed parsed, int status, String error) {
+        BulkOperation operation = parsed.operation();
+        return BulkOperationResult.builder()
+                .seq(parsed.seq())
+                .id(operation != null ? operation.getId() : null)
+                .op(operation != null ? operation.getOp() : null)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    private Parsed parse(long seq, String line) {
+        BulkOperation operation;
+        try {
+            operation = objectMapper.readValue(line, BulkOperation.class);
+        } catch (JsonProcessingException e) {
+            return new Parsed(seq, null, "Malformed operation: " + e.getOriginalMessage());
+        }
+        if (operation == null) {
+            // A bare JSON null parses without error but carries no operation
+            return new Parsed(seq, null, "Operation must be a JSON object");
+        }
+        return new Parsed(seq, operation, validate(operation));
+    }
+
+    private static String validate(BulkOperation operation) {
+        if (operation.getOp() == null) {
+            return "op is required";
+        }
+        return switch (operation.getOp()) {
+            case RESERVE -> isBlank(operation.getSku()) ? "sku is required"
+                    : operation.getQuantity() == null || operation.getQuantity() < 1 ? "quantity must be at least 1"
+                    : null;
+            case RELEASE -> isBlank(operation.getReservationId()) ? "reservationId is required" : null;
+            case CONFIRM -> isBlank(operation.getReservationId()) ? "reservationId is required"
+                    : isBlank(operation.getOrderId()) ? "orderId is required"
+                    : null;
+        };
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Parsed(long seq, BulkOperation operation, String error) {
+    }
+
+    /**
+     * Serializes result lines from worker threads onto the response and flushes each one
+     */
+    private final class ResultWriter {
+
+        private final OutputStream output;
+        private volatile boolean broken;
+
+        ResultWriter(OutputStream output) {
+            this.output = new BufferedOutputStream(output);
+        }
+
+        synchronized void write(BulkOperationResult result) {
+            if (broken) {
+                return;
+            }
+            try {
+                output.write(objectMapper.writeValueAsBytes(result));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                // Client went away: keep draining in-flight work, stop reading and writing
+                broken = true;
+            }
+        }
+
+        synchronized void flush() {
+            if (broken) {
+                return;
+            }
+            try {
+                output.flush();
+            } catch (IOException e) {
+                broken = true;
+            }
+        }
+    }
+}
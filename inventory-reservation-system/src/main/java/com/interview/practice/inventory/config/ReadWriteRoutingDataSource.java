@@ -0,0 +1,88 @@
+package com.interview.practice.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read/Write Routing DataSource
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the read-only flag of a transaction
+ * is only published after the transaction manager has begun it, so the physical
+ * connection has to be fetched lazily on the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final AtomicLong writeRoutes = new AtomicLong();
+    private final AtomicLong replicaReadRoutes = new AtomicLong();
+    private final AtomicLong fallbackReadRoutes = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeRoutes.incrementAndGet();
+            return Route.PRIMARY;
+        }
+        if (lagMonitor.isReplicaUsable()) {
+            replicaReadRoutes.incrementAndGet();
+            return Route.REPLICA;
+        }
+        // Replica too stale or unreachable: bounded staleness means reading from the primary
+        fallbackReadRoutes.incrementAndGet();
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Routing counters, replica lag and per-pool connection statistics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeRoutes", writeRoutes.get());
+        stats.put("replicaReadRoutes", replicaReadRoutes.get());
+        stats.put("fallbackReadRoutes", fallbackReadRoutes.get());
+        stats.put("replicaUsable", lagMonitor.isReplicaUsable());
+        stats.put("replicaLagMillis", lagMonitor.getLagMillis());
+        stats.put("maxStalenessMillis", lagMonitor.getMaxStalenessMillis());
+
+        Map<String, Object> pools = new LinkedHashMap<>();
+        getResolvedDataSources().forEach((route, dataSource) -> pools.put(route.toString(), poolStats(dataSource)));
+        stats.put("pools", pools);
+        return stats;
+    }
+
+    private Map<String, Object> poolStats(DataSource dataSource) {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        if (dataSource instanceof HikariDataSource hikari) {
+            pool.put("name", hikari.getPoolName());
+            pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+            if (mxBean != null) {
+                pool.put("active", mxBean.getActiveConnections());
+                pool.put("idle", mxBean.getIdleConnections());
+                pool.put("total", mxBean.getTotalConnections());
+                pool.put("awaiting", mxBean.getThreadsAwaitingConnection());
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,85 @@
+package com.interview.practice.inventory.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replica Lag Monitor
+ * Writes a heartbeat row to the primary and reads it back from the replica.
+ * The replica holds everything the primary committed up to the newest heartbeat it shows, so the
+ * age of that heartbeat bounds how stale replica reads are. The age is checked against the
+ * configured staleness on every route rather than once per heartbeat, so the bound holds between
+ * heartbeats too; heartbeat-ms must therefore stay well below max-staleness-ms, or reads fall back
+ * to the primary for the tail of every interval. While the bound is exceeded (or the replica is
+ * unreachable) read-only transactions fall back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final long UNKNOWN_LAG = -1L;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxStalenessMillis;
+
+    // Newest primary heartbeat seen on the replica, or -1 if unknown
+    private volatile long replicaBeatMillis = UNKNOWN_LAG;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, long maxStalenessMillis) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Whether read-only transactions may currently be served by the replica
+     */
+    public boolean isReplicaUsable() {
+        long lag = getLagMillis();
+        return lag != UNKNOWN_LAG && (maxStalenessMillis <= 0 || lag <= maxStalenessMillis);
+    }
+
+    /**
+     * Age of the newest heartbeat seen on the replica in milliseconds, or -1 if unknown
+     */
+    public long getLagMillis() {
+        long beat = replicaBeatMillis;
+        return beat == UNKNOWN_LAG ? UNKNOWN_LAG : Math.max(0, System.currentTimeMillis() - beat);
+    }
+
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.datasource.replica.heartbeat-ms:1000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("UPDATE replica_heartbeats SET beat_millis = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeats (id, beat_millis) VALUES (1, ?)", now);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to write replica heartbeat to primary: {}", e.getMessage());
+        }
+
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_millis FROM replica_heartbeats WHERE id = 1", Long.class);
+            replicaBeatMillis = beats.isEmpty() ? UNKNOWN_LAG : beats.get(0);
+        } catch (Exception e) {
+            log.warn("Failed to read replica heartbeat: {}", e.getMessage());
+            replicaBeatMillis = UNKNOWN_LAG;
+        }
+
+        boolean usable = isReplicaUsable();
+        if (usable != replicaUsable) {
+            log.info("Replica {} for reads (lag: {} ms, max staleness: {} ms)",
+                    usable ? "enabled" : "disabled", getLagMillis(), maxStalenessMillis);
+        }
+        replicaUsable = usable;
+    }
+}
@@ -0,0 +1,85 @@
+package com.interview.practice.inventory.config;
+
+import com.interview.practice.inventory.sharding.ShardContext;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shard Routing DataSource
+ * Hands out connections of the shard chosen for the current thread (ShardContext), or of the
+ * home shard when none was chosen. The shard is fixed for a transaction once it has begun.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<DataSource> shards;
+    private final AtomicLongArray routes;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        this.routes = new AtomicLongArray(shards.size());
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardRouter.HOME_SHARD));
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.get();
+        int key = shard != null ? shard : ShardRouter.HOME_SHARD;
+        routes.incrementAndGet(key);
+        return key;
+    }
+
+    /**
+     * Close the shard pools (called on context shutdown)
+     */
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+
+    /**
+     * Connections handed out per shard and per-pool connection statistics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shards", shards.size());
+        Map<String, Object> pools = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("routes", routes.get(shard));
+            if (shards.get(shard) instanceof HikariDataSource hikari) {
+                pool.put("name", hikari.getPoolName());
+                pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+                HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+                if (mxBean != null) {
+                    pool.put("active", mxBean.getActiveConnections());
+                    pool.put("idle", mxBean.getIdleConnections());
+                    pool.put("awaiting", mxBean.getThreadsAwaitingConnection());
+                }
+            }
+            pools.put("shard-" + shard, pool);
+        }
+        stats.put("pools", pools);
+        return stats;
+    }
+}
@@ -0,0 +1,78 @@
+package com.interview.practice.inventory.config;
+
+import com.interview.practice.inventory.sharding.ShardRebalancer;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding DataSource Configuration
+ * Active only when inventory.sharding.urls is set (not combined with a read replica).
+ * Builds one Hikari pool per shard and exposes a routing DataSource that serves each
+ * transaction from the shard chosen by ShardRouter. The first URL is the home shard, which
+ * spring.sql.init sets up and seeds; the other shards get the schema on startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.sharding.urls")
+public class ShardingDataSourceConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${inventory.sharding.urls}") List<String> urls,
+            @Value("${inventory.sharding.maximum-pool-size:10}") int maximumPoolSize) {
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("inventory-shard-" + shards.size());
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return shardRoutingDataSource;
+    }
+
+    /**
+     * Runs once the home shard is initialized: prepares the other shards and, if enabled, moves
+     * items (e.g. the seed data, which lands on the home shard) to the shard owning their SKU
+     */
+    @Bean
+    @DependsOnDatabaseInitialization
+    public ShardRebalancer shardRebalancer(
+            ShardRoutingDataSource shardRoutingDataSource,
+            ShardRouter shardRouter,
+            ResourceLoader resourceLoader,
+            @Value("${spring.sql.init.mode:embedded}") String initMode,
+            @Value("${spring.sql.init.schema-locations:classpath:schema.sql}") String schemaLocation,
+            @Value("${inventory.sharding.rebalance-on-startup:false}") boolean rebalanceOnStartup) {
+        ShardRebalancer rebalancer = new ShardRebalancer(shardRoutingDataSource.getShards(), shardRouter.getRing());
+        rebalancer.prepare("never".equalsIgnoreCase(initMode) ? null : resourceLoader.getResource(schemaLocation));
+        if (rebalanceOnStartup) {
+            rebalancer.rebalance(false);
+        }
+        return rebalancer;
+    }
+}
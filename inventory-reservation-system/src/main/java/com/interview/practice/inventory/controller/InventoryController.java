@@ -1,17 +1,61 @@
 package com.interview.practice.inventory.controller;
 
+import com.interview.practice.inventory.allocation.LocationAllocationService;
+import com.interview.practice.inventory.bulk.BulkOperationProcessor;
+import com.interview.practice.inventory.config.ReadWriteRoutingDataSource;
+import com.interview.practice.inventory.config.ShardRoutingDataSource;
+import com.interview.practice.inventory.dto.AvailableToPromiseResponse;
+import com.interview.practice.inventory.dto.BatchConfirmRequest;
+import com.interview.practice.inventory.dto.ContentionResponse;
+import com.interview.practice.inventory.dto.DriftReport;
+import com.interview.practice.inventory.dto.InboundShipmentRequest;
+import com.interview.practice.inventory.dto.InboundShipmentResponse;
 import com.interview.practice.inventory.dto.InventoryResponse;
+import com.interview.practice.inventory.dto.LocationStockResponse;
+import com.interview.practice.inventory.dto.ProductSearchResponse;
+import com.interview.practice.inventory.dto.ReservationAnalyticsResponse;
 import com.interview.practice.inventory.dto.ReservationRequest;
 import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.dto.SkuAnalyticsResponse;
+import com.interview.practice.inventory.dto.SplitReservationRequest;
+import com.interview.practice.inventory.export.InventoryExporter;
+import com.interview.practice.inventory.metrics.ContentionProfiler;
+import com.interview.practice.inventory.metrics.FlightRecordingService;
+import com.interview.practice.inventory.metrics.ReservationAnalytics;
+import com.interview.practice.inventory.outbox.OutboxRelay;
+import com.interview.practice.inventory.quota.StockQuotaManager;
+import com.interview.practice.inventory.service.AvailableToPromiseProjection;
+import com.interview.practice.inventory.service.InboundStockService;
+import com.interview.practice.inventory.service.InventoryReadCoalescer;
+import com.interview.practice.inventory.service.InventoryReconciliationService;
 import com.interview.practice.inventory.service.InventoryService;
+import com.interview.practice.inventory.service.ProductSearchIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jdk.jfr.Recording;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for inventory management
@@ -22,9 +66,58 @@ import java.util.Map;
 @Slf4j
 public class InventoryController {
 
+    private static final int MAX_SKUS_PER_REQUEST = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_ATP_DAYS = 366;
+
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryReconciliationService reconciliationService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private BulkOperationProcessor bulkOperationProcessor;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private InboundStockService inboundStockService;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private LocationAllocationService locationAllocationService;
+
+    @Autowired
+    private ReservationAnalytics reservationAnalytics;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InventoryExporter inventoryExporter;
+
+    @Autowired
+    private StockQuotaManager stockQuotaManager;
+
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
     /**
      * Health check / status endpoint
      */
@@ -37,17 +130,114 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Search products by name (served from the in-memory index)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productSearchIndex.search(q, page, size));
+    }
+
     /**
      * Get inventory details for a SKU
      */
     @GetMapping("/{sku}")
-    public ResponseEntity<InventoryResponse> getInventory(@PathVariable String sku) {
+    public ResponseEntity<InventoryResponse> getInventory(@PathVariable String sku, WebRequest webRequest) {
         log.info("Fetching inventory for SKU: {}", sku);
+        // Cheap version-only read first: unchanged rows answer 304 without mapping the entity
+        Optional<Long> version = inventoryService.getInventoryVersion(sku);
+        if (version.isPresent() && webRequest.checkNotModified(itemEtag(sku, version.get()))) {
+            return null;
+        }
         return inventoryService.getInventory(sku)
+                .map(response -> ResponseEntity.ok()
+                        .eTag(itemEtag(sku, response.getVersion()))
+                        .body(response))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get inventory details for several SKUs, with one ETag covering all of them
+     */
+    @GetMapping
+    public ResponseEntity<List<InventoryResponse>> getInventories(@RequestParam List<String> skus,
+                                                                  WebRequest webRequest) {
+        Set<String> requested = new TreeSet<>(skus);
+        if (requested.size() > MAX_SKUS_PER_REQUEST) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Fetching inventory for {} SKUs", requested.size());
+        Map<String, Long> versions = inventoryService.getInventoryVersions(requested);
+        if (webRequest.checkNotModified(combinedEtag(requested, versions))) {
+            return null;
+        }
+        List<InventoryResponse> responses = inventoryService.getInventories(requested);
+        Map<String, Long> servedVersions = new TreeMap<>();
+        responses.forEach(response -> servedVersions.put(response.getSku(), response.getVersion()));
+        return ResponseEntity.ok()
+                .eTag(combinedEtag(requested, servedVersions))
+                .body(responses);
+    }
+
+    /**
+     * Available-to-promise for a SKU over the next days, including inbound stock (served from memory)
+     */
+    @GetMapping("/{sku}/atp")
+    public ResponseEntity<AvailableToPromiseResponse> availableToPromise(
+            @PathVariable String sku,
+            @RequestParam(defaultValue = "30") Integer days) {
+        if (days < 1 || days > MAX_ATP_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return availableToPromiseProjection.project(sku, LocalDate.now(), days)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Expected inbound shipments for a SKU, earliest first
+     */
+    @GetMapping("/{sku}/inbound")
+    public ResponseEntity<List<InboundShipmentResponse>> expectedShipments(@PathVariable String sku) {
+        return ResponseEntity.ok(inboundStockService.getExpectedShipments(sku));
+    }
+
+    /**
+     * Schedule an inbound shipment for a SKU
+     */
+    @PostMapping("/{sku}/inbound")
+    public ResponseEntity<InboundShipmentResponse> scheduleShipment(
+            @PathVariable String sku,
+            @Validated @RequestBody InboundShipmentRequest request) {
+        log.info("Inbound shipment request: SKU={}, quantity={}, expected={}",
+                sku, request.getQuantity(), request.getExpectedDate());
+        return ResponseEntity.ok(inboundStockService.scheduleShipment(sku, request));
+    }
+
+    /**
+     * Receive an inbound shipment (its units go on hand)
+     */
+    @PostMapping("/inbound/{shipmentId}/receive")
+    public ResponseEntity<InboundShipmentResponse> receiveShipment(@PathVariable Long shipmentId) {
+        log.info("Receive inbound shipment request: {}", shipmentId);
+        return ResponseEntity.ok(inboundStockService.receiveShipment(shipmentId));
+    }
+
+    /**
+     * Cancel an inbound shipment
+     */
+    @PostMapping("/inbound/{shipmentId}/cancel")
+    public ResponseEntity<InboundShipmentResponse> cancelShipment(@PathVariable Long shipmentId) {
+        log.info("Cancel inbound shipment request: {}", shipmentId);
+        return ResponseEntity.ok(inboundStockService.cancelShipment(shipmentId));
+    }
+
     /**
      * Reserve inventory
      */
@@ -59,6 +249,37 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Reserve inventory across locations, split by an allocation policy (NEAREST_FIRST, FEWEST_SPLITS)
+     */
+    @PostMapping("/reserve/split")
+    public ResponseEntity<ReservationResponse> reserveAcrossLocations(
+            @Validated @RequestBody SplitReservationRequest request) {
+        log.info("Split reserve request: SKU={}, quantity={}, policy={}",
+                request.getSku(), request.getQuantity(), request.getPolicy());
+        return ResponseEntity.ok(locationAllocationService.reserve(request));
+    }
+
+    /**
+     * Stock of a SKU at each location
+     */
+    @GetMapping("/{sku}/locations")
+    public ResponseEntity<List<LocationStockResponse>> locationStock(@PathVariable String sku) {
+        return ResponseEntity.ok(locationAllocationService.getLocationStock(sku));
+    }
+
+    /**
+     * Move available units of a SKU into a location's stock
+     */
+    @PostMapping("/{sku}/locations/{locationCode}")
+    public ResponseEntity<LocationStockResponse> stockLocation(
+            @PathVariable String sku,
+            @PathVariable String locationCode,
+            @RequestParam Integer quantity) {
+        log.info("Stock location request: SKU={}, location={}, quantity={}", sku, locationCode, quantity);
+        return ResponseEntity.ok(locationAllocationService.stockLocation(sku, locationCode, quantity));
+    }
+
     /**
      * Release a reservation
      */
@@ -81,6 +302,246 @@ public class InventoryController {
         ReservationResponse response = inventoryService.confirmReservation(reservationId, orderId);
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Confirm every reservation of an order at once (all or nothing)
+     */
+    @PostMapping("/confirm/batch")
+    public ResponseEntity<List<ReservationResponse>> confirmReservations(
+            @Validated @RequestBody BatchConfirmRequest request) {
+        log.info("Batch confirm request: {} reservations for order: {}",
+                request.getReservationIds().size(), request.getOrderId());
+        List<ReservationResponse> response = inventoryService.confirmReservations(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Pipelined bulk reserve/release/confirm
+     * Body is one JSON operation per line; one JSON result per line is streamed back as each completes
+     */
+    @PostMapping(value = "/ops", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkOperations(HttpServletRequest request) {
+        log.info("Bulk operations stream opened");
+        StreamingResponseBody body = output -> bulkOperationProcessor.process(request.getInputStream(), output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 
+    /**
+     * Bulk operation stream counters
+     */
+    @GetMapping("/ops")
+    public ResponseEntity<Map<String, Object>> bulkOperationStats() {
+        return ResponseEntity.ok(bulkOperationProcessor.stats());
+    }
+
+    /**
+     * Extend a reservation (checkout heartbeat)
+     */
+    @PostMapping("/extend/{reservationId}")
+    public ResponseEntity<ReservationResponse> extendReservation(
+            @PathVariable String reservationId,
+            @RequestParam(required = false) Integer minutes) {
+        log.info("Extend reservation request: {} by {} minutes", reservationId, minutes);
+        ReservationResponse response = inventoryService.extendReservation(reservationId, minutes);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Restock inventory for a SKU
+     */
+    @PostMapping("/restock/{sku}")
+    public ResponseEntity<InventoryResponse> restockInventory(
+            @PathVariable String sku,
+            @RequestParam Integer quantity) {
+        log.info("Restock inventory request: SKU={}, quantity={}", sku, quantity);
+        InventoryResponse response = inventoryService.restockInventory(sku, quantity);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Read/write or shard routing and connection pool statistics
+     */
+    @GetMapping("/datasources")
+    public ResponseEntity<Map<String, Object>> dataSourceStats() {
+        if (shardRoutingDataSource != null) {
+            return ResponseEntity.ok(shardRoutingDataSource.stats());
+        }
+        if (routingDataSource == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("routing", "disabled");
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok(routingDataSource.stats());
+    }
+
+    /**
+     * Reconciliation counters and recent drift reports
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<Map<String, Object>> reconciliationStats() {
+        return ResponseEntity.ok(reconciliationService.stats());
+    }
+
+    /**
+     * Outbox relay counters, backlog and delivery lag
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> outboxStats() {
+        return ResponseEntity.ok(outboxRelay.stats());
+    }
+
+    /**
+     * Single-flight read coalescing ratio and cache counters
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> coalescingStats() {
+        return ResponseEntity.ok(inventoryReadCoalescer.stats());
+    }
+
+    /**
+     * Stock quota allotments held by this instance
+     */
+    @GetMapping("/quota")
+    public ResponseEntity<Map<String, Object>> quotaStats() {
+        return ResponseEntity.ok(stockQuotaManager.stats());
+    }
+
+    /**
+     * Audit a single SKU on demand
+     */
+    @PostMapping("/reconciliation/{sku}")
+    public ResponseEntity<DriftReport> auditSku(@PathVariable String sku) {
+        log.info("Reconciliation audit request: SKU={}", sku);
+        return reconciliationService.auditSku(sku)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Reservation analytics over the sliding window (served from memory)
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<ReservationAnalyticsResponse> analytics(
+            @RequestParam(defaultValue = "20") Integer top) {
+        return ResponseEntity.ok(reservationAnalytics.snapshot(top));
+    }
+
+    /**
+     * Reservation analytics for a single SKU
+     */
+    @GetMapping("/analytics/{sku}")
+    public ResponseEntity<SkuAnalyticsResponse> skuAnalytics(@PathVariable String sku) {
+        return reservationAnalytics.snapshot(sku)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Hottest SKUs by item lock wait, with wait and hold time distributions
+     */
+    @GetMapping("/contention")
+    public ResponseEntity<ContentionResponse> contention(
+            @RequestParam(defaultValue = "10") Integer top) {
+        return ResponseEntity.ok(contentionProfiler.snapshot(top));
+    }
+
+    /**
+     * Start a fresh contention profile
+     */
+    @DeleteMapping("/contention")
+    public ResponseEntity<Void> resetContention() {
+        contentionProfiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Stream a snapshot of every item's quantities as NDJSON or CSV, optionally gzipped
+     * Read through a database cursor without row locks, so it is safe to run against live traffic
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInventory(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!inventoryExporter.isValidFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String extension = format.toLowerCase(Locale.ROOT);
+        log.info("Inventory export request: {}{}", extension, gzip ? " (gzip)" : "");
+        StreamingResponseBody body = output -> inventoryExporter.export(extension, gzip, output);
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : "csv".equals(extension) ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"inventory-export."
+                        + extension + (gzip ? ".gz" : "") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Record this instance with JDK Flight Recorder for a few seconds and stream back the .jfr file
+     */
+    @PostMapping(value = "/admin/recording", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> flightRecording(
+            @RequestParam(defaultValue = "30") Integer seconds,
+            @RequestParam(defaultValue = "profile") String settings) {
+        if (seconds < 1 || seconds > flightRecordingService.getMaxDurationSeconds()
+                || !flightRecordingService.isValidSettings(settings)) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Flight recording request: {} seconds with {} settings", seconds, settings);
+        return flightRecordingService.start(settings, Duration.ofSeconds(seconds))
+                .map(recording -> {
+                    StreamingResponseBody body = output ->
+                            flightRecordingService.finish(recording, Duration.ofSeconds(seconds), output);
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"" + recording.getName() + ".jfr\"")
+                            .body(body);
+                })
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    /**
+     * Record this instance for a few seconds and return per-operation latency breakdowns only
+     * Served asynchronously: no request thread waits while the recording runs
+     */
+    @PostMapping("/admin/recording/summary")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> flightRecordingSummary(
+            @RequestParam(defaultValue = "30") Integer seconds,
+            @RequestParam(defaultValue = "profile") String settings) {
+        if (seconds < 1 || seconds > flightRecordingService.getMaxDurationSeconds()
+                || !flightRecordingService.isValidSettings(settings)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        log.info("Flight recording summary request: {} seconds with {} settings", seconds, settings);
+        Duration duration = Duration.ofSeconds(seconds);
+        Optional<Recording> recording = flightRecordingService.start(settings, duration);
+        if (recording.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+        return flightRecordingService.summarize(recording.get(), duration).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Strong ETag for one item: changes whenever the row version does
+     */
+    private static String itemEtag(String sku, Long version) {
+        return "\"" + sku + "-" + version + "\"";
+    }
+
+    /**
+     * Strong ETag for a set of items: digest of every requested SKU and its version (absent SKUs included)
+     */
+    private static String combinedEtag(Set<String> skus, Map<String, Long> versions) {
+        StringBuilder key = new StringBuilder();
+        for (String sku : skus) {
+            key.append(sku).append('=').append(versions.getOrDefault(sku, -1L)).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,33 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response DTO for an available-to-promise projection
+ * One bucket per day with inbound stock in the horizon; overdue shipments count from the first day
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableToPromiseResponse {
+    private String sku;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Integer availableQuantity; // Promisable today from stock on hand
+    private Integer inboundQuantity; // Expected in the horizon
+    private Integer availableToPromise; // Promisable by the end of the horizon
+    private List<Bucket> buckets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDate date;
+        private Integer inboundQuantity;
+        private Integer availableToPromise; // Cumulative: on hand plus everything arriving by this day
+    }
+}
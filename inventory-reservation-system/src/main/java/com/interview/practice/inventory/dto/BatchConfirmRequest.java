@@ -0,0 +1,25 @@
+package com.interview.practice.inventory.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Request DTO for confirming all reservations of an order at once
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchConfirmRequest {
+
+    @NotBlank(message = "Order ID is required")
+    private String orderId;
+
+    @NotEmpty(message = "At least one reservation ID is required")
+    @Size(max = 200, message = "At most 200 reservations can be confirmed at once")
+    private List<@NotBlank String> reservationIds;
+}
@@ -0,0 +1,28 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+/**
+ * One line of a bulk operations stream
+ * RESERVE needs sku and quantity; RELEASE needs reservationId; CONFIRM needs reservationId and orderId
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperation {
+
+    public enum Type {
+        RESERVE,
+        RELEASE,
+        CONFIRM
+    }
+
+    private String id; // Optional client correlation id, echoed back in the result
+    private Type op;
+    private String sku;
+    private Integer quantity;
+    private Integer timeoutMinutes;
+    private String reservationId;
+    private String orderId;
+}
@@ -0,0 +1,22 @@
+package com.interview.practice.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Result of one bulk operation, streamed back as soon as the operation completes
+ * seq is the 1-based line number of the operation; status follows HTTP status codes
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOperationResult {
+    private Long seq;
+    private String id;
+    private BulkOperation.Type op;
+    private Integer status;
+    private String error;
+    private ReservationResponse reservation;
+}
@@ -0,0 +1,21 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Response DTO for the hottest SKUs by item lock wait time
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentionResponse {
+    private Integer capacity;
+    private Integer trackedSkus;
+    private Long lockAcquisitions;
+    private Long totalWaitMicros;
+    private Long untrackedWaits; // Lock waits of new SKUs that arrived while the table was full
+    private List<SkuContentionResponse> skus;
+}
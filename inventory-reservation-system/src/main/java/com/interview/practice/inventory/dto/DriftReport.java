@@ -0,0 +1,21 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reconciliation drift between an item's counters and its ACTIVE reservations
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriftReport {
+    private String sku;
+    private Integer recordedReservedQuantity;
+    private Integer actualReservedQuantity;
+    private Long recordedChecksum;
+    private Long actualChecksum;
+    private boolean repaired;
+    private LocalDateTime detectedAt;
+}
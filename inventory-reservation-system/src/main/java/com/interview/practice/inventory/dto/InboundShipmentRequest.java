@@ -0,0 +1,25 @@
+package com.interview.practice.inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Request DTO for scheduling an inbound shipment
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundShipmentRequest {
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @NotNull(message = "Expected date is required")
+    private LocalDate expectedDate;
+
+    private String reference; // Optional supplier / purchase order reference
+}
@@ -0,0 +1,20 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Response DTO for an inbound shipment
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboundShipmentResponse {
+    private Long id;
+    private String sku;
+    private String reference;
+    private Integer quantity;
+    private LocalDate expectedDate;
+    private String status;
+}
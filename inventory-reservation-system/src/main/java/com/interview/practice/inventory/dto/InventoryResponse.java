@@ -1,12 +1,13 @@
 package com.interview.practice.inventory.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 /**
  * Response DTO for inventory information
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class InventoryResponse {
@@ -15,5 +16,9 @@ public class InventoryResponse {
     private Integer availableQuantity;
     private Integer totalQuantity;
     private Integer reservedQuantity;
+    private Integer leasedQuantity;
+
+    @JsonIgnore
+    private Long version; // Row version the response was mapped from, sent as the ETag
 }
 
@@ -0,0 +1,18 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+/**
+ * Response DTO for the stock of a SKU at one location
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStockResponse {
+    private String sku;
+    private String locationCode;
+    private Integer totalQuantity;
+    private Integer availableQuantity;
+    private Integer reservedQuantity;
+}
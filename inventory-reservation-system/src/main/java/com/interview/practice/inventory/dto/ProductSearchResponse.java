@@ -0,0 +1,33 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Response DTO for a page of product name search results
+ * Quantities are the latest committed state known to the in-memory index
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResponse {
+    private String query;
+    private Integer page;
+    private Integer size;
+    private Integer totalMatches;
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private String sku;
+        private String productName;
+        private Integer totalQuantity;
+        private Integer availableQuantity;
+        private Integer reservedQuantity;
+        private Integer score;
+    }
+}
@@ -0,0 +1,18 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Response DTO for streaming reservation analytics
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationAnalyticsResponse {
+    private Integer windowMinutes;
+    private Integer trackedSkus;
+    private SkuAnalyticsResponse overall;
+    private List<SkuAnalyticsResponse> skus;
+}
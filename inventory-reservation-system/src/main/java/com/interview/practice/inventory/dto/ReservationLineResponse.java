@@ -0,0 +1,15 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+/**
+ * Response DTO for the units a reservation holds at one location
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationLineResponse {
+    private String locationCode;
+    private Integer quantity;
+}
@@ -1,7 +1,9 @@
 package com.interview.practice.inventory.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Response DTO for reservation information
@@ -18,5 +20,8 @@ public class ReservationResponse {
     private String status;
     private LocalDateTime expiresAt;
     private LocalDateTime createdAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ReservationLineResponse> lines; // Per-location units of a location-split reservation
 }
 
@@ -0,0 +1,40 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+/**
+ * Response DTO for per-SKU reservation analytics over the sliding window
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuAnalyticsResponse {
+    private String sku;
+    private Long reserved;
+    private Long reservedUnits;
+    private Long confirmed;
+    private Long released;
+    private Long expired;
+    private Double reservationsPerMinute;
+    private Double confirmRatio;
+    private Double releaseRatio;
+    private Double expireRatio;
+    private LatencySummary timeToConfirmSeconds;
+
+    /**
+     * Percentile summary of a latency histogram
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencySummary {
+        private Long count;
+        private Double mean;
+        private Long p50;
+        private Long p90;
+        private Long p99;
+        private Long max;
+    }
+}
@@ -0,0 +1,20 @@
+package com.interview.practice.inventory.dto;
+
+import lombok.*;
+
+/**
+ * Response DTO for lock contention on a single SKU
+ * totalWaitMicros may overestimate by up to errorMicros (Space-Saving bound)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuContentionResponse {
+    private String sku;
+    private Long lockAcquisitions;
+    private Long totalWaitMicros;
+    private Long errorMicros;
+    private SkuAnalyticsResponse.LatencySummary waitMicros;
+    private SkuAnalyticsResponse.LatencySummary holdMicros;
+}
@@ -0,0 +1,31 @@
+package com.interview.practice.inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Request DTO for a reservation allocated across locations
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SplitReservationRequest {
+
+    @NotBlank(message = "SKU is required")
+    private String sku;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    private Integer timeoutMinutes; // Optional, defaults to 15 if not provided
+
+    private String policy; // Optional allocation policy, defaults to NEAREST_FIRST
+
+    private Double latitude; // Optional delivery point used to rank locations by distance
+
+    private Double longitude;
+}
@@ -0,0 +1,7 @@
+package com.interview.practice.inventory.exception;
+
+public class InboundShipmentNotFoundException extends RuntimeException {
+    public InboundShipmentNotFoundException(String message) {
+        super(message);
+    }
+}
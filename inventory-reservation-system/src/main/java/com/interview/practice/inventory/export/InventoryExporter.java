@@ -0,0 +1,218 @@
+package com.interview.practice.inventory.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Inventory Exporter
+ * Streams every item's quantities as NDJSON or CSV, optionally gzipped, for bulk consumers.
+ *
+ * Rows are read through a forward-only, read-only JDBC cursor with a fixed fetch size and written
+ * out one at a time, so memory stays constant however large the catalog is; no entities are
+ * loaded. The read runs in a read-only REPEATABLE_READ transaction: the databases this runs on
+ * serve it from an MVCC snapshot, so the export is consistent and takes no row locks that could
+ * block reservations. With sharding each shard is exported from its own snapshot, one after another.
+ */
+@Component
+@Slf4j
+public class InventoryExporter {
+
+    public static final List<String> FORMATS = List.of("ndjson", "csv");
+
+    private static final String SELECT_ITEMS =
+            "SELECT sku, product_name, total_quantity, available_quantity, reserved_quantity, "
+                    + "leased_quantity, inbound_quantity, version, updated_at FROM inventory_items ORDER BY id";
+
+    private static final String CSV_HEADER =
+            "sku,productName,totalQuantity,availableQuantity,reservedQuantity,leasedQuantity,inboundQuantity,version,updatedAt";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate cursor;
+    private TransactionTemplate snapshotTransaction;
+
+    @PostConstruct
+    void init() {
+        cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(fetchSize);
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public boolean isValidFormat(String format) {
+        return format != null && FORMATS.contains(format.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Write the export to the output stream; returns the number of items written
+     */
+    public long export(String format, boolean gzip, OutputStream output) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        long started = System.nanoTime();
+        GZIPOutputStream gzipOutput = gzip ? new GZIPOutputStream(output, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                gzipOutput != null ? gzipOutput : output, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = csv ? new CsvRowWriter(writer) : new JsonRowWriter(writer);
+
+        AtomicLong rows = new AtomicLong();
+        try {
+            for (int shard : shardRouter.shards()) {
+                shardRouter.runOnShard(shard, () -> snapshotTransaction.executeWithoutResult(status ->
+                        cursor.query(SELECT_ITEMS, (RowCallbackHandler) resultSet -> {
+                            try {
+                                rowWriter.write(resultSet);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            rows.incrementAndGet();
+                        })));
+            }
+        } catch (UncheckedIOException e) {
+            // Client went away: the cursor and snapshot are already released by the rollback
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        if (gzipOutput != null) {
+            gzipOutput.finish();
+        }
+        output.flush();
+
+        log.info("Exported {} inventory items as {}{} in {} ms", rows.get(), csv ? "CSV" : "NDJSON",
+                gzip ? " (gzip)" : "", (System.nanoTime() - started) / 1_000_000);
+        return rows.get();
+    }
+
+    private interface RowWriter {
+
+        void write(ResultSet row) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class JsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        JsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // One object per line: no separator between root values, a newline after each instead
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("sku", row.getString("sku"));
+            generator.writeStringField("productName", row.getString("product_name"));
+            generator.writeNumberField("totalQuantity", row.getInt("total_quantity"));
+            generator.writeNumberField("availableQuantity", row.getInt("available_quantity"));
+            generator.writeNumberField("reservedQuantity", row.getInt("reserved_quantity"));
+            generator.writeNumberField("leasedQuantity", row.getInt("leased_quantity"));
+            generator.writeNumberField("inboundQuantity", row.getInt("inbound_quantity"));
+            generator.writeNumberField("version", row.getLong("version"));
+            generator.writeStringField("updatedAt", timestamp(row));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+            writer.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            writer.write(csvField(row.getString("sku")));
+            writer.write(',');
+            writer.write(csvField(row.getString("product_name")));
+            for (String column : List.of("total_quantity", "available_quantity", "reserved_quantity",
+                    "leased_quantity", "inbound_quantity")) {
+                writer.write(',');
+                writer.write(Integer.toString(row.getInt(column)));
+            }
+            writer.write(',');
+            writer.write(Long.toString(row.getLong("version")));
+            writer.write(',');
+            writer.write(csvField(timestamp(row)));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String timestamp(ResultSet row) throws SQLException {
+        Timestamp updatedAt = row.getTimestamp("updated_at");
+        return updatedAt != null ? updatedAt.toLocalDateTime().toString() : null;
+    }
+
+    /**
+     * RFC 4180 quoting: fields with separators, quotes or line breaks are quoted, quotes doubled
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
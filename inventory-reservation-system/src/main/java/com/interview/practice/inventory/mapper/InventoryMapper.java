@@ -24,6 +24,7 @@ public interface InventoryMapper {
     @Mapping(source = "inventoryItem.sku", target = "sku")
     @Mapping(source = "inventoryItem.productName", target = "productName")
     @Mapping(target = "status", expression = "java(reservation.getStatus().name())")
+    @Mapping(target = "lines", ignore = true)
     ReservationResponse toReservationResponse(Reservation reservation);
 }
 
@@ -0,0 +1,179 @@
+package com.interview.practice.inventory.metrics;
+
+import com.interview.practice.inventory.dto.ContentionResponse;
+import com.interview.practice.inventory.dto.SkuAnalyticsResponse;
+import com.interview.practice.inventory.dto.SkuContentionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention Profiler
+ * Tracks item row lock wait and hold time per SKU in a bounded number of counters.
+ *
+ * Uses weighted Space-Saving keyed by total lock wait, with eviction batched off the hot path:
+ * recording only touches the SKU's own counter, and a periodic compaction trims the table back
+ * to capacity by dropping the lightest counters. New SKUs start at the heaviest weight dropped
+ * so far, which is their error bound, so any SKU whose true wait exceeds total / capacity still
+ * surfaces whatever the catalog size. Recorders never compact: between compactions the table
+ * takes up to twice the capacity, and once that is full a new SKU's wait only counts towards
+ * the totals until the next compaction makes room.
+ * Wait and hold distributions restart when a counter changes hands.
+ */
+@Component
+public class ContentionProfiler {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder totalWaitMicros = new LongAdder();
+    private final LongAdder droppedWaits = new LongAdder();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile long evictedWeight;
+
+    public ContentionProfiler(@Value("${inventory.contention.capacity:200}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Record the time spent waiting for an item lock
+     */
+    public void recordWait(String sku, long waitNanos) {
+        long waitMicros = waitNanos / 1_000;
+        lockAcquisitions.increment();
+        totalWaitMicros.add(waitMicros);
+
+        Counter counter = counters.get(sku);
+        if (counter == null) {
+            if (counters.size() >= capacity * 2) {
+                // Called with the item lock held: leave trimming to the scheduled compaction
+                droppedWaits.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(sku, key -> new Counter(evictedWeight));
+        }
+        counter.weight.add(waitMicros);
+        counter.acquisitions.increment();
+        synchronized (counter) {
+            counter.wait.record(waitMicros);
+        }
+    }
+
+    /**
+     * Record how long an item lock was held (until commit or rollback)
+     * Ignored for SKUs that lost their counter in the meantime
+     */
+    public void recordHold(String sku, long holdNanos) {
+        Counter counter = counters.get(sku);
+        if (counter != null) {
+            synchronized (counter) {
+                counter.hold.record(holdNanos / 1_000);
+            }
+        }
+    }
+
+    /**
+     * Top SKUs by total lock wait
+     */
+    public ContentionResponse snapshot(int top) {
+        List<SkuContentionResponse> skus = counters.entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .sorted(Comparator.comparingLong(SkuContentionResponse::getTotalWaitMicros).reversed())
+                .limit(Math.max(0, top))
+                .toList();
+        return ContentionResponse.builder()
+                .capacity(capacity)
+                .trackedSkus(counters.size())
+                .lockAcquisitions(lockAcquisitions.sum())
+                .totalWaitMicros(totalWaitMicros.sum())
+                .untrackedWaits(droppedWaits.sum())
+                .skus(skus)
+                .build();
+    }
+
+    /**
+     * Drop the lightest counters until the table is back at capacity
+     * Runs on the contention scheduler only; skipped if another compaction is in progress
+     */
+    public void compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = counters.size() - capacity;
+            if (excess <= 0) {
+                return;
+            }
+            // Weights keep moving, so order on a copy taken once per counter
+            List<Map.Entry<String, Long>> lightest = counters.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().weight.sum()))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(excess)
+                    .toList();
+            long floor = evictedWeight;
+            for (Map.Entry<String, Long> entry : lightest) {
+                counters.remove(entry.getKey());
+                floor = Math.max(floor, entry.getValue());
+            }
+            evictedWeight = floor;
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    public void reset() {
+        counters.clear();
+        lockAcquisitions.reset();
+        totalWaitMicros.reset();
+        droppedWaits.reset();
+        evictedWeight = 0;
+    }
+
+    private static SkuAnalyticsResponse.LatencySummary summarize(LatencyHistogram histogram) {
+        return SkuAnalyticsResponse.LatencySummary.builder()
+                .count(histogram.getCount())
+                .mean(histogram.getMean())
+                .p50(histogram.valueAtPercentile(50))
+                .p90(histogram.valueAtPercentile(90))
+                .p99(histogram.valueAtPercentile(99))
+                .max(histogram.getMax())
+                .build();
+    }
+
+    private static final class Counter {
+        private final LongAdder weight = new LongAdder();
+        private final long error;
+        private final LongAdder acquisitions = new LongAdder();
+        // Guarded by the counter itself, which only threads of the same SKU contend on
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LatencyHistogram hold = new LatencyHistogram();
+
+        Counter(long inheritedWeight) {
+            weight.add(inheritedWeight);
+            error = inheritedWeight;
+        }
+
+        SkuContentionResponse summarize(String sku) {
+            SkuAnalyticsResponse.LatencySummary waitSummary;
+            SkuAnalyticsResponse.LatencySummary holdSummary;
+            synchronized (this) {
+                waitSummary = ContentionProfiler.summarize(wait);
+                holdSummary = ContentionProfiler.summarize(hold);
+            }
+            return SkuContentionResponse.builder()
+                    .sku(sku)
+                    .lockAcquisitions(acquisitions.sum())
+                    .totalWaitMicros(weight.sum())
+                    .errorMicros(error)
+                    .waitMicros(waitSummary)
+                    .holdMicros(holdSummary)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.interview.practice.inventory.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Flight Recording Service
+ * Time-boxed, on-demand JDK Flight Recorder recordings of this instance (admin endpoint).
+ *
+ * A recording uses one of the JDK's built-in settings ("default" or "profile") with inventory
+ * operation events enabled regardless of duration, so lock waits, Hibernate work and GC can be
+ * read on one timeline. Only one recording runs at a time; the file is deleted once served.
+ * A recording nobody collected (the client went away before its response body ran) is closed by
+ * a watchdog once its duration plus a grace period has passed, so the slot is always freed.
+ */
+@Component
+@Slf4j
+public class FlightRecordingService {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    private final AtomicReference<Recording> current = new AtomicReference<>();
+
+    @Value("${inventory.jfr.max-duration-seconds:300}")
+    private int maxDurationSeconds;
+
+    @Value("${inventory.jfr.abandon-after-seconds:60}")
+    private int abandonAfterSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-recording");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        Recording jfr = current.getAndSet(null);
+        if (jfr != null) {
+            jfr.close();
+        }
+    }
+
+    public int getMaxDurationSeconds() {
+        return maxDurationSeconds;
+    }
+
+    public boolean isValidSettings(String settings) {
+        return SETTINGS.contains(settings);
+    }
+
+    /**
+     * Start a recording meant to run for the given duration, or return empty if one is already running
+     */
+    public Optional<Recording> start(String settings, Duration duration) {
+        if (!isValidSettings(settings)) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settings);
+        }
+        Recording jfr;
+        try {
+            jfr = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not start flight recording: " + e.getMessage(), e);
+        }
+        if (!current.compareAndSet(null, jfr)) {
+            jfr.close();
+            return Optional.empty();
+        }
+        try {
+            jfr.setName("inventory-" + System.currentTimeMillis());
+            jfr.setToDisk(true);
+            jfr.enable(InventoryOperationEvent.class).withThreshold(Duration.ZERO);
+            jfr.start();
+        } catch (RuntimeException e) {
+            release(jfr);
+            throw new IllegalStateException("Could not start flight recording: " + e.getMessage(), e);
+        }
+        scheduler.schedule(() -> abandon(jfr),
+                duration.plusSeconds(abandonAfterSeconds).toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Flight recording {} started with {} settings", jfr.getName(), settings);
+        return Optional.of(jfr);
+    }
+
+    /**
+     * Let a started recording run for its duration, then write the .jfr file to the output
+     */
+    public void finish(Recording jfr, Duration duration, OutputStream output) throws IOException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            // Stop early and still hand back what was recorded
+            Thread.currentThread().interrupt();
+        }
+        capture(jfr, file -> {
+            Files.copy(file, output);
+            return null;
+        });
+    }
+
+    /**
+     * Summarize a started recording's inventory operation events once its duration has passed
+     * Completes on the recorder's own thread, so no request thread waits for the recording
+     */
+    public CompletableFuture<Map<String, Object>> summarize(Recording jfr, Duration duration) {
+        CompletableFuture<Map<String, Object>> summary = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            try {
+                summary.complete(capture(jfr, FlightRecordingSummarizer::summarize));
+            } catch (IOException | RuntimeException e) {
+                summary.completeExceptionally(e);
+            }
+        }, duration.toMillis(), TimeUnit.MILLISECONDS);
+        return summary;
+    }
+
+    private <T> T capture(Recording jfr, RecordingReader<T> reader) throws IOException {
+        Path file = null;
+        try {
+            jfr.stop();
+            file = Files.createTempFile(jfr.getName() + "-", ".jfr");
+            jfr.dump(file);
+            log.info("Flight recording {} finished: {} bytes", jfr.getName(), Files.size(file));
+            return reader.read(file);
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+            release(jfr);
+        }
+    }
+
+    /**
+     * Close a recording still running well past its duration and free the slot
+     */
+    private void abandon(Recording jfr) {
+        if (current.get() == jfr) {
+            log.warn("Flight recording {} was never collected; closing it", jfr.getName());
+            release(jfr);
+        }
+    }
+
+    private void release(Recording jfr) {
+        jfr.close();
+        current.compareAndSet(jfr, null);
+    }
+
+    @FunctionalInterface
+    private interface RecordingReader<T> {
+        T read(Path file) throws IOException;
+    }
+}
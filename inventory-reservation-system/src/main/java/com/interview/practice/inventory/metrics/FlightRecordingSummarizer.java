@@ -0,0 +1,115 @@
+package com.interview.practice.inventory.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Flight Recording Summarizer
+ * Turns the inventory operation events of a .jfr file into per-operation latency breakdowns:
+ * total duration, item lock wait, flush and commit, and the rest (all in microseconds).
+ *
+ * Run against a downloaded recording with ./gradlew jfrSummary -Precording=inventory.jfr
+ */
+public final class FlightRecordingSummarizer {
+
+    private FlightRecordingSummarizer() {
+    }
+
+    /**
+     * Summarize a recording, operations in name order
+     */
+    public static Map<String, Object> summarize(Path recording) throws IOException {
+        Map<String, Breakdown> breakdowns = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!InventoryOperationEvent.NAME.equals(event.getEventType().getName())) {
+                    continue;
+                }
+                breakdowns.computeIfAbsent(event.getString("operation"), operation -> new Breakdown())
+                        .add(event);
+            }
+        }
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        breakdowns.forEach((operation, breakdown) -> operations.put(operation, breakdown.summarize()));
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("recording", recording.toString());
+        summary.put("operations", operations);
+        return summary;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: FlightRecordingSummarizer <recording.jfr>");
+            System.exit(2);
+        }
+        Map<String, Object> summary = summarize(Path.of(args[0]));
+        System.out.printf("%-14s %8s %10s %10s %10s %12s %12s %12s  %s%n",
+                "operation", "count", "p50 us", "p99 us", "max us", "lock wait", "commit", "other", "outcomes");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> operations = (Map<String, Map<String, Object>>) summary.get("operations");
+        operations.forEach((operation, stats) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> duration = (Map<String, Object>) stats.get("durationMicros");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> breakdown = (Map<String, Object>) stats.get("meanBreakdownMicros");
+            System.out.printf("%-14s %8d %10d %10d %10d %12.1f %12.1f %12.1f  %s%n",
+                    operation, stats.get("count"),
+                    duration.get("p50"), duration.get("p99"), duration.get("max"),
+                    breakdown.get("lockWait"), breakdown.get("commit"), breakdown.get("other"),
+                    stats.get("outcomes"));
+        });
+    }
+
+    private static final class Breakdown {
+        private final LatencyHistogram duration = new LatencyHistogram();
+        private final LatencyHistogram lockWait = new LatencyHistogram();
+        private final LatencyHistogram commit = new LatencyHistogram();
+        private final Map<String, Long> outcomes = new TreeMap<>();
+
+        void add(RecordedEvent event) {
+            duration.record(micros(event.getDuration()));
+            lockWait.record(micros(event.getDuration("lockWait")));
+            commit.record(micros(event.getDuration("commitTime")));
+            String outcome = event.getString("outcome");
+            outcomes.merge(outcome != null ? outcome : "UNKNOWN", 1L, Long::sum);
+        }
+
+        Map<String, Object> summarize() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", duration.getCount());
+            stats.put("outcomes", outcomes);
+            stats.put("durationMicros", distribution(duration));
+            stats.put("lockWaitMicros", distribution(lockWait));
+            stats.put("commitMicros", distribution(commit));
+            // Where the mean operation spends its time; the rest is reads, writes and application code
+            Map<String, Object> breakdown = new LinkedHashMap<>();
+            breakdown.put("lockWait", lockWait.getMean());
+            breakdown.put("commit", commit.getMean());
+            breakdown.put("other", Math.max(0.0, duration.getMean() - lockWait.getMean() - commit.getMean()));
+            stats.put("meanBreakdownMicros", breakdown);
+            return stats;
+        }
+
+        private static Map<String, Object> distribution(LatencyHistogram histogram) {
+            Map<String, Object> distribution = new LinkedHashMap<>();
+            distribution.put("mean", histogram.getMean());
+            distribution.put("p50", histogram.valueAtPercentile(50));
+            distribution.put("p99", histogram.valueAtPercentile(99));
+            distribution.put("max", histogram.getMax());
+            return distribution;
+        }
+
+        private static long micros(Duration duration) {
+            return duration.toNanos() / 1_000;
+        }
+    }
+}
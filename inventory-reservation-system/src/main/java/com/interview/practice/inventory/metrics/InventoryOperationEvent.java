@@ -0,0 +1,140 @@
+package com.interview.practice.inventory.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Inventory Operation Event
+ * JDK Flight Recorder event for one reservation operation (reserve, release, confirm, cleanup chunk),
+ * spanning its whole transaction so it lines up with lock waits, flushes and GC in a recording.
+ *
+ * The event is created on the calling thread and found again by code running inside the operation
+ * (item lock, commit) through a thread local. When no recording has the event enabled, only the
+ * isEnabled() check runs.
+ */
+@Name(InventoryOperationEvent.NAME)
+@Label("Inventory Operation")
+@Category({"Inventory", "Reservations"})
+@Description("A reservation operation of the inventory service, including its transaction commit")
+@StackTrace(false)
+public class InventoryOperationEvent extends Event {
+
+    public static final String NAME = "com.interview.practice.inventory.Operation";
+
+    public static final String OUTCOME_OK = "OK";
+
+    private static final ThreadLocal<InventoryOperationEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Operation")
+    String operation;
+
+    @Label("SKU")
+    String sku;
+
+    @Label("Quantity")
+    int quantity;
+
+    @Label("Reservation Id")
+    String reservationId;
+
+    @Label("Lock Wait")
+    @Description("Time spent waiting for item row locks")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Flush and Commit")
+    @Description("Time from the start of the transaction commit (including the Hibernate flush) to its completion")
+    @Timespan(Timespan.NANOSECONDS)
+    long commitTime;
+
+    @Label("Outcome")
+    @Description("OK, or the simple name of the exception the operation failed with")
+    String outcome;
+
+    private transient boolean commitTracked;
+
+    /**
+     * Run an operation inside an event; it is committed when the operation returns or throws
+     */
+    public static <T> T record(String operation, String reservationId, Supplier<T> action) {
+        InventoryOperationEvent event = new InventoryOperationEvent();
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+        event.operation = operation;
+        event.reservationId = reservationId;
+        InventoryOperationEvent outer = CURRENT.get();
+        CURRENT.set(event);
+        String outcome = null;
+        event.begin();
+        try {
+            T result = action.get();
+            outcome = OUTCOME_OK;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+            if (event.shouldCommit()) {
+                event.outcome = outcome != null ? outcome : "Error";
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Attach the SKU and quantity to the current thread's event, if any.
+     * Inside a transaction this also starts timing its flush and commit.
+     */
+    public static void annotate(String sku, int quantity) {
+        InventoryOperationEvent event = CURRENT.get();
+        if (event == null) {
+            return;
+        }
+        event.sku = sku;
+        event.quantity = quantity;
+        if (!event.commitTracked && TransactionSynchronizationManager.isSynchronizationActive()) {
+            event.commitTracked = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long commitStart;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commitStart = System.nanoTime();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (commitStart != 0) {
+                        event.commitTime = System.nanoTime() - commitStart;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Add item lock wait to the current thread's event, if any
+     */
+    public static void addLockWait(long nanos) {
+        InventoryOperationEvent event = CURRENT.get();
+        if (event != null) {
+            event.lockWait += nanos;
+        }
+    }
+}
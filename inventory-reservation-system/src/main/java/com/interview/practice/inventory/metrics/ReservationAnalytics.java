@@ -0,0 +1,235 @@
+package com.interview.practice.inventory.metrics;
+
+import com.interview.practice.inventory.dto.ReservationAnalyticsResponse;
+import com.interview.practice.inventory.dto.SkuAnalyticsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Reservation Analytics
+ * Streaming aggregator fed by InventoryService state transitions after commit.
+ *
+ * Per SKU it keeps a ring of per-minute counters (sliding window) and a pair of
+ * tumbling time-to-confirm histograms, so memory per SKU is fixed. The number of
+ * tracked SKUs is capped; when full, the least recently updated of a small sample
+ * is evicted. Overall totals are kept separately and never evicted.
+ * Nothing here ever queries the reservations table.
+ */
+@Component
+public class ReservationAnalytics {
+
+    private static final int RESERVED = 0;
+    private static final int RESERVED_UNITS = 1;
+    private static final int CONFIRMED = 2;
+    private static final int RELEASED = 3;
+    private static final int EXPIRED = 4;
+    private static final int COUNTER_TYPES = 5;
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final Map<String, SkuStats> skuStats = new ConcurrentHashMap<>();
+    private final SkuStats overall;
+    private final int windowMinutes;
+    private final int maxSkus;
+    private final LongSupplier clock;
+
+    @Autowired
+    public ReservationAnalytics(@Value("${inventory.analytics.window-minutes:60}") int windowMinutes,
+                                @Value("${inventory.analytics.max-skus:5000}") int maxSkus) {
+        this(windowMinutes, maxSkus, System::currentTimeMillis);
+    }
+
+    /**
+     * Clock in epoch millis, replaceable so tests can move the window
+     */
+    ReservationAnalytics(int windowMinutes, int maxSkus, LongSupplier clock) {
+        this.windowMinutes = windowMinutes;
+        this.maxSkus = maxSkus;
+        this.clock = clock;
+        this.overall = new SkuStats(windowMinutes);
+    }
+
+    public void recordReserved(String sku, int quantity) {
+        record(sku, RESERVED, 1, quantity, null);
+    }
+
+    public void recordConfirmed(String sku, Duration timeToConfirm) {
+        record(sku, CONFIRMED, 1, 0, timeToConfirm);
+    }
+
+    public void recordReleased(String sku) {
+        record(sku, RELEASED, 1, 0, null);
+    }
+
+    public void recordExpired(String sku, int count) {
+        record(sku, EXPIRED, count, 0, null);
+    }
+
+    /**
+     * Window summary for all SKUs plus the top SKUs by reservations
+     */
+    public ReservationAnalyticsResponse snapshot(int top) {
+        long now = clock.getAsLong();
+        List<SkuAnalyticsResponse> skus = skuStats.entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey(), now))
+                .sorted(Comparator.comparing(SkuAnalyticsResponse::getReserved).reversed())
+                .limit(Math.max(0, top))
+                .toList();
+        return ReservationAnalyticsResponse.builder()
+                .windowMinutes(windowMinutes)
+                .trackedSkus(skuStats.size())
+                .overall(overall.summarize(null, now))
+                .skus(skus)
+                .build();
+    }
+
+    /**
+     * Window summary for a single SKU, if it is tracked
+     */
+    public Optional<SkuAnalyticsResponse> snapshot(String sku) {
+        SkuStats stats = skuStats.get(sku);
+        return stats == null
+                ? Optional.empty()
+                : Optional.of(stats.summarize(sku, clock.getAsLong()));
+    }
+
+    private void record(String sku, int type, long count, long units, Duration timeToConfirm) {
+        long now = clock.getAsLong();
+        SkuStats stats = skuStats.get(sku);
+        if (stats == null) {
+            evictIfFull();
+            stats = skuStats.computeIfAbsent(sku, key -> new SkuStats(windowMinutes));
+        }
+        stats.record(type, count, units, timeToConfirm, now);
+        overall.record(type, count, units, timeToConfirm, now);
+    }
+
+    private void evictIfFull() {
+        if (skuStats.size() < maxSkus) {
+            return;
+        }
+        // Approximate LRU: evict the stalest of a small sample instead of scanning every SKU
+        String stalest = null;
+        long stalestUpdate = Long.MAX_VALUE;
+        Iterator<Map.Entry<String, SkuStats>> iterator = skuStats.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+            Map.Entry<String, SkuStats> entry = iterator.next();
+            if (entry.getValue().lastUpdated < stalestUpdate) {
+                stalestUpdate = entry.getValue().lastUpdated;
+                stalest = entry.getKey();
+            }
+        }
+        if (stalest != null) {
+            skuStats.remove(stalest);
+        }
+    }
+
+    /**
+     * Fixed-size state for one SKU (or the overall totals)
+     */
+    private static final class SkuStats {
+
+        private final int windowMinutes;
+        private final long windowMillis;
+        private final long[] slotMinutes;
+        private final long[][] slotCounts;
+        private final LatencyHistogram currentTimeToConfirm = new LatencyHistogram();
+        private final LatencyHistogram previousTimeToConfirm = new LatencyHistogram();
+        private long currentHistogramStart;
+        private volatile long lastUpdated;
+
+        SkuStats(int windowMinutes) {
+            this.windowMinutes = windowMinutes;
+            this.windowMillis = Duration.ofMinutes(windowMinutes).toMillis();
+            this.slotMinutes = new long[windowMinutes];
+            this.slotCounts = new long[windowMinutes][COUNTER_TYPES];
+            Arrays.fill(slotMinutes, -1);
+        }
+
+        synchronized void record(int type, long count, long units, Duration timeToConfirm, long now) {
+            long minute = now / 60_000;
+            int slot = (int) (minute % windowMinutes);
+            if (slotMinutes[slot] != minute) {
+                slotMinutes[slot] = minute;
+                Arrays.fill(slotCounts[slot], 0);
+            }
+            slotCounts[slot][type] += count;
+            slotCounts[slot][RESERVED_UNITS] += units;
+
+            if (timeToConfirm != null) {
+                rotateHistograms(now);
+                currentTimeToConfirm.record(timeToConfirm.toSeconds());
+            }
+            lastUpdated = now;
+        }
+
+        synchronized SkuAnalyticsResponse summarize(String sku, long now) {
+            long oldestMinute = now / 60_000 - windowMinutes + 1;
+            long[] totals = new long[COUNTER_TYPES];
+            for (int slot = 0; slot < windowMinutes; slot++) {
+                if (slotMinutes[slot] >= oldestMinute) {
+                    for (int type = 0; type < COUNTER_TYPES; type++) {
+                        totals[type] += slotCounts[slot][type];
+                    }
+                }
+            }
+
+            rotateHistograms(now);
+            LatencyHistogram timeToConfirm = previousTimeToConfirm.copy();
+            timeToConfirm.merge(currentTimeToConfirm);
+
+            long outcomes = totals[CONFIRMED] + totals[RELEASED] + totals[EXPIRED];
+            return SkuAnalyticsResponse.builder()
+                    .sku(sku)
+                    .reserved(totals[RESERVED])
+                    .reservedUnits(totals[RESERVED_UNITS])
+                    .confirmed(totals[CONFIRMED])
+                    .released(totals[RELEASED])
+                    .expired(totals[EXPIRED])
+                    .reservationsPerMinute((double) totals[RESERVED] / windowMinutes)
+                    .confirmRatio(ratio(totals[CONFIRMED], outcomes))
+                    .releaseRatio(ratio(totals[RELEASED], outcomes))
+                    .expireRatio(ratio(totals[EXPIRED], outcomes))
+                    .timeToConfirmSeconds(SkuAnalyticsResponse.LatencySummary.builder()
+                            .count(timeToConfirm.getCount())
+                            .mean(timeToConfirm.getMean())
+                            .p50(timeToConfirm.valueAtPercentile(50))
+                            .p90(timeToConfirm.valueAtPercentile(90))
+                            .p99(timeToConfirm.valueAtPercentile(99))
+                            .max(timeToConfirm.getMax())
+                            .build())
+                    .build();
+        }
+
+        /**
+         * Tumbling pair: the report covers the previous and the current window
+         */
+        private void rotateHistograms(long now) {
+            long elapsed = now - currentHistogramStart;
+            if (elapsed < windowMillis) {
+                return;
+            }
+            previousTimeToConfirm.reset();
+            if (elapsed < 2 * windowMillis) {
+                previousTimeToConfirm.merge(currentTimeToConfirm);
+            }
+            currentTimeToConfirm.reset();
+            currentHistogramStart = now;
+        }
+
+        private static double ratio(long part, long whole) {
+            return whole == 0 ? 0.0 : (double) part / whole;
+        }
+    }
+}
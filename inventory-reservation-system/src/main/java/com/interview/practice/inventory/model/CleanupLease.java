@@ -0,0 +1,27 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cleanup Lease Entity
+ * Time-bounded ownership of one partition of the SKU space for the expiry sweep
+ */
+@Entity
+@Table(name = "cleanup_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CleanupLease {
+
+    @Id
+    private Integer partitionNo;
+
+    private String ownerId; // Null until first claimed
+
+    @Column(nullable = false)
+    private LocalDateTime leaseUntil;
+}
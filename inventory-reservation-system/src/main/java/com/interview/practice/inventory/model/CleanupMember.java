@@ -0,0 +1,25 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cleanup Member Entity
+ * Heartbeat of an application instance taking part in the expiry sweep
+ */
+@Entity
+@Table(name = "cleanup_members")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CleanupMember {
+
+    @Id
+    private String instanceId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
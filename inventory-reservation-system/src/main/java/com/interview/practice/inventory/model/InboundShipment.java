@@ -0,0 +1,66 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Inbound Shipment Entity
+ * Units expected to arrive for an item on a given day
+ * Counted towards available-to-promise until received (moved on hand) or cancelled
+ */
+@Entity
+@Table(name = "inbound_shipments")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboundShipment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "inventory_item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private String sku;
+
+    private String reference; // Supplier / purchase order reference
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDate expectedDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InboundStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum InboundStatus {
+        EXPECTED,
+        RECEIVED,
+        CANCELLED
+    }
+}
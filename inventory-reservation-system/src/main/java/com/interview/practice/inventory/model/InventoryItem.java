@@ -36,6 +36,18 @@ public class InventoryItem {
     @Column(nullable = false)
     private Integer reservedQuantity;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer leasedQuantity = 0; // Units held by instance stock leases (see StockQuotaManager)
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer inboundQuantity = 0; // Units on EXPECTED inbound shipments, not yet on hand
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long activeChecksum = 0L; // Running ReservationChecksum of ACTIVE reservations
+
     @Version
     private Long version; // For optimistic locking
 
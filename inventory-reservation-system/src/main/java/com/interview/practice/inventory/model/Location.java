@@ -0,0 +1,30 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Location Entity
+ * A warehouse holding location-scoped stock
+ */
+@Entity
+@Table(name = "locations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Location {
+
+    @Id
+    private String code;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+}
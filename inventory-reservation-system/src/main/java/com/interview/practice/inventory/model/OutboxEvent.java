@@ -0,0 +1,76 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox Event Entity
+ * Inventory change written in the same transaction as the change itself,
+ * later delivered to downstream systems by the outbox relay
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private String sku;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType eventType;
+
+    private String reservationId;
+
+    // Set on events of location-split reservations: one event per line, carrying that location's
+    // counters instead of the item's, written under the location row lock so each location's
+    // events are in commit order
+    private String locationCode;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Item counters once the transaction's change is applied; null on events written without the
+    // item lock (lease-served reservations), which carry no ordering against the SKU's other events
+    private Integer totalQuantity;
+
+    private Integer availableQuantity;
+
+    private Integer reservedQuantity;
+
+    // Published with the event: set when it was written without the item lock, so its position
+    // among the SKU's other events is arbitrary and consumers must not apply it as a delta in order
+    @Column(nullable = false)
+    private boolean unordered;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum EventType {
+        RESERVED,
+        RELEASED,
+        CONFIRMED,
+        EXPIRED,
+        RESTOCKED,
+        TRANSFERRED // Units moved between the item's counters and a location's stock
+    }
+}
@@ -46,6 +46,12 @@ public class Reservation {
 
     private String orderId; // Optional: link to order
 
+    private Long leaseId; // Set while served from an open stock lease; counted in leasedQuantity, not reservedQuantity
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean locationSplit = false; // Units held in location stock (see ReservationLine), not in the item counters
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
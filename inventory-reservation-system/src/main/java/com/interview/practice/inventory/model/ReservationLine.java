@@ -0,0 +1,34 @@
+package com.interview.practice.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Reservation Line Entity
+ * Units a location-split reservation holds at one location
+ */
+@Entity
+@Table(name = "reservation_lines")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId; // Reservation row id, not the public reservation id
+
+    @Column(nullable = false)
+    private Long locationStockId;
+
+    @Column(nullable = false)
+    private String locationCode;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
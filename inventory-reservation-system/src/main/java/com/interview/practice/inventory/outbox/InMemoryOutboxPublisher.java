@@ -0,0 +1,45 @@
+package com.interview.practice.inventory.outbox;
+
+import com.interview.practice.inventory.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-Memory Outbox Publisher
+ * Keeps the most recently published events in a bounded buffer (local development and tests)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.outbox.publisher", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final Deque<OutboxEvent> published = new ArrayDeque<>();
+
+    @Value("${inventory.outbox.memory.capacity:1000}")
+    private int capacity;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.debug("Published {} event {} for SKU: {}", event.getEventType(), event.getId(), event.getSku());
+            published.addLast(event);
+            while (published.size() > capacity) {
+                published.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Events published so far, oldest first
+     */
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+}
@@ -0,0 +1,18 @@
+package com.interview.practice.inventory.outbox;
+
+import com.interview.practice.inventory.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Outbox Publisher
+ * Delivers inventory change events to downstream systems.
+ *
+ * Called by the relay with the events of one SKU, in order. Throwing marks the whole
+ * list as undelivered, so it is retried later; delivery is therefore at-least-once
+ * and consumers should de-duplicate by event id.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,219 @@
+package com.interview.practice.inventory.outbox;
+
+import com.interview.practice.inventory.metrics.LatencyHistogram;
+import com.interview.practice.inventory.model.OutboxEvent;
+import com.interview.practice.inventory.repository.OutboxEventRepository;
+import com.interview.practice.inventory.service.CleanupLeaseCoordinator;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox Relay
+ * Drains undelivered outbox events in batches and hands them to the configured publisher.
+ *
+ * Each batch is read in append order and split by SKU; a SKU's events are published together,
+ * and if that fails the SKU is skipped for the rest of the batch so its events are never
+ * delivered out of order. A failed SKU then backs off exponentially and is left out of the
+ * batch query until its retry time, so a SKU that keeps failing cannot fill every batch and
+ * stall the other SKUs of its partitions. Instances only relay items in the partitions they lease from the
+ * cleanup coordinator. Delivered rows are marked with one UPDATE and pruned in bulk later.
+ * With sharding, events stay on their SKU's shard and every shard is relayed in turn.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxPublisher publisher;
+
+    @Autowired
+    private CleanupLeaseCoordinator cleanupLeaseCoordinator;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.max-batches-per-tick:10}")
+    private int maxBatchesPerTick;
+
+    @Value("${inventory.outbox.retention-ms:3600000}")
+    private long retentionMillis;
+
+    @Value("${inventory.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    @Value("${inventory.outbox.max-retry-backoff-ms:60000}")
+    private long maxRetryBackoffMillis;
+
+    // SKUs whose last publish failed, with their consecutive failures and next retry time
+    private final Map<String, Backoff> backoffs = new ConcurrentHashMap<>();
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong prunedCount = new AtomicLong();
+    private final LatencyHistogram deliveryLagMillis = new LatencyHistogram();
+
+    /**
+     * Relay batches until the backlog is drained or the per-tick limit is reached
+     */
+    public int drain() {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerTick; i++) {
+            int relayed = relayBatch();
+            total += relayed;
+            if (relayed < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Relay one batch of undelivered events from each shard
+     * Returns the number of events delivered
+     */
+    public int relayBatch() {
+        Set<Integer> partitions = cleanupLeaseCoordinator.isClaimStale()
+                ? cleanupLeaseCoordinator.claimPartitions(cleanupLeaseCoordinator.getInstanceId())
+                : cleanupLeaseCoordinator.getCurrentPartitions();
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        for (int shard : shardRouter.shards()) {
+            total += shardRouter.onShard(shard, () -> relayBatch(partitions));
+        }
+        return total;
+    }
+
+    private int relayBatch(Set<Integer> partitions) {
+        long nowMillis = System.currentTimeMillis();
+        List<String> backingOff = backoffs.entrySet().stream()
+                .filter(entry -> entry.getValue().retryAtMillis() > nowMillis)
+                .map(Map.Entry::getKey)
+                .toList();
+        Long partitionCount = (long) cleanupLeaseCoordinator.getPartitionCount();
+        List<Long> partitionIds = partitions.stream().map(Integer::longValue).toList();
+        List<OutboxEvent> events = backingOff.isEmpty()
+                ? outboxEventRepository.findUnpublishedInPartitions(
+                        partitionCount, partitionIds, PageRequest.of(0, batchSize))
+                : outboxEventRepository.findUnpublishedInPartitionsExcluding(
+                        partitionCount, partitionIds, backingOff, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxEvent>> eventsBySku = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            eventsBySku.computeIfAbsent(event.getSku(), sku -> new ArrayList<>()).add(event);
+        }
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        for (Map.Entry<String, List<OutboxEvent>> entry : eventsBySku.entrySet()) {
+            try {
+                publisher.publish(entry.getValue());
+                delivered.addAll(entry.getValue());
+                backoffs.remove(entry.getKey());
+            } catch (Exception e) {
+                failedCount.addAndGet(entry.getValue().size());
+                Backoff backoff = backoffs.compute(entry.getKey(), (sku, previous) -> nextBackoff(previous));
+                log.warn("Failed to publish {} outbox events for SKU: {}. Will retry in {} ms: {}",
+                        entry.getValue().size(), entry.getKey(),
+                        backoff.retryAtMillis() - System.currentTimeMillis(), e.getMessage());
+            }
+        }
+        if (delivered.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.markPublished(delivered.stream().map(OutboxEvent::getId).toList(), now);
+        publishedCount.addAndGet(delivered.size());
+        synchronized (deliveryLagMillis) {
+            for (OutboxEvent event : delivered) {
+                deliveryLagMillis.record(Duration.between(event.getCreatedAt(), now).toMillis());
+            }
+        }
+        log.debug("Relayed {} outbox events for {} SKUs", delivered.size(), eventsBySku.size());
+        return delivered.size();
+    }
+
+    private Backoff nextBackoff(Backoff previous) {
+        int failures = previous == null ? 1 : previous.failures() + 1;
+        long delay = retryBackoffMillis << Math.min(failures - 1, 20);
+        return new Backoff(failures, System.currentTimeMillis() + Math.min(delay, maxRetryBackoffMillis));
+    }
+
+    /**
+     * Delete delivered events older than the retention period
+     */
+    public int prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(retentionMillis));
+        int pruned = 0;
+        for (int shard : shardRouter.shards()) {
+            pruned += shardRouter.onShard(shard, () -> outboxEventRepository.deletePublishedBefore(cutoff));
+        }
+        if (pruned > 0) {
+            prunedCount.addAndGet(pruned);
+            log.info("Pruned {} delivered outbox events", pruned);
+        }
+        return pruned;
+    }
+
+    /**
+     * Delivery counters, backlog and relay lag
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("publisher", publisher.getClass().getSimpleName());
+        stats.put("published", publishedCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("pruned", prunedCount.get());
+        stats.put("backingOffSkus", backoffs.size());
+        long pending = 0;
+        LocalDateTime oldestPending = null;
+        for (int shard : shardRouter.shards()) {
+            pending += shardRouter.onShard(shard, outboxEventRepository::countByPublishedAtIsNull);
+            LocalDateTime shardOldest = shardRouter.onShard(shard, outboxEventRepository::findOldestUnpublishedCreatedAt);
+            if (shardOldest != null && (oldestPending == null || shardOldest.isBefore(oldestPending))) {
+                oldestPending = shardOldest;
+            }
+        }
+        stats.put("pending", pending);
+        stats.put("oldestPendingAgeMillis", oldestPending == null
+                ? 0L
+                : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+        synchronized (deliveryLagMillis) {
+            Map<String, Object> lag = new LinkedHashMap<>();
+            lag.put("count", deliveryLagMillis.getCount());
+            lag.put("mean", deliveryLagMillis.getMean());
+            lag.put("p50", deliveryLagMillis.valueAtPercentile(50));
+            lag.put("p99", deliveryLagMillis.valueAtPercentile(99));
+            lag.put("max", deliveryLagMillis.getMax());
+            stats.put("deliveryLagMillis", lag);
+        }
+        return stats;
+    }
+
+    private record Backoff(int failures, long retryAtMillis) {
+    }
+}
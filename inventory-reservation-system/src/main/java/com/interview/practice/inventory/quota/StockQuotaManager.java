@@ -0,0 +1,550 @@
+package com.interview.practice.inventory.quota;
+
+import com.interview.practice.inventory.dto.SkuContentionResponse;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.metrics.ContentionProfiler;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.model.StockLease;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.repository.StockLeaseRepository;
+import com.interview.practice.inventory.service.AvailableToPromiseProjection;
+import com.interview.practice.inventory.service.CleanupLeaseCoordinator;
+import com.interview.practice.inventory.service.InventoryReadCoalescer;
+import com.interview.practice.inventory.service.ProductSearchIndex;
+import com.interview.practice.inventory.service.ReservationChecksum;
+import com.interview.practice.inventory.service.SoldOutIndex;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock Quota Manager
+ * Serves reservations for hot SKUs from a per-instance allotment instead of the item row lock.
+ *
+ * An instance leases a block of units from an item with one guarded UPDATE (available -> leased)
+ * and hands them out with an atomic counter, so a lease-served reservation only inserts its own
+ * row. Allotments are topped up in the background when they run low, sized from recent demand,
+ * and returned when the SKU goes idle, on shutdown, or by any instance once the lease expired.
+ * Settlement counts the lease's reservations in the database, so a crashed owner loses no stock.
+ * The lease row is the serialization point: every lease-served reservation holds it in shared mode
+ * until it commits and settlement locks it exclusively before counting, so no reservation can
+ * be inserted against a lease after it was counted, whatever the owner's clock says.
+ * Leases live on the shard of their SKU; stale leases are looked for on every shard.
+ */
+@Component
+@Slf4j
+public class StockQuotaManager {
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private StockLeaseRepository stockLeaseRepository;
+
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private CleanupLeaseCoordinator cleanupLeaseCoordinator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.quota.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.quota.skus:}")
+    private List<String> configuredSkus;
+
+    @Value("${inventory.quota.hot-sku-count:0}")
+    private int hotSkuCount;
+
+    @Value("${inventory.quota.min-lease-units:10}")
+    private int minLeaseUnits;
+
+    @Value("${inventory.quota.max-lease-units:500}")
+    private int maxLeaseUnits;
+
+    @Value("${inventory.quota.target-lease-seconds:10}")
+    private double targetLeaseSeconds;
+
+    @Value("${inventory.quota.low-watermark:0.25}")
+    private double lowWatermark;
+
+    @Value("${inventory.quota.lease-ms:30000}")
+    private long leaseMillis;
+
+    @Value("${inventory.quota.idle-ms:60000}")
+    private long idleMillis;
+
+    private final Map<String, Allotment> allotments = new ConcurrentHashMap<>();
+    private volatile Set<String> hotSkus = Set.of();
+    private volatile boolean ownLeasesSwept;
+
+    private final AtomicLong servedCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private final AtomicLong leasedUnits = new AtomicLong();
+    private final AtomicLong returnedUnits = new AtomicLong();
+    private final AtomicLong settledExpiredCount = new AtomicLong();
+
+    private TransactionTemplate transaction;
+    private ExecutorService refillExecutor;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-quota-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        hotSkus = Set.copyOf(configuredSkus);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take units for a reservation from this instance's allotment
+     * Returns the lease id to attach to the reservation, or null to fall back to the item row.
+     * Every non-null result must be followed by complete().
+     */
+    public Long tryAcquire(String sku, int quantity) {
+        if (!enabled || !hotSkus.contains(sku)) {
+            return null;
+        }
+        Allotment allotment = allotments.computeIfAbsent(sku, Allotment::new);
+        allotment.recordDemand(quantity);
+
+        Long leaseId = allotment.tryTake(quantity);
+        if (allotment.remaining.get() < targetUnits(allotment) * lowWatermark) {
+            scheduleTopUp(allotment);
+        }
+        if (leaseId == null) {
+            fallbackCount.incrementAndGet();
+        } else {
+            servedCount.incrementAndGet();
+        }
+        return leaseId;
+    }
+
+    /**
+     * Finish a reservation attempt started by tryAcquire
+     * Units of a failed attempt go back to the allotment if its lease is still open
+     */
+    public void complete(String sku, Long leaseId, int quantity, boolean reserved) {
+        Allotment allotment = allotments.get(sku);
+        if (allotment != null) {
+            allotment.finish(leaseId, reserved ? 0 : quantity);
+        }
+    }
+
+    /**
+     * A reservation found the lease closed in the database (settled elsewhere or expired)
+     * Stop serving from it; the top-up notices the lease is gone and drops the allotment
+     */
+    public void leaseClosed(String sku, Long leaseId) {
+        Allotment allotment = allotments.get(sku);
+        if (allotment != null && leaseId.equals(allotment.leaseId)) {
+            allotment.stopServing();
+            scheduleTopUp(allotment);
+        }
+    }
+
+    /**
+     * Periodic upkeep: refresh hot SKUs, adapt lease sizes, renew or return own leases
+     * and settle leases whose owners stopped renewing them
+     */
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        refreshHotSkus();
+        long now = System.currentTimeMillis();
+
+        for (Allotment allotment : allotments.values()) {
+            allotment.updateDemandRate(now);
+            boolean idle = now - allotment.lastDemandMillis > idleMillis || !hotSkus.contains(allotment.sku);
+            if (idle) {
+                if (allotment.leaseId != null) {
+                    returnLease(allotment);
+                }
+                allotments.remove(allotment.sku, allotment);
+            } else if (allotment.leaseId != null && allotment.servingUntilMillis - now < leaseMillis / 2) {
+                // Renew before the serving deadline, topping up to the current target at the same time
+                scheduleTopUp(allotment);
+            }
+        }
+
+        String owner = cleanupLeaseCoordinator.getInstanceId();
+        for (int shard : shardRouter.shards()) {
+            List<StockLease> stale = shardRouter.onShard(shard, () -> ownLeasesSwept
+                    ? stockLeaseRepository.findByLeaseUntilBefore(LocalDateTime.now())
+                    : stockLeaseRepository.findAll());
+            for (StockLease lease : stale) {
+                boolean ownTracked = owner.equals(lease.getOwnerId()) && allotments.values().stream()
+                        .anyMatch(allotment -> lease.getId().equals(allotment.leaseId));
+                boolean leftover = owner.equals(lease.getOwnerId()) && !ownTracked;
+                boolean expired = lease.getLeaseUntil().isBefore(LocalDateTime.now());
+                if (!ownTracked && (leftover || expired)) {
+                    try {
+                        settle(shard, lease.getId());
+                        settledExpiredCount.incrementAndGet();
+                    } catch (Exception e) {
+                        log.warn("Failed to settle stock lease {} of {}: {}", lease.getId(), lease.getOwnerId(), e.getMessage());
+                    }
+                }
+            }
+        }
+        ownLeasesSwept = true;
+    }
+
+    /**
+     * Close a stock lease: unused units go back to available, and its ACTIVE reservations
+     * move from leased to reserved (and into the item checksum) as ordinary reservations.
+     * Consumption is counted from the reservations table, never from the owner's memory.
+     */
+    public int settle(Long leaseId) {
+        return settle(shardRouter.locate(() -> stockLeaseRepository.existsById(leaseId)), leaseId);
+    }
+
+    private int settle(int shard, Long leaseId) {
+        Settlement settlement = shardRouter.onShard(shard, () -> transaction.execute(status -> {
+            String sku = stockLeaseRepository.findSkuById(leaseId).orElse(null);
+            if (sku == null) {
+                return null;
+            }
+            // Item first, then the lease: the same order as topUp, so the two cannot deadlock
+            InventoryItem inventoryItem = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+            // Waits for lease-served reservations in flight; any later one finds the lease gone
+            StockLease lease = stockLeaseRepository.findByIdForUpdate(leaseId).orElse(null);
+            if (lease == null) {
+                return null;
+            }
+
+            long consumed = reservationRepository.sumQuantityByLeaseId(leaseId);
+            int activeUnits = 0;
+            long activeChecksum = 0;
+            for (Object[] row : reservationRepository.findActiveQuantitiesByLeaseId(leaseId)) {
+                int quantity = ((Number) row[1]).intValue();
+                activeUnits += quantity;
+                activeChecksum += ReservationChecksum.fingerprint((String) row[0], quantity);
+            }
+            int unusedUnits = lease.getGrantedUnits() - (int) consumed;
+
+            inventoryItem.setLeasedQuantity(inventoryItem.getLeasedQuantity() - unusedUnits - activeUnits);
+            inventoryItem.setAvailableQuantity(inventoryItem.getAvailableQuantity() + unusedUnits);
+            inventoryItem.setReservedQuantity(inventoryItem.getReservedQuantity() + activeUnits);
+            inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum() + activeChecksum);
+            inventoryRepository.save(inventoryItem);
+
+            reservationRepository.detachFromLease(leaseId);
+            stockLeaseRepository.delete(lease);
+            log.info("Settled stock lease {} for SKU: {}. Granted: {}, consumed: {}, returned: {}",
+                    leaseId, lease.getSku(), lease.getGrantedUnits(), consumed, unusedUnits);
+            return new Settlement(inventoryItem, unusedUnits);
+        }));
+        if (settlement == null) {
+            return 0;
+        }
+        productSearchIndex.record(settlement.inventoryItem());
+        availableToPromiseProjection.record(settlement.inventoryItem());
+        inventoryReadCoalescer.invalidate(settlement.inventoryItem().getSku());
+        returnedUnits.addAndGet(settlement.unusedUnits());
+        return settlement.unusedUnits();
+    }
+
+    /**
+     * Allotments, lease sizes and counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hotSkus", hotSkus);
+        stats.put("servedFromQuota", servedCount.get());
+        stats.put("fallbacks", fallbackCount.get());
+        stats.put("leasedUnits", leasedUnits.get());
+        stats.put("returnedUnits", returnedUnits.get());
+        stats.put("settledExpiredLeases", settledExpiredCount.get());
+        Map<String, Object> perSku = new LinkedHashMap<>();
+        for (Allotment allotment : allotments.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("leaseId", allotment.leaseId);
+            entry.put("remaining", allotment.remaining.get());
+            entry.put("targetUnits", targetUnits(allotment));
+            entry.put("demandPerSecond", allotment.demandRate);
+            perSku.put(allotment.sku, entry);
+        }
+        stats.put("allotments", perSku);
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refillExecutor.shutdownNow();
+        for (Allotment allotment : allotments.values()) {
+            if (allotment.leaseId != null) {
+                try {
+                    returnLease(allotment);
+                } catch (Exception e) {
+                    log.warn("Failed to return stock lease for SKU {} on shutdown: {}", allotment.sku, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Top up (or open) this instance's lease for a SKU to the demand-based target
+     */
+    void topUp(Allotment allotment) {
+        int units = Math.max(0, targetUnits(allotment) - allotment.remaining.get());
+        String owner = cleanupLeaseCoordinator.getInstanceId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(Duration.ofMillis(leaseMillis));
+        Long currentLeaseId = allotment.leaseId;
+
+        Grant grant = shardRouter.forSku(allotment.sku, () -> transaction.execute(status -> {
+            InventoryItem inventoryItem = inventoryRepository.findBySku(allotment.sku)
+                    .orElseThrow(() -> new InventoryNotFoundException(
+                            "Inventory not found for SKU: " + allotment.sku));
+            int granted = 0;
+            if (units > 0) {
+                if (inventoryRepository.leaseUnits(inventoryItem.getId(), units, now) == 1) {
+                    granted = units;
+                } else {
+                    // Not enough for the full block: take whatever is left
+                    int available = inventoryRepository.findAvailableQuantityById(inventoryItem.getId());
+                    if (available > 0 && inventoryRepository.leaseUnits(inventoryItem.getId(), available, now) == 1) {
+                        granted = available;
+                    }
+                }
+            }
+
+            if (currentLeaseId == null) {
+                if (granted == 0) {
+                    return null;
+                }
+                StockLease lease = stockLeaseRepository.save(StockLease.builder()
+                        .itemId(inventoryItem.getId())
+                        .sku(allotment.sku)
+                        .ownerId(owner)
+                        .grantedUnits(granted)
+                        .leaseUntil(until)
+                        .build());
+                return new Grant(lease.getId(), granted);
+            }
+            if (stockLeaseRepository.extend(currentLeaseId, owner, granted, until) == 0) {
+                // Settled by another instance while we were presumed gone: undo the grant
+                status.setRollbackOnly();
+                return new Grant(null, 0);
+            }
+            return new Grant(currentLeaseId, granted);
+        }));
+
+        if (grant == null) {
+            return;
+        }
+        if (grant.leaseId() == null) {
+            log.warn("Stock lease {} for SKU {} was settled elsewhere; dropping local allotment",
+                    currentLeaseId, allotment.sku);
+            allotment.stopServing();
+            allotment.reset();
+            return;
+        }
+        allotment.grant(grant.leaseId(), grant.units(),
+                System.currentTimeMillis() + leaseMillis - leaseMillis / 5);
+        leasedUnits.addAndGet(grant.units());
+        if (grant.units() > 0) {
+            soldOutIndex.invalidate(allotment.sku);
+            productSearchIndex.refresh(allotment.sku);
+            availableToPromiseProjection.refresh(allotment.sku);
+            inventoryReadCoalescer.invalidate(allotment.sku);
+            log.debug("Leased {} units of SKU {} (lease {})", grant.units(), allotment.sku, grant.leaseId());
+        }
+    }
+
+    private void returnLease(Allotment allotment) {
+        Long leaseId = allotment.leaseId;
+        allotment.stopServing();
+        allotment.awaitInFlight();
+        allotment.reset();
+        if (leaseId != null) {
+            settle(shardRouter.shardOf(allotment.sku), leaseId);
+        }
+    }
+
+    private void scheduleTopUp(Allotment allotment) {
+        if (!allotment.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    topUp(allotment);
+                } catch (Exception e) {
+                    log.warn("Failed to top up stock lease for SKU {}: {}", allotment.sku, e.getMessage());
+                } finally {
+                    allotment.refilling.set(false);
+                }
+            });
+        } catch (Exception e) {
+            allotment.refilling.set(false);
+        }
+    }
+
+    private void refreshHotSkus() {
+        Set<String> skus = new HashSet<>(configuredSkus);
+        if (hotSkuCount > 0) {
+            contentionProfiler.snapshot(hotSkuCount).getSkus().stream()
+                    .map(SkuContentionResponse::getSku)
+                    .forEach(skus::add);
+        }
+        hotSkus = Set.copyOf(skus);
+    }
+
+    /**
+     * Units worth targetLeaseSeconds of recent demand, within the configured bounds
+     */
+    private int targetUnits(Allotment allotment) {
+        int target = (int) Math.ceil(allotment.demandRate * targetLeaseSeconds);
+        return Math.max(minLeaseUnits, Math.min(maxLeaseUnits, target));
+    }
+
+    private record Grant(Long leaseId, int units) {
+    }
+
+    private record Settlement(InventoryItem inventoryItem, int unusedUnits) {
+    }
+
+    /**
+     * Local view of one SKU's lease
+     * In-flight takes are counted so a lease is only settled once no reservation insert can still reference it
+     */
+    static final class Allotment {
+
+        private static final double DEMAND_SMOOTHING = 0.5;
+
+        private final String sku;
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong demandSinceUpdate = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile Long leaseId;
+        private volatile long servingUntilMillis;
+        private volatile long lastDemandMillis = System.currentTimeMillis();
+        private volatile long lastRateUpdateMillis = System.currentTimeMillis();
+        private volatile double demandRate;
+
+        Allotment(String sku) {
+            this.sku = sku;
+        }
+
+        Long tryTake(int quantity) {
+            inFlight.incrementAndGet();
+            Long currentLease = leaseId;
+            if (currentLease == null || System.currentTimeMillis() >= servingUntilMillis) {
+                inFlight.decrementAndGet();
+                return null;
+            }
+            while (true) {
+                int current = remaining.get();
+                if (current < quantity) {
+                    inFlight.decrementAndGet();
+                    return null;
+                }
+                if (remaining.compareAndSet(current, current - quantity)) {
+                    return currentLease;
+                }
+            }
+        }
+
+        void finish(Long takenFrom, int unusedUnits) {
+            if (unusedUnits > 0 && takenFrom.equals(leaseId)) {
+                remaining.addAndGet(unusedUnits);
+            }
+            inFlight.decrementAndGet();
+        }
+
+        void recordDemand(int quantity) {
+            demandSinceUpdate.addAndGet(quantity);
+            lastDemandMillis = System.currentTimeMillis();
+        }
+
+        void updateDemandRate(long now) {
+            double seconds = Math.max(0.001, (now - lastRateUpdateMillis) / 1000.0);
+            double observed = demandSinceUpdate.getAndSet(0) / seconds;
+            demandRate = DEMAND_SMOOTHING * observed + (1 - DEMAND_SMOOTHING) * demandRate;
+            lastRateUpdateMillis = now;
+        }
+
+        void grant(Long grantedLease, int units, long servingUntil) {
+            leaseId = grantedLease;
+            remaining.addAndGet(units);
+            servingUntilMillis = servingUntil;
+        }
+
+        void stopServing() {
+            servingUntilMillis = 0;
+        }
+
+        void awaitInFlight() {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        void reset() {
+            leaseId = null;
+            remaining.set(0);
+        }
+    }
+}
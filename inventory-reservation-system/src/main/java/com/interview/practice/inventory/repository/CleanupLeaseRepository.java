@@ -0,0 +1,64 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.CleanupLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for CleanupLease entity
+ * Claims and renewals are guarded updates, so two instances can never hold the same partition
+ */
+@Repository
+public interface CleanupLeaseRepository extends JpaRepository<CleanupLease, Integer> {
+
+    List<CleanupLease> findAllByOrderByPartitionNoAsc();
+
+    /**
+     * Insert a free partition row, never overwriting an existing one
+     * Runs in its own transaction so a duplicate key from a concurrent boot leaves the caller's intact
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("INSERT INTO CleanupLease (partitionNo, leaseUntil) VALUES (:partitionNo, :now)")
+    int create(@Param("partitionNo") Integer partitionNo, @Param("now") LocalDateTime now);
+
+    /**
+     * Claim (or renew) a partition if it is free, expired, or already owned by the caller
+     * Returns the number of rows updated (1 if the lease is now held by the caller)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CleanupLease l SET l.ownerId = :owner, l.leaseUntil = :until " +
+           "WHERE l.partitionNo = :partitionNo AND (l.ownerId = :owner OR l.ownerId IS NULL OR l.leaseUntil < :now)")
+    int claim(@Param("partitionNo") Integer partitionNo,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("until") LocalDateTime until);
+
+    /**
+     * Give up a partition held by the caller so another instance can claim it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CleanupLease l SET l.ownerId = NULL, l.leaseUntil = :now " +
+           "WHERE l.partitionNo = :partitionNo AND l.ownerId = :owner")
+    int release(@Param("partitionNo") Integer partitionNo,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * Give up every partition held by the caller
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CleanupLease l SET l.ownerId = NULL, l.leaseUntil = :now WHERE l.ownerId = :owner")
+    int releaseAll(@Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,39 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.CleanupMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for CleanupMember entity
+ */
+@Repository
+public interface CleanupMemberRepository extends JpaRepository<CleanupMember, String> {
+
+    /**
+     * Count instances whose heartbeat has not yet expired
+     */
+    long countByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Extend the heartbeat of an existing member
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE CleanupMember m SET m.expiresAt = :until WHERE m.instanceId = :instanceId")
+    int heartbeat(@Param("instanceId") String instanceId, @Param("until") LocalDateTime until);
+
+    /**
+     * Remove members that stopped heart-beating before the cutoff
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CleanupMember m WHERE m.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
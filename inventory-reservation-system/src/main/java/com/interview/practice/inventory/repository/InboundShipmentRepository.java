@@ -0,0 +1,34 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.InboundShipment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for InboundShipment entity
+ */
+@Repository
+public interface InboundShipmentRepository extends JpaRepository<InboundShipment, Long> {
+
+    List<InboundShipment> findBySkuAndStatusOrderByExpectedDate(String sku, InboundShipment.InboundStatus status);
+
+    /**
+     * Read the current status of a shipment, bypassing the persistence context
+     */
+    @Query("SELECT s.status FROM InboundShipment s WHERE s.id = :id")
+    InboundShipment.InboundStatus findStatusById(@Param("id") Long id);
+
+    /**
+     * Units per expected day for the given SKUs and status
+     * Each row is [sku, expectedDate, quantity]
+     */
+    @Query("SELECT s.sku, s.expectedDate, SUM(s.quantity) FROM InboundShipment s " +
+           "WHERE s.sku IN :skus AND s.status = :status GROUP BY s.sku, s.expectedDate")
+    List<Object[]> sumQuantityBySkuAndDate(@Param("skus") Collection<String> skus,
+                                           @Param("status") InboundShipment.InboundStatus status);
+}
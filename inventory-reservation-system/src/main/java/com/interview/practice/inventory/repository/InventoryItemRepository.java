@@ -2,12 +2,18 @@ package com.interview.practice.inventory.repository;
 
 import com.interview.practice.inventory.model.InventoryItem;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,6 +25,27 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
 
     Optional<InventoryItem> findBySku(String sku);
 
+    List<InventoryItem> findBySkuIn(Collection<String> skus);
+
+    /**
+     * Read only the row version of a SKU (conditional GET), without loading the entity
+     */
+    @Query("SELECT i.version FROM InventoryItem i WHERE i.sku = :sku")
+    Optional<Long> findVersionBySku(@Param("sku") String sku);
+
+    /**
+     * Read only the available quantity of a SKU, without loading the entity or taking a lock
+     */
+    @Query("SELECT i.availableQuantity FROM InventoryItem i WHERE i.sku = :sku")
+    Optional<Integer> findAvailableQuantityBySku(@Param("sku") String sku);
+
+    /**
+     * Read only the row versions of several SKUs
+     * Each row is [sku, version]
+     */
+    @Query("SELECT i.sku, i.version FROM InventoryItem i WHERE i.sku IN :skus")
+    List<Object[]> findVersionsBySkuIn(@Param("skus") Collection<String> skus);
+
     /**
      * Find inventory item with pessimistic write lock
      * Use this to prevent concurrent modifications (race conditions)
@@ -34,5 +61,34 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT i FROM InventoryItem i WHERE i.sku = :sku")
     Optional<InventoryItem> findBySkuWithOptimisticLock(@Param("sku") String sku);
-}
 
+    /**
+     * Page through item ids in key order, starting after the given id
+     * Used by reconciliation to rotate through the catalog without a full scan
+     */
+    @Query("SELECT i.id FROM InventoryItem i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Move units from available into an instance stock lease in one locked UPDATE
+     * Returns 0 (and changes nothing) if fewer units are available
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE InventoryItem i SET i.availableQuantity = i.availableQuantity - :units, " +
+           "i.leasedQuantity = i.leasedQuantity + :units, i.version = i.version + 1, i.updatedAt = :now " +
+           "WHERE i.id = :id AND i.availableQuantity >= :units")
+    int leaseUnits(@Param("id") Long id, @Param("units") int units, @Param("now") LocalDateTime now);
+
+    /**
+     * Read the current available quantity, bypassing the persistence context
+     */
+    @Query("SELECT i.availableQuantity FROM InventoryItem i WHERE i.id = :id")
+    Integer findAvailableQuantityById(@Param("id") Long id);
+
+    /**
+     * Read the current row version, bypassing the persistence context
+     */
+    @Query("SELECT i.version FROM InventoryItem i WHERE i.id = :id")
+    Long findVersionById(@Param("id") Long id);
+}
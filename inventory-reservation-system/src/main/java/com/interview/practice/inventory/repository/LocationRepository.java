@@ -0,0 +1,12 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for Location entity
+ */
+@Repository
+public interface LocationRepository extends JpaRepository<Location, String> {
+}
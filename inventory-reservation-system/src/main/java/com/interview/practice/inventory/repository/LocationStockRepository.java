@@ -0,0 +1,77 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.LocationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for LocationStock entity
+ * Counters are changed with single guarded UPDATEs, so each statement locks only its own row
+ */
+@Repository
+public interface LocationStockRepository extends JpaRepository<LocationStock, Long> {
+
+    List<LocationStock> findBySkuOrderByLocationCode(String sku);
+
+    Optional<LocationStock> findBySkuAndLocationCode(String sku, String locationCode);
+
+    /**
+     * Locations of a SKU with units available (unlocked read used to plan an allocation)
+     */
+    @Query("SELECT s FROM LocationStock s WHERE s.sku = :sku AND s.availableQuantity > 0")
+    List<LocationStock> findAvailableBySku(@Param("sku") String sku);
+
+    /**
+     * Counters of one location's stock as the current transaction sees them
+     * Read straight from the database, after this transaction's guarded UPDATEs on the row
+     */
+    @Query("SELECT s.locationCode AS locationCode, s.totalQuantity AS totalQuantity, " +
+           "s.availableQuantity AS availableQuantity, s.reservedQuantity AS reservedQuantity " +
+           "FROM LocationStock s WHERE s.id = :id")
+    Counters findCountersById(@Param("id") Long id);
+
+    /**
+     * Move units from available to reserved at one location, only if enough are available
+     * Returns 0 (and changes nothing) if fewer units are available
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE LocationStock s SET s.availableQuantity = s.availableQuantity - :units, " +
+           "s.reservedQuantity = s.reservedQuantity + :units, s.version = s.version + 1, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.availableQuantity >= :units")
+    int reserveUnits(@Param("id") Long id, @Param("units") int units, @Param("now") LocalDateTime now);
+
+    /**
+     * Apply counter deltas to one location's stock
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE LocationStock s SET s.totalQuantity = s.totalQuantity + :total, " +
+           "s.availableQuantity = s.availableQuantity + :available, " +
+           "s.reservedQuantity = s.reservedQuantity + :reserved, s.version = s.version + 1, s.updatedAt = :now " +
+           "WHERE s.id = :id")
+    int applyCounters(@Param("id") Long id,
+                      @Param("total") int totalDelta,
+                      @Param("available") int availableDelta,
+                      @Param("reserved") int reservedDelta,
+                      @Param("now") LocalDateTime now);
+
+    interface Counters {
+
+        String getLocationCode();
+
+        Integer getTotalQuantity();
+
+        Integer getAvailableQuantity();
+
+        Integer getReservedQuantity();
+    }
+}
@@ -0,0 +1,65 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest undelivered events for items in the given partitions, in append order
+     * Items are assigned to partitions by id modulo the partition count
+     */
+    @Query("SELECT e FROM OutboxEvent e " +
+           "WHERE e.publishedAt IS NULL AND MOD(e.itemId, :partitionCount) IN :partitions " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findUnpublishedInPartitions(@Param("partitionCount") Long partitionCount,
+                                                  @Param("partitions") Collection<Long> partitions,
+                                                  Pageable pageable);
+
+    /**
+     * Same as findUnpublishedInPartitions, leaving out SKUs whose delivery is backing off
+     */
+    @Query("SELECT e FROM OutboxEvent e " +
+           "WHERE e.publishedAt IS NULL AND MOD(e.itemId, :partitionCount) IN :partitions " +
+           "AND e.sku NOT IN :excludedSkus " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findUnpublishedInPartitionsExcluding(@Param("partitionCount") Long partitionCount,
+                                                           @Param("partitions") Collection<Long> partitions,
+                                                           @Param("excludedSkus") Collection<String> excludedSkus,
+                                                           Pageable pageable);
+
+    /**
+     * Mark a set of events as delivered in one statement
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :now WHERE e.id IN :ids AND e.publishedAt IS NULL")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Bulk delete events delivered before the cutoff
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    long countByPublishedAtIsNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.publishedAt IS NULL")
+    LocalDateTime findOldestUnpublishedCreatedAt();
+}
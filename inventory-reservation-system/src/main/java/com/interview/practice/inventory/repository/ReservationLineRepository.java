@@ -0,0 +1,19 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.ReservationLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for ReservationLine entity
+ */
+@Repository
+public interface ReservationLineRepository extends JpaRepository<ReservationLine, Long> {
+
+    /**
+     * Lines of a reservation in location stock id order (the order their rows are locked in)
+     */
+    List<ReservationLine> findByReservationIdOrderByLocationStockId(Long reservationId);
+}
@@ -1,12 +1,16 @@
 package com.interview.practice.inventory.repository;
 
 import com.interview.practice.inventory.model.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +29,133 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT r FROM Reservation r WHERE r.status = 'ACTIVE' AND r.expiresAt < :now")
     List<Reservation> findExpiredReservations(@Param("now") LocalDateTime now);
 
+    /**
+     * Find expired active reservations for items in the given cleanup partitions
+     * Items are assigned to partitions by id modulo the partition count
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.inventoryItem i " +
+           "WHERE r.status = 'ACTIVE' AND r.expiresAt < :now AND MOD(i.id, :partitionCount) IN :partitions " +
+           "ORDER BY r.expiresAt")
+    List<Reservation> findExpiredReservationsInPartitions(@Param("now") LocalDateTime now,
+                                                          @Param("partitionCount") Long partitionCount,
+                                                          @Param("partitions") Collection<Long> partitions,
+                                                          Pageable pageable);
+
+    /**
+     * Load reservations by their public ids together with their item SKUs in one query
+     * Each row is [Reservation, sku]; the item itself is left unloaded so it can be locked fresh
+     */
+    @Query("SELECT r, r.inventoryItem.sku FROM Reservation r WHERE r.reservationId IN :reservationIds")
+    List<Object[]> findWithSkuByReservationIdIn(@Param("reservationIds") Collection<String> reservationIds);
+
+    /**
+     * Map public reservation ids to their item SKUs without loading the reservations
+     * Each row is [reservationId, sku]
+     */
+    @Query("SELECT r.reservationId, r.inventoryItem.sku FROM Reservation r WHERE r.reservationId IN :reservationIds")
+    List<Object[]> findSkusByReservationIdIn(@Param("reservationIds") Collection<String> reservationIds);
+
+    /**
+     * Read the current status of a reservation, bypassing the persistence context
+     */
+    @Query("SELECT r.status FROM Reservation r WHERE r.id = :id")
+    Reservation.ReservationStatus findStatusById(@Param("id") Long id);
+
+    /**
+     * Move a reservation to a new status only if it is still in the expected status
+     * Returns the number of rows updated (0 if it was changed concurrently)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = :now WHERE r.id = :id AND r.status = :from")
+    int transitionIf(@Param("id") Long id,
+                     @Param("from") Reservation.ReservationStatus from,
+                     @Param("to") Reservation.ReservationStatus to,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Move a reservation to a new status only if it is still in the expected status and past its expiry
+     * Returns the number of rows updated (0 if it was released, confirmed, extended or already expired)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :to, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status = :from AND r.expiresAt < :now")
+    int transitionIfExpired(@Param("id") Long id,
+                            @Param("from") Reservation.ReservationStatus from,
+                            @Param("to") Reservation.ReservationStatus to,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Confirm a set of reservations in one statement, only those still in the expected status
+     * Returns the number of rows updated; callers compare it with the number of ids
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :to, r.orderId = :orderId, r.updatedAt = :now " +
+           "WHERE r.id IN :ids AND r.status = :from")
+    int confirmAllIfActive(@Param("ids") Collection<Long> ids,
+                           @Param("from") Reservation.ReservationStatus from,
+                           @Param("to") Reservation.ReservationStatus to,
+                           @Param("orderId") String orderId,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * Push out the expiry of a reservation that is still ACTIVE and not yet expired
+     * Touches only the reservations row (and its expires_at index entry), never the item row
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.expiresAt = :newExpiresAt, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status = :status AND r.expiresAt > :now")
+    int extendIfActive(@Param("id") Long id,
+                       @Param("status") Reservation.ReservationStatus status,
+                       @Param("newExpiresAt") LocalDateTime newExpiresAt,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Reservation ids and quantities of the ACTIVE reservations of one item
+     * Each row is [reservationId, quantity]
+     */
+    @Query("SELECT r.reservationId, r.quantity FROM Reservation r " +
+           "WHERE r.inventoryItem.id = :itemId AND r.status = 'ACTIVE' AND r.leaseId IS NULL " +
+           "AND r.locationSplit = false")
+    List<Object[]> findActiveQuantitiesByItemId(@Param("itemId") Long itemId);
+
+    /**
+     * Read the stock lease a reservation is served from, bypassing the persistence context
+     */
+    @Query("SELECT r.leaseId FROM Reservation r WHERE r.id = :id")
+    Long findLeaseIdById(@Param("id") Long id);
+
+    /**
+     * Ids among the given reservations that are still served from an open stock lease
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.leaseId IS NOT NULL")
+    List<Long> findLeaseBackedIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Units consumed from a stock lease (reservations in any status)
+     */
+    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM Reservation r WHERE r.leaseId = :leaseId")
+    Long sumQuantityByLeaseId(@Param("leaseId") Long leaseId);
+
+    /**
+     * Reservation ids and quantities of the ACTIVE reservations served from a stock lease
+     * Each row is [reservationId, quantity]
+     */
+    @Query("SELECT r.reservationId, r.quantity FROM Reservation r " +
+           "WHERE r.leaseId = :leaseId AND r.status = 'ACTIVE'")
+    List<Object[]> findActiveQuantitiesByLeaseId(@Param("leaseId") Long leaseId);
+
+    /**
+     * Hand the reservations of a settled stock lease over to the item's reserved quantity
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reservation r SET r.leaseId = NULL WHERE r.leaseId = :leaseId")
+    int detachFromLease(@Param("leaseId") Long leaseId);
+
     /**
      * Find all reservations for a specific inventory item
      */
@@ -0,0 +1,57 @@
+package com.interview.practice.inventory.repository;
+
+import com.interview.practice.inventory.model.StockLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for StockLease entity
+ */
+@Repository
+public interface StockLeaseRepository extends JpaRepository<StockLease, Long> {
+
+    List<StockLease> findByOwnerId(String ownerId);
+
+    List<StockLease> findByLeaseUntilBefore(LocalDateTime cutoff);
+
+    /**
+     * Lease still open at the given time, held in shared mode until the transaction ends
+     * Taken by lease-served reservations so settlement (which locks the lease exclusively) waits
+     * for them to commit, and every later one sees the lease gone
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT l FROM StockLease l WHERE l.id = :id AND l.leaseUntil > :now")
+    Optional<StockLease> findOpenByIdForShare(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT l.sku FROM StockLease l WHERE l.id = :id")
+    Optional<String> findSkuById(@Param("id") Long id);
+
+    /**
+     * Lease locked exclusively, for settlement
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM StockLease l WHERE l.id = :id")
+    Optional<StockLease> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Add units to a lease and push out its deadline, only if the owner still holds it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StockLease l SET l.grantedUnits = l.grantedUnits + :units, l.leaseUntil = :until " +
+           "WHERE l.id = :id AND l.ownerId = :owner")
+    int extend(@Param("id") Long id,
+               @Param("owner") String owner,
+               @Param("units") int units,
+               @Param("until") LocalDateTime until);
+}
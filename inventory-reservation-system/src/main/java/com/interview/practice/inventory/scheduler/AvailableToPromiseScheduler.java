@@ -0,0 +1,31 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.service.AvailableToPromiseProjection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for available-to-promise projection rebuilds
+ * Picks up item and inbound shipment changes committed by other instances sharing the database
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.atp.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class AvailableToPromiseScheduler {
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    /**
+     * fixedDelay = 300000ms (5 minutes), configurable via inventory.atp.rebuild-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.atp.rebuild-interval-ms:300000}",
+            initialDelayString = "${inventory.atp.rebuild-interval-ms:300000}")
+    public void scheduleRebuild() {
+        log.trace("Triggering scheduled available-to-promise projection rebuild");
+        availableToPromiseProjection.rebuild();
+    }
+}
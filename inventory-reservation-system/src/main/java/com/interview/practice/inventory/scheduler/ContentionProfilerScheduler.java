@@ -0,0 +1,28 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.metrics.ContentionProfiler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for contention profiler compaction
+ * Evicts the lightest Space-Saving counters off the lock path
+ */
+@Component
+@Slf4j
+public class ContentionProfilerScheduler {
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    /**
+     * fixedDelay = 1000ms, configurable via inventory.contention.compaction-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.contention.compaction-interval-ms:1000}")
+    public void scheduleCompaction() {
+        log.trace("Triggering scheduled contention profiler compaction");
+        contentionProfiler.compact();
+    }
+}
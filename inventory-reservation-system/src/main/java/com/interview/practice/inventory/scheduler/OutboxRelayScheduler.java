@@ -0,0 +1,39 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.outbox.OutboxRelay;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for the transactional outbox
+ * Relays undelivered events every second and prunes delivered ones every minute
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    /**
+     * fixedDelay = 1000ms, configurable via inventory.outbox.relay-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.relay-interval-ms:1000}")
+    public void scheduleRelay() {
+        log.trace("Triggering scheduled outbox relay");
+        outboxRelay.drain();
+    }
+
+    /**
+     * fixedDelay = 60000ms, configurable via inventory.outbox.prune-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.prune-interval-ms:60000}")
+    public void schedulePrune() {
+        log.trace("Triggering scheduled outbox prune");
+        outboxRelay.prune();
+    }
+}
@@ -0,0 +1,31 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.service.ProductSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for product search index rebuilds
+ * Picks up item changes committed by other instances sharing the database
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.search.rebuild.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSearchIndexScheduler {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    /**
+     * fixedDelay = 300000ms (5 minutes), configurable via inventory.search.rebuild-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.search.rebuild-interval-ms:300000}",
+            initialDelayString = "${inventory.search.rebuild-interval-ms:300000}")
+    public void scheduleRebuild() {
+        log.trace("Triggering scheduled product search index rebuild");
+        productSearchIndex.rebuild();
+    }
+}
@@ -0,0 +1,31 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.service.InventoryReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for background inventory reconciliation
+ * Audits a small batch of items every tick, rotating through the whole catalog
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class ReconciliationScheduler {
+
+    @Autowired
+    private InventoryReconciliationService reconciliationService;
+
+    /**
+     * Audit the next batch every 10 seconds
+     * fixedDelay = 10000ms, configurable via inventory.reconciliation.interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.reconciliation.interval-ms:10000}")
+    public void scheduleAudit() {
+        log.trace("Triggering scheduled inventory reconciliation");
+        reconciliationService.auditNextBatch();
+    }
+}
@@ -3,14 +3,17 @@ package com.interview.practice.inventory.scheduler;
 import com.interview.practice.inventory.service.InventoryService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
  * Scheduler for cleaning up expired reservations
  * Runs every minute to check for and release expired reservations
+ * Safe to run on every instance: the sweep only touches partitions leased by this instance
  */
 @Component
+@ConditionalOnProperty(name = "inventory.cleanup.enabled", havingValue = "true", matchIfMissing = true)
 @Slf4j
 public class ReservationCleanupScheduler {
 
@@ -19,9 +22,9 @@ public class ReservationCleanupScheduler {
 
     /**
      * Cleanup expired reservations every minute
-     * fixedRate = 60000ms (1 minute)
+     * fixedRate = 60000ms (1 minute), configurable via inventory.cleanup.interval-ms
      */
-    @Scheduled(fixedRate = 60000)
+    @Scheduled(fixedRateString = "${inventory.cleanup.interval-ms:60000}")
     public void scheduleCleanup() {
         log.trace("Triggering scheduled reservation cleanup");
         inventoryService.cleanupExpiredReservations();
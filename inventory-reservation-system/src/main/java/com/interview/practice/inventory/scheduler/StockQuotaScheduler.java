@@ -0,0 +1,30 @@
+package com.interview.practice.inventory.scheduler;
+
+import com.interview.practice.inventory.quota.StockQuotaManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler for stock quota upkeep
+ * Adapts lease sizes, renews or returns this instance's leases and settles expired ones
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.quota.enabled", havingValue = "true")
+public class StockQuotaScheduler {
+
+    @Autowired
+    private StockQuotaManager stockQuotaManager;
+
+    /**
+     * fixedDelay = 2000ms, configurable via inventory.quota.maintenance-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${inventory.quota.maintenance-interval-ms:2000}")
+    public void scheduleMaintenance() {
+        log.trace("Triggering scheduled stock quota maintenance");
+        stockQuotaManager.maintain();
+    }
+}
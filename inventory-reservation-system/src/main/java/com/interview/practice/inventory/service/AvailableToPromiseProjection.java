@@ -0,0 +1,210 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.dto.AvailableToPromiseResponse;
+import com.interview.practice.inventory.model.InboundShipment;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.repository.InboundShipmentRepository;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Available-to-Promise Projection
+ * Per SKU, the committed available quantity plus EXPECTED inbound units bucketed by expected day,
+ * serving GET /api/inventory/{sku}/atp in O(buckets) without touching the database.
+ *
+ * Reservation mutations update the available quantity and inbound changes replace the SKU's
+ * buckets, both after commit. Inbound changes hold the item row lock and bump its version, so
+ * each half is guarded by the item version it was observed at and an out-of-order update never
+ * overwrites newer state. Built before the instance reports readiness and rebuilt periodically
+ * to pick up changes made by other instances.
+ */
+@Component
+@Slf4j
+public class AvailableToPromiseProjection implements ApplicationRunner {
+
+    private static final NavigableMap<LocalDate, Integer> NO_INBOUND = Collections.emptyNavigableMap();
+
+    private final Map<String, Projection> projections = new ConcurrentHashMap<>();
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private InboundShipmentRepository inboundShipmentRepository;
+
+    @Value("${inventory.atp.rebuild-page-size:500}")
+    private int rebuildPageSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reload every item and its inbound buckets, page by page on each shard, and drop SKUs that no longer exist
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        Set<String> seen = new HashSet<>();
+        for (int shard : shardRouter.shards()) {
+            shardRouter.runOnShard(shard, () -> {
+                Page<InventoryItem> page;
+                int pageNumber = 0;
+                do {
+                    page = inventoryRepository.findAll(PageRequest.of(pageNumber++, rebuildPageSize, Sort.by("id")));
+                    // Items are read before their shipments, so buckets are never older than the version they carry
+                    List<String> skus = page.map(InventoryItem::getSku).getContent();
+                    Map<String, NavigableMap<LocalDate, Integer>> inbound = loadInbound(skus);
+                    for (InventoryItem item : page) {
+                        record(item, inbound.getOrDefault(item.getSku(), NO_INBOUND));
+                        seen.add(item.getSku());
+                    }
+                } while (page.hasNext());
+            });
+        }
+
+        projections.keySet().removeIf(sku -> !seen.contains(sku));
+        log.info("Available-to-promise projection rebuilt: {} items in {} ms",
+                projections.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Record the committed available quantity of an inventory item (reservation mutations).
+     * Must only be called with state that is visible to other transactions.
+     */
+    public void record(InventoryItem item) {
+        long version = item.getVersion() != null ? item.getVersion() : -1L;
+        projections.compute(item.getSku(), (sku, current) -> {
+            if (current == null) {
+                return new Projection(version, item.getAvailableQuantity(), -1L, NO_INBOUND);
+            }
+            if (current.availableVersion() > version) {
+                return current;
+            }
+            return new Projection(version, item.getAvailableQuantity(), current.inboundVersion(), current.inbound());
+        });
+    }
+
+    /**
+     * Record the committed state of an inventory item together with its inbound buckets (inbound changes).
+     * Must only be called with state that is visible to other transactions.
+     */
+    public void record(InventoryItem item, NavigableMap<LocalDate, Integer> inbound) {
+        long version = item.getVersion() != null ? item.getVersion() : -1L;
+        NavigableMap<LocalDate, Integer> buckets = Collections.unmodifiableNavigableMap(new TreeMap<>(inbound));
+        projections.compute(item.getSku(), (sku, current) -> {
+            boolean keepAvailable = current != null && current.availableVersion() > version;
+            boolean keepInbound = current != null && current.inboundVersion() > version;
+            return new Projection(
+                    keepAvailable ? current.availableVersion() : version,
+                    keepAvailable ? current.available() : item.getAvailableQuantity(),
+                    keepInbound ? current.inboundVersion() : version,
+                    keepInbound ? current.inbound() : buckets);
+        });
+    }
+
+    /**
+     * Re-read one SKU after a change made without a managed entity (e.g. a bulk UPDATE)
+     */
+    public void refresh(String sku) {
+        shardRouter.runForSku(sku, () -> inventoryRepository.findBySku(sku).ifPresentOrElse(
+                item -> record(item, loadInbound(sku)),
+                () -> projections.remove(sku)));
+    }
+
+    /**
+     * EXPECTED inbound units of one SKU per expected day, as currently visible
+     */
+    public NavigableMap<LocalDate, Integer> loadInbound(String sku) {
+        return loadInbound(List.of(sku)).getOrDefault(sku, NO_INBOUND);
+    }
+
+    /**
+     * Project availability over the days [from, from + days): on hand now, plus each day's arrivals
+     */
+    public Optional<AvailableToPromiseResponse> project(String sku, LocalDate from, int days) {
+        Projection projection = projections.get(sku);
+        if (projection == null) {
+            return Optional.empty();
+        }
+        LocalDate to = from.plusDays(days - 1L);
+        int availableToPromise = projection.available();
+        int inboundQuantity = 0;
+        List<AvailableToPromiseResponse.Bucket> buckets = new ArrayList<>();
+
+        // Overdue shipments are still expected, so they are promised from the first day
+        int overdue = 0;
+        for (int quantity : projection.inbound().headMap(from, false).values()) {
+            overdue += quantity;
+        }
+        if (overdue > 0) {
+            availableToPromise += overdue;
+            inboundQuantity += overdue;
+            buckets.add(new AvailableToPromiseResponse.Bucket(from, overdue, availableToPromise));
+        }
+        for (Map.Entry<LocalDate, Integer> entry : projection.inbound().subMap(from, true, to, true).entrySet()) {
+            availableToPromise += entry.getValue();
+            inboundQuantity += entry.getValue();
+            AvailableToPromiseResponse.Bucket last = buckets.isEmpty() ? null : buckets.get(buckets.size() - 1);
+            if (last != null && last.getDate().equals(entry.getKey())) {
+                last.setInboundQuantity(last.getInboundQuantity() + entry.getValue());
+                last.setAvailableToPromise(availableToPromise);
+            } else {
+                buckets.add(new AvailableToPromiseResponse.Bucket(entry.getKey(), entry.getValue(), availableToPromise));
+            }
+        }
+
+        return Optional.of(AvailableToPromiseResponse.builder()
+                .sku(sku)
+                .fromDate(from)
+                .toDate(to)
+                .availableQuantity(projection.available())
+                .inboundQuantity(inboundQuantity)
+                .availableToPromise(availableToPromise)
+                .buckets(buckets)
+                .build());
+    }
+
+    private Map<String, NavigableMap<LocalDate, Integer>> loadInbound(Collection<String> skus) {
+        Map<String, NavigableMap<LocalDate, Integer>> inbound = new HashMap<>();
+        if (skus.isEmpty()) {
+            return inbound;
+        }
+        for (Object[] row : inboundShipmentRepository.sumQuantityBySkuAndDate(
+                skus, InboundShipment.InboundStatus.EXPECTED)) {
+            inbound.computeIfAbsent((String) row[0], sku -> new TreeMap<>())
+                    .put((LocalDate) row[1], ((Number) row[2]).intValue());
+        }
+        return inbound;
+    }
+
+    private record Projection(long availableVersion, int available,
+                              long inboundVersion, NavigableMap<LocalDate, Integer> inbound) {
+    }
+}
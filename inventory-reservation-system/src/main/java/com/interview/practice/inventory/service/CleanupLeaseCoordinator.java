@@ -0,0 +1,181 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.model.CleanupLease;
+import com.interview.practice.inventory.model.CleanupMember;
+import com.interview.practice.inventory.repository.CleanupLeaseRepository;
+import com.interview.practice.inventory.repository.CleanupMemberRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cleanup Lease Coordinator
+ * Splits the expiry sweep across application instances sharing one database.
+ *
+ * Inventory items are hashed into a fixed number of partitions (item id modulo partition count).
+ * Every tick an instance heartbeats, then claims or renews up to its fair share of partitions
+ * (partitions / live instances) and gives back any excess, so N instances converge on
+ * disjoint slices of the backlog and never fight over the same item locks.
+ */
+@Component
+@Slf4j
+public class CleanupLeaseCoordinator {
+
+    @Autowired
+    private CleanupLeaseRepository leaseRepository;
+
+    @Autowired
+    private CleanupMemberRepository memberRepository;
+
+    @Value("${inventory.instance-id:${random.uuid}}")
+    private String instanceId;
+
+    @Value("${inventory.cleanup.partitions:16}")
+    private int partitionCount;
+
+    @Value("${inventory.cleanup.lease-ms:180000}")
+    private long leaseMillis;
+
+    private volatile boolean partitionsInitialized;
+
+    private volatile Set<Integer> currentPartitions = Collections.emptySet();
+
+    private volatile long lastClaimMillis;
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Partitions this instance held after its last claim
+     */
+    public Set<Integer> getCurrentPartitions() {
+        return currentPartitions;
+    }
+
+    /**
+     * Whether this instance's last claim is older than half a lease and should be renewed
+     * Lets other partitioned background work keep its leases alive when the cleanup job is disabled
+     */
+    public boolean isClaimStale() {
+        return System.currentTimeMillis() - lastClaimMillis > leaseMillis / 2;
+    }
+
+    /**
+     * Heartbeat and claim this owner's fair share of partitions
+     * Returns the partitions the owner holds until the next tick
+     */
+    @Transactional
+    public Set<Integer> claimPartitions(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(Duration.ofMillis(leaseMillis));
+
+        heartbeat(owner, until);
+        ensurePartitions(now);
+
+        long liveMembers = Math.max(1, memberRepository.countByExpiresAtAfter(now));
+        int fairShare = (int) Math.ceil((double) partitionCount / liveMembers);
+
+        List<CleanupLease> leases = leaseRepository.findAllByOrderByPartitionNoAsc();
+        Set<Integer> claimed = new TreeSet<>();
+
+        // Renew partitions already held, giving back anything above the fair share
+        for (CleanupLease lease : leases) {
+            if (lease.getPartitionNo() >= partitionCount || !owner.equals(lease.getOwnerId())) {
+                continue;
+            }
+            if (claimed.size() < fairShare && leaseRepository.claim(lease.getPartitionNo(), owner, now, until) == 1) {
+                claimed.add(lease.getPartitionNo());
+            } else {
+                leaseRepository.release(lease.getPartitionNo(), owner, now);
+            }
+        }
+
+        // Pick up free or expired partitions until the fair share is reached
+        for (CleanupLease lease : leases) {
+            if (claimed.size() >= fairShare) {
+                break;
+            }
+            boolean free = lease.getOwnerId() == null || lease.getLeaseUntil().isBefore(now);
+            if (lease.getPartitionNo() < partitionCount && free
+                    && leaseRepository.claim(lease.getPartitionNo(), owner, now, until) == 1) {
+                claimed.add(lease.getPartitionNo());
+            }
+        }
+
+        log.debug("Instance {} holds cleanup partitions {} (members: {}, fair share: {})",
+                owner, claimed, liveMembers, fairShare);
+
+        if (owner.equals(instanceId)) {
+            currentPartitions = Collections.unmodifiableSet(claimed);
+            lastClaimMillis = System.currentTimeMillis();
+        }
+        return claimed;
+    }
+
+    /**
+     * Release all partitions and membership of an owner
+     */
+    @Transactional
+    public void leave(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        int released = leaseRepository.releaseAll(owner, now);
+        memberRepository.deleteById(owner);
+        log.info("Instance {} left cleanup coordination, released {} partitions", owner, released);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            leaseRepository.releaseAll(instanceId, LocalDateTime.now());
+            memberRepository.deleteById(instanceId);
+        } catch (Exception e) {
+            log.warn("Failed to release cleanup partitions on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat(String owner, LocalDateTime until) {
+        if (memberRepository.heartbeat(owner, until) == 0) {
+            memberRepository.save(CleanupMember.builder()
+                    .instanceId(owner)
+                    .expiresAt(until)
+                    .build());
+        }
+        memberRepository.deleteExpired(LocalDateTime.now().minus(Duration.ofMillis(leaseMillis)));
+    }
+
+    private void ensurePartitions(LocalDateTime now) {
+        if (partitionsInitialized) {
+            return;
+        }
+        for (int partitionNo = 0; partitionNo < partitionCount; partitionNo++) {
+            if (!leaseRepository.existsById(partitionNo)) {
+                try {
+                    leaseRepository.create(partitionNo, now);
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance booting at the same time inserted it first; its row will do
+                    if (!leaseRepository.existsById(partitionNo)) {
+                        throw e;
+                    }
+                    log.debug("Cleanup partition {} was created concurrently", partitionNo);
+                }
+            }
+        }
+        partitionsInitialized = true;
+    }
+}
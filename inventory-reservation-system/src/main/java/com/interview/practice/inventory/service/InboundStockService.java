@@ -0,0 +1,221 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.dto.InboundShipmentRequest;
+import com.interview.practice.inventory.dto.InboundShipmentResponse;
+import com.interview.practice.inventory.exception.InboundShipmentNotFoundException;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.model.InboundShipment;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.model.OutboxEvent;
+import com.interview.practice.inventory.repository.InboundShipmentRepository;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.OutboxEventRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * Inbound Stock Service
+ * Schedules, receives and cancels inbound shipments. Every change holds the item row lock and
+ * moves the item's inbound quantity, so it bumps the item version like a reservation does.
+ * Receiving moves the units on hand (total and available) and appends a RESTOCKED event.
+ * The available-to-promise projection and other in-memory views are updated after commit.
+ */
+@Service
+@Slf4j
+public class InboundStockService {
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private InboundShipmentRepository inboundShipmentRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void initTransactionTemplate() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * EXPECTED shipments of a SKU, earliest first
+     */
+    public List<InboundShipmentResponse> getExpectedShipments(String sku) {
+        return shardRouter.forSku(sku, () -> readOnlyTransaction.execute(status ->
+                inboundShipmentRepository.findBySkuAndStatusOrderByExpectedDate(sku,
+                                InboundShipment.InboundStatus.EXPECTED).stream()
+                        .map(InboundStockService::toResponse)
+                        .toList()));
+    }
+
+    /**
+     * Record units expected to arrive for a SKU on a given day
+     */
+    public InboundShipmentResponse scheduleShipment(String sku, InboundShipmentRequest request) {
+        log.info("Scheduling inbound shipment of {} units of SKU: {} for {}",
+                request.getQuantity(), sku, request.getExpectedDate());
+        Change change = shardRouter.forSku(sku, () -> transaction.execute(status -> {
+            InventoryItem inventoryItem = lockItem(sku);
+            InboundShipment shipment = inboundShipmentRepository.save(InboundShipment.builder()
+                    .itemId(inventoryItem.getId())
+                    .sku(sku)
+                    .reference(request.getReference())
+                    .quantity(request.getQuantity())
+                    .expectedDate(request.getExpectedDate())
+                    .status(InboundShipment.InboundStatus.EXPECTED)
+                    .build());
+            inventoryItem.setInboundQuantity(inventoryItem.getInboundQuantity() + request.getQuantity());
+            inventoryRepository.save(inventoryItem);
+            return new Change(inventoryItem, shipment, availableToPromiseProjection.loadInbound(sku));
+        }));
+        return publish(change);
+    }
+
+    /**
+     * Receive an EXPECTED shipment: its units go on hand and stop counting as inbound
+     */
+    public InboundShipmentResponse receiveShipment(Long shipmentId) {
+        log.info("Receiving inbound shipment: {}", shipmentId);
+        Change change = shardRouter.onShard(shipmentShard(shipmentId), () -> transaction.execute(status -> {
+            InboundShipment shipment = findShipment(shipmentId);
+            InventoryItem inventoryItem = lockItem(shipment.getSku());
+            requireExpected(shipment, "receive", "received");
+
+            int quantity = shipment.getQuantity();
+            inventoryItem.setInboundQuantity(inventoryItem.getInboundQuantity() - quantity);
+            inventoryItem.setTotalQuantity(inventoryItem.getTotalQuantity() + quantity);
+            inventoryItem.setAvailableQuantity(inventoryItem.getAvailableQuantity() + quantity);
+            inventoryRepository.save(inventoryItem);
+
+            shipment.setStatus(InboundShipment.InboundStatus.RECEIVED);
+            inboundShipmentRepository.save(shipment);
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .itemId(inventoryItem.getId())
+                    .sku(inventoryItem.getSku())
+                    .eventType(OutboxEvent.EventType.RESTOCKED)
+                    .quantity(quantity)
+                    .totalQuantity(inventoryItem.getTotalQuantity())
+                    .availableQuantity(inventoryItem.getAvailableQuantity())
+                    .reservedQuantity(inventoryItem.getReservedQuantity())
+                    .build());
+            return new Change(inventoryItem, shipment, availableToPromiseProjection.loadInbound(shipment.getSku()));
+        }));
+        log.info("Received inbound shipment: {}. Added {} units to SKU: {}", shipmentId,
+                change.shipment().getQuantity(), change.shipment().getSku());
+        return publish(change);
+    }
+
+    /**
+     * Cancel an EXPECTED shipment: its units stop counting towards available-to-promise
+     */
+    public InboundShipmentResponse cancelShipment(Long shipmentId) {
+        log.info("Cancelling inbound shipment: {}", shipmentId);
+        Change change = shardRouter.onShard(shipmentShard(shipmentId), () -> transaction.execute(status -> {
+            InboundShipment shipment = findShipment(shipmentId);
+            InventoryItem inventoryItem = lockItem(shipment.getSku());
+            requireExpected(shipment, "cancel", "cancelled");
+
+            inventoryItem.setInboundQuantity(inventoryItem.getInboundQuantity() - shipment.getQuantity());
+            inventoryRepository.save(inventoryItem);
+            shipment.setStatus(InboundShipment.InboundStatus.CANCELLED);
+            inboundShipmentRepository.save(shipment);
+            return new Change(inventoryItem, shipment, availableToPromiseProjection.loadInbound(shipment.getSku()));
+        }));
+        return publish(change);
+    }
+
+    /**
+     * Shard holding a shipment, found by probing (shipments are addressed by id alone)
+     */
+    private int shipmentShard(Long shipmentId) {
+        return shardRouter.locate(() -> inboundShipmentRepository.existsById(shipmentId));
+    }
+
+    private InventoryItem lockItem(String sku) {
+        return inventoryRepository.findBySkuWithLock(sku)
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+    }
+
+    private InboundShipment findShipment(Long shipmentId) {
+        return inboundShipmentRepository.findById(shipmentId)
+                .orElseThrow(() -> new InboundShipmentNotFoundException(
+                        "Inbound shipment not found: " + shipmentId));
+    }
+
+    /**
+     * Status is re-read under the item lock so a concurrent receive or cancel is seen
+     */
+    private void requireExpected(InboundShipment shipment, String action, String outcome) {
+        InboundShipment.InboundStatus currentStatus = inboundShipmentRepository.findStatusById(shipment.getId());
+        if (currentStatus != InboundShipment.InboundStatus.EXPECTED) {
+            log.warn("Cannot {} inbound shipment {} with status: {}", action, shipment.getId(), currentStatus);
+            throw new IllegalStateException(String.format(
+                    "Cannot %s inbound shipment with status: %s. Only EXPECTED shipments can be %s.",
+                    action, currentStatus, outcome));
+        }
+    }
+
+    /**
+     * Publish a committed change to the in-memory views
+     */
+    private InboundShipmentResponse publish(Change change) {
+        availableToPromiseProjection.record(change.inventoryItem(), change.inbound());
+        soldOutIndex.record(change.inventoryItem());
+        productSearchIndex.record(change.inventoryItem());
+        inventoryReadCoalescer.invalidate(change.inventoryItem().getSku());
+        return toResponse(change.shipment());
+    }
+
+    private static InboundShipmentResponse toResponse(InboundShipment shipment) {
+        return InboundShipmentResponse.builder()
+                .id(shipment.getId())
+                .sku(shipment.getSku())
+                .reference(shipment.getReference())
+                .quantity(shipment.getQuantity())
+                .expectedDate(shipment.getExpectedDate())
+                .status(shipment.getStatus().name())
+                .build();
+    }
+
+    /**
+     * Item and shipment as committed, with the SKU's inbound buckets read under the item lock
+     */
+    private record Change(InventoryItem inventoryItem, InboundShipment shipment,
+                          NavigableMap<LocalDate, Integer> inbound) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.dto.InventoryResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Inventory Read Coalescer
+ * Single-flight layer for per-SKU inventory reads: while a database read for a SKU is running,
+ * concurrent readers of that SKU wait for its result instead of issuing their own query.
+ *
+ * If the application has a CacheManager with the configured cache, hits are served from it and
+ * coalesced loads fill it; without one only coalescing applies. Writers invalidate after commit.
+ * The cache only sees this instance's writes, so give it a TTL when several instances share a
+ * database. Callers always get their own copy of the response.
+ */
+@Component
+@Slf4j
+public class InventoryReadCoalescer {
+
+    private final SingleFlight<String, Optional<InventoryResponse>> inventoryReads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Long>> versionReads = new SingleFlight<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManagerProvider;
+
+    @Value("${inventory.read-coalescing.cache-name:inventory}")
+    private String cacheName;
+
+    private Cache cache;
+
+    @PostConstruct
+    void initCache() {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+        log.info("Inventory read coalescing enabled ({})",
+                cache != null ? "backed by cache '" + cacheName + "'" : "no cache configured");
+    }
+
+    /**
+     * Inventory details for a SKU, loaded at most once at a time per SKU
+     */
+    public Optional<InventoryResponse> read(String sku, Supplier<Optional<InventoryResponse>> loader) {
+        InventoryResponse cached = cached(sku);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+        Optional<InventoryResponse> response = cache != null
+                ? inventoryReads.execute(sku, loader, loaded -> loaded.ifPresent(value -> cache.put(sku, value)))
+                : inventoryReads.execute(sku, loader);
+        return response.map(value -> value.toBuilder().build());
+    }
+
+    /**
+     * Row version for a SKU; answered from the cached response when there is one
+     */
+    public Optional<Long> readVersion(String sku, Supplier<Optional<Long>> loader) {
+        InventoryResponse cached = cached(sku);
+        if (cached != null) {
+            return Optional.ofNullable(cached.getVersion());
+        }
+        return versionReads.execute(sku, loader);
+    }
+
+    /**
+     * Called once a change to the SKU has committed
+     */
+    public void invalidate(String sku) {
+        // Detach running loads first so none of them can publish into the cache after the evict
+        inventoryReads.forget(sku);
+        versionReads.forget(sku);
+        if (cache != null) {
+            cache.evict(sku);
+        }
+    }
+
+    /**
+     * Coalescing ratio per read path and cache counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", cache != null ? cacheName : "none");
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("cacheMisses", cacheMisses.get());
+        stats.put("inventory", inventoryReads.stats());
+        stats.put("version", versionReads.stats());
+        return stats;
+    }
+
+    private InventoryResponse cached(String sku) {
+        if (cache == null) {
+            return null;
+        }
+        InventoryResponse cached = cache.get(sku, InventoryResponse.class);
+        (cached != null ? cacheHits : cacheMisses).incrementAndGet();
+        return cached;
+    }
+}
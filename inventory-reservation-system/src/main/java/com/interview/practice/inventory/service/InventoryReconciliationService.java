@@ -0,0 +1,258 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.dto.DriftReport;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inventory Reconciliation Service
+ * Checks that each item's reserved quantity and running checksum match its ACTIVE reservations.
+ * Reservations served from an open stock lease are counted in leasedQuantity and left out.
+ *
+ * Every tick audits a small batch of items, rotating through the catalog by id, so the whole
+ * catalog is covered over time without a large scan. Audits take no locks: the item version is
+ * read before and after recounting, and items that changed in between are retried on the next
+ * rotation. Drift is reported and, if enabled, repaired under the item lock.
+ * With sharding the rotation walks each shard's catalog in turn.
+ */
+@Service
+@Slf4j
+public class InventoryReconciliationService {
+
+    private static final int RECENT_DRIFT_LIMIT = 50;
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.reconciliation.batch-size:20}")
+    private int batchSize;
+
+    @Value("${inventory.reconciliation.auto-repair:false}")
+    private boolean autoRepair;
+
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate repairTransaction;
+
+    private final AtomicInteger cursorShard = new AtomicInteger(ShardRouter.HOME_SHARD);
+    private final AtomicLong cursor = new AtomicLong(0);
+    private final AtomicLong auditedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong driftCount = new AtomicLong();
+    private final AtomicLong repairedCount = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+    private final Deque<DriftReport> recentDrifts = new ArrayDeque<>();
+
+    @PostConstruct
+    void initTransactionTemplates() {
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        repairTransaction = new TransactionTemplate(transactionManager);
+        repairTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Audit the next batch of items in the rotation
+     */
+    public List<DriftReport> auditNextBatch() {
+        int shard = cursorShard.get();
+        List<Long> itemIds = shardRouter.onShard(shard, () ->
+                inventoryRepository.findIdsAfter(cursor.get(), PageRequest.of(0, batchSize)));
+        if (itemIds.size() < batchSize) {
+            // End of the shard's catalog: continue with the next shard, or wrap around after the last
+            cursor.set(0);
+            if (shard + 1 < shardRouter.getShardCount()) {
+                cursorShard.set(shard + 1);
+            } else {
+                cursorShard.set(ShardRouter.HOME_SHARD);
+                rotations.incrementAndGet();
+            }
+        } else {
+            cursor.set(itemIds.get(itemIds.size() - 1));
+        }
+
+        List<DriftReport> drifts = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            try {
+                auditItem(shard, itemId).ifPresent(drifts::add);
+            } catch (Exception e) {
+                log.error("Failed to audit inventory item: {}", itemId, e);
+            }
+        }
+        return drifts;
+    }
+
+    /**
+     * Audit a single SKU on demand
+     */
+    public Optional<DriftReport> auditSku(String sku) {
+        InventoryItem item = shardRouter.forSku(sku, () -> inventoryRepository.findBySku(sku))
+                .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+        return auditItem(shardRouter.shardOf(sku), item.getId());
+    }
+
+    /**
+     * Recount a SKU under its item lock and overwrite the counters with the recount
+     * Total quantity is treated as authoritative: available = total - reserved - leased
+     */
+    public DriftReport repairSku(String sku) {
+        DriftReport report = shardRouter.forSku(sku, () -> repairTransaction.execute(status -> {
+            InventoryItem item = inventoryRepository.findBySkuWithLock(sku)
+                    .orElseThrow(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku));
+            Recount recount = recount(item.getId());
+            DriftReport drift = DriftReport.builder()
+                    .sku(sku)
+                    .recordedReservedQuantity(item.getReservedQuantity())
+                    .actualReservedQuantity(recount.reservedQuantity())
+                    .recordedChecksum(item.getActiveChecksum())
+                    .actualChecksum(recount.checksum())
+                    .repaired(true)
+                    .detectedAt(LocalDateTime.now())
+                    .build();
+
+            item.setReservedQuantity(recount.reservedQuantity());
+            item.setAvailableQuantity(item.getTotalQuantity() - recount.reservedQuantity() - item.getLeasedQuantity());
+            item.setActiveChecksum(recount.checksum());
+            inventoryRepository.save(item);
+            return drift;
+        }));
+        repairedCount.incrementAndGet();
+        soldOutIndex.invalidate(sku);
+        productSearchIndex.refresh(sku);
+        availableToPromiseProjection.refresh(sku);
+        inventoryReadCoalescer.invalidate(sku);
+        log.warn("Repaired inventory drift for SKU: {}. Reserved {} -> {}", sku,
+                report.getRecordedReservedQuantity(), report.getActualReservedQuantity());
+        return report;
+    }
+
+    /**
+     * Counters and the most recent drift reports
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("audited", auditedCount.get());
+        stats.put("skippedConcurrentChange", skippedCount.get());
+        stats.put("drifts", driftCount.get());
+        stats.put("repaired", repairedCount.get());
+        stats.put("rotations", rotations.get());
+        stats.put("cursorShard", cursorShard.get());
+        stats.put("cursor", cursor.get());
+        stats.put("autoRepair", autoRepair);
+        synchronized (recentDrifts) {
+            stats.put("recentDrifts", new ArrayList<>(recentDrifts));
+        }
+        return stats;
+    }
+
+    private Optional<DriftReport> auditItem(int shard, Long itemId) {
+        DriftReport drift = shardRouter.onShard(shard, () -> readTransaction.execute(status -> {
+            InventoryItem item = inventoryRepository.findById(itemId).orElse(null);
+            if (item == null) {
+                return null;
+            }
+            Recount recount = recount(itemId);
+
+            // A mutation committed while recounting: the two reads are not comparable
+            if (!Objects.equals(item.getVersion(), inventoryRepository.findVersionById(itemId))) {
+                skippedCount.incrementAndGet();
+                return null;
+            }
+            auditedCount.incrementAndGet();
+
+            if (item.getReservedQuantity() == recount.reservedQuantity()
+                    && item.getActiveChecksum() == recount.checksum()) {
+                return null;
+            }
+            return DriftReport.builder()
+                    .sku(item.getSku())
+                    .recordedReservedQuantity(item.getReservedQuantity())
+                    .actualReservedQuantity(recount.reservedQuantity())
+                    .recordedChecksum(item.getActiveChecksum())
+                    .actualChecksum(recount.checksum())
+                    .detectedAt(LocalDateTime.now())
+                    .build();
+        }));
+
+        if (drift == null) {
+            return Optional.empty();
+        }
+        driftCount.incrementAndGet();
+        log.warn("Inventory drift detected for SKU: {}. Recorded reserved: {}, actual: {}",
+                drift.getSku(), drift.getRecordedReservedQuantity(), drift.getActualReservedQuantity());
+        if (autoRepair) {
+            drift = repairSku(drift.getSku());
+        }
+        remember(drift);
+        return Optional.of(drift);
+    }
+
+    private Recount recount(Long itemId) {
+        int reservedQuantity = 0;
+        long checksum = 0;
+        for (Object[] row : reservationRepository.findActiveQuantitiesByItemId(itemId)) {
+            String reservationId = (String) row[0];
+            int quantity = ((Number) row[1]).intValue();
+            reservedQuantity += quantity;
+            checksum += ReservationChecksum.fingerprint(reservationId, quantity);
+        }
+        return new Recount(reservedQuantity, checksum);
+    }
+
+    private void remember(DriftReport drift) {
+        synchronized (recentDrifts) {
+            recentDrifts.addFirst(drift);
+            while (recentDrifts.size() > RECENT_DRIFT_LIMIT) {
+                recentDrifts.removeLast();
+            }
+        }
+    }
+
+    private record Recount(int reservedQuantity, long checksum) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.interview.practice.inventory.service;
 
+import com.interview.practice.inventory.allocation.LocationAllocationService;
+import com.interview.practice.inventory.dto.BatchConfirmRequest;
 import com.interview.practice.inventory.dto.InventoryResponse;
 import com.interview.practice.inventory.dto.ReservationRequest;
 import com.interview.practice.inventory.dto.ReservationResponse;
@@ -7,20 +9,51 @@ import com.interview.practice.inventory.exception.InsufficientInventoryException
 import com.interview.practice.inventory.exception.InventoryNotFoundException;
 import com.interview.practice.inventory.exception.ReservationNotFoundException;
 import com.interview.practice.inventory.mapper.InventoryMapper;
+import com.interview.practice.inventory.metrics.ContentionProfiler;
+import com.interview.practice.inventory.metrics.InventoryOperationEvent;
+import com.interview.practice.inventory.metrics.ReservationAnalytics;
 import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.model.OutboxEvent;
 import com.interview.practice.inventory.model.Reservation;
+import com.interview.practice.inventory.quota.StockQuotaManager;
 import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.OutboxEventRepository;
 import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.repository.StockLeaseRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Inventory Service
@@ -41,38 +74,184 @@ public class InventoryService {
     @Autowired
     private InventoryMapper inventoryMapper;
 
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryReadCoalescer inventoryReadCoalescer;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private CleanupLeaseCoordinator cleanupLeaseCoordinator;
+
+    @Autowired
+    private ReservationAnalytics reservationAnalytics;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StockLeaseRepository stockLeaseRepository;
+
+    @Autowired
+    private StockQuotaManager stockQuotaManager;
+
+    @Autowired
+    private LocationAllocationService locationAllocationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.cleanup.batch-size:500}")
+    private int cleanupBatchSize;
+
+    @Value("${inventory.reservation.max-lease-minutes:120}")
+    private int maxLeaseMinutes;
+
+    private TransactionTemplate readCommittedTransaction;
+    private TransactionTemplate readOnlyTransaction;
+    private ExecutorService cleanupExecutor;
+
+    @PostConstruct
+    void initTransactionTemplates() {
+        readCommittedTransaction = new TransactionTemplate(transactionManager);
+        readCommittedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        if (shardRouter.isSharded()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            cleanupExecutor = Executors.newFixedThreadPool(shardRouter.getShardCount(), runnable -> {
+                Thread thread = new Thread(runnable, "cleanup-shard-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdownCleanupExecutor() {
+        if (cleanupExecutor != null) {
+            cleanupExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Get available inventory for a SKU
      */
-    @Transactional(readOnly = true)
     public Integer getAvailableInventory(String sku) {
-        return inventoryRepository.findBySku(sku)
-                .map(InventoryItem::getAvailableQuantity)
+        return getInventory(sku)
+                .map(InventoryResponse::getAvailableQuantity)
                 .orElse(0);
     }
 
     /**
      * Get inventory details with DTO mapping
+     * Concurrent reads of the same SKU share one query. The transaction is opened by the loading
+     * caller only, so callers waiting on a coalesced read do not hold a connection.
      */
-    @Transactional(readOnly = true)
     public Optional<InventoryResponse> getInventory(String sku) {
-        return inventoryRepository.findBySku(sku)
-                .map(inventoryMapper::toInventoryResponse);
+        return inventoryReadCoalescer.read(sku, () -> shardRouter.forSku(sku, () -> readOnlyTransaction.execute(status ->
+                inventoryRepository.findBySku(sku).map(inventoryMapper::toInventoryResponse))));
+    }
+
+    /**
+     * Get the row version of a SKU without mapping the entity (conditional GET)
+     */
+    public Optional<Long> getInventoryVersion(String sku) {
+        return inventoryReadCoalescer.readVersion(sku, () -> shardRouter.forSku(sku, () -> readOnlyTransaction.execute(status ->
+                inventoryRepository.findVersionBySku(sku))));
+    }
+
+    /**
+     * Get the row versions of several SKUs; unknown SKUs are left out
+     * One read-only query per shard holding any of the SKUs
+     */
+    public Map<String, Long> getInventoryVersions(Collection<String> skus) {
+        Map<String, Long> versions = new TreeMap<>();
+        shardRouter.groupBySku(skus).forEach((shard, shardSkus) -> shardRouter.runOnShard(shard, () ->
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    for (Object[] row : inventoryRepository.findVersionsBySkuIn(shardSkus)) {
+                        versions.put((String) row[0], (Long) row[1]);
+                    }
+                })));
+        return versions;
+    }
+
+    /**
+     * Get inventory details for several SKUs, ordered by SKU; unknown SKUs are left out
+     */
+    public List<InventoryResponse> getInventories(Collection<String> skus) {
+        List<InventoryResponse> inventories = new ArrayList<>();
+        shardRouter.groupBySku(skus).forEach((shard, shardSkus) -> shardRouter.runOnShard(shard, () ->
+                readOnlyTransaction.executeWithoutResult(status -> inventoryRepository.findBySkuIn(shardSkus)
+                        .forEach(item -> inventories.add(inventoryMapper.toInventoryResponse(item))))));
+        inventories.sort(Comparator.comparing(InventoryResponse::getSku));
+        return inventories;
     }
 
     /**
      * Reserve inventory with pessimistic locking to prevent race conditions
+     * Hot SKUs are served from this instance's stock lease when it has units, without the item lock.
+     * SKUs known to be sold out are rejected after a single unlocked read, without a transaction
      */
-    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ReservationResponse reserveInventory(ReservationRequest reservationRequest) {
+        return InventoryOperationEvent.record("RESERVE", null, () -> {
+            InventoryOperationEvent.annotate(reservationRequest.getSku(), reservationRequest.getQuantity());
+            return shardRouter.forSku(reservationRequest.getSku(), () -> doReserve(reservationRequest));
+        });
+    }
+
+    private ReservationResponse doReserve(ReservationRequest reservationRequest) {
+        Long leaseId = stockQuotaManager.tryAcquire(reservationRequest.getSku(), reservationRequest.getQuantity());
+        if (leaseId != null) {
+            boolean reserved = false;
+            try {
+                ReservationResponse response = readCommittedTransaction.execute(
+                        status -> doReserveFromLease(reservationRequest, leaseId));
+                reserved = response != null;
+                if (reserved) {
+                    return response;
+                }
+            } finally {
+                stockQuotaManager.complete(reservationRequest.getSku(), leaseId,
+                        reservationRequest.getQuantity(), reserved);
+            }
+            // The lease was settled or ran out meanwhile: fall back to the item row
+            stockQuotaManager.leaseClosed(reservationRequest.getSku(), leaseId);
+        }
+        if (soldOutIndex.isSoldOut(reservationRequest.getSku())) {
+            // The mark only follows this instance's writes: confirm it with an unlocked read so stock
+            // added elsewhere (another instance, direct SQL) is not refused until the TTL runs out
+            Optional<Integer> available = inventoryRepository.findAvailableQuantityBySku(reservationRequest.getSku());
+            if (available.isPresent() && available.get() <= 0) {
+                log.debug("Rejecting reservation for sold out SKU: {}", reservationRequest.getSku());
+                throw new InsufficientInventoryException(
+                        String.format("Insufficient inventory. Available: 0, Requested: %d",
+                                reservationRequest.getQuantity()));
+            }
+            soldOutIndex.invalidate(reservationRequest.getSku());
+        }
+        return readCommittedTransaction.execute(status -> doReserveInventory(reservationRequest));
+    }
+
+    private ReservationResponse doReserveInventory(ReservationRequest reservationRequest) {
         log.info("Attempting to reserve {} units of SKU: {}", 
                 reservationRequest.getQuantity(), reservationRequest.getSku());
+        InventoryOperationEvent.annotate(reservationRequest.getSku(), reservationRequest.getQuantity());
         
         // Use pessimistic write lock to prevent concurrent modifications
-        InventoryItem inventoryItem = inventoryRepository
-                .findBySkuWithLock(reservationRequest.getSku())
-                .orElseThrow(() -> new InventoryNotFoundException(
-                        "Inventory not found for SKU: " + reservationRequest.getSku()));
+        InventoryItem inventoryItem = lockItem(reservationRequest.getSku());
         
         // Check if sufficient inventory is available
         if (inventoryItem.getAvailableQuantity() < reservationRequest.getQuantity()) {
@@ -80,6 +259,8 @@ public class InventoryService {
                     reservationRequest.getSku(), 
                     inventoryItem.getAvailableQuantity(), 
                     reservationRequest.getQuantity());
+            // State read under the row lock is committed, so it can seed the index directly
+            soldOutIndex.record(inventoryItem);
             throw new InsufficientInventoryException(
                     String.format("Insufficient inventory. Available: %d, Requested: %d", 
                             inventoryItem.getAvailableQuantity(), 
@@ -91,16 +272,22 @@ public class InventoryService {
                 inventoryItem.getAvailableQuantity() - reservationRequest.getQuantity());
         inventoryItem.setReservedQuantity(
                 inventoryItem.getReservedQuantity() + reservationRequest.getQuantity());
-        inventoryRepository.save(inventoryItem);
         
         // Determine reservation timeout
         int timeoutMinutes = reservationRequest.getTimeoutMinutes() != null 
                 ? reservationRequest.getTimeoutMinutes() 
                 : DEFAULT_RESERVATION_TIMEOUT_MINUTES;
+        String reservationId = shardRouter.newReservationId(reservationRequest.getSku());
+
+        // Fold the new reservation into the item's running checksum (checked by reconciliation)
+        inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum()
+                + ReservationChecksum.fingerprint(reservationId, reservationRequest.getQuantity()));
+        inventoryRepository.save(inventoryItem);
+        afterCommit(() -> recordCommitted(inventoryItem));
         
         // Create reservation
         Reservation reservation = Reservation.builder()
-                .reservationId(UUID.randomUUID().toString())
+                .reservationId(reservationId)
                 .inventoryItem(inventoryItem)
                 .quantity(reservationRequest.getQuantity())
                 .status(Reservation.ReservationStatus.ACTIVE)
@@ -108,6 +295,9 @@ public class InventoryService {
                 .build();
         
         reservationRepository.save(reservation);
+        appendEvent(inventoryItem, OutboxEvent.EventType.RESERVED, reservationId, reservationRequest.getQuantity());
+        afterCommit(() -> reservationAnalytics.recordReserved(
+                reservationRequest.getSku(), reservationRequest.getQuantity()));
         
         log.info("Successfully created reservation: {} for SKU: {}", 
                 reservation.getReservationId(), reservationRequest.getSku());
@@ -115,46 +305,101 @@ public class InventoryService {
         return inventoryMapper.toReservationResponse(reservation);
     }
 
+    private ReservationResponse doReserveFromLease(ReservationRequest reservationRequest, Long leaseId) {
+        log.debug("Reserving {} units of SKU: {} from stock lease {}",
+                reservationRequest.getQuantity(), reservationRequest.getSku(), leaseId);
+        InventoryOperationEvent.annotate(reservationRequest.getSku(), reservationRequest.getQuantity());
+
+        // Hold the lease row until commit, so a settlement either counts this reservation or is
+        // seen to have closed the lease first; units were taken from the local allotment and the
+        // item row is only read, never locked
+        if (stockLeaseRepository.findOpenByIdForShare(leaseId, LocalDateTime.now()).isEmpty()) {
+            log.debug("Stock lease {} for SKU: {} is closed", leaseId, reservationRequest.getSku());
+            return null;
+        }
+        InventoryItem inventoryItem = inventoryRepository.findBySku(reservationRequest.getSku())
+                .orElseThrow(() -> new InventoryNotFoundException(
+                        "Inventory not found for SKU: " + reservationRequest.getSku()));
+        int timeoutMinutes = reservationRequest.getTimeoutMinutes() != null
+                ? reservationRequest.getTimeoutMinutes()
+                : DEFAULT_RESERVATION_TIMEOUT_MINUTES;
+
+        Reservation reservation = Reservation.builder()
+                .reservationId(shardRouter.newReservationId(reservationRequest.getSku()))
+                .inventoryItem(inventoryItem)
+                .quantity(reservationRequest.getQuantity())
+                .status(Reservation.ReservationStatus.ACTIVE)
+                .expiresAt(LocalDateTime.now().plusMinutes(timeoutMinutes))
+                .leaseId(leaseId)
+                .build();
+        reservationRepository.save(reservation);
+        appendLeaseServedEvent(inventoryItem, reservation.getReservationId(), reservationRequest.getQuantity());
+        afterCommit(() -> reservationAnalytics.recordReserved(
+                reservationRequest.getSku(), reservationRequest.getQuantity()));
+
+        return inventoryMapper.toReservationResponse(reservation);
+    }
+
     /**
      * Release a reservation (explicit release by user)
      * Restores inventory quantities and marks reservation as RELEASED
      */
-    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ReservationResponse releaseReservation(String reservationId) {
+        return InventoryOperationEvent.record("RELEASE", reservationId, () ->
+                shardRouter.onShard(reservationShard(reservationId), () ->
+                        readCommittedTransaction.execute(status -> doReleaseReservation(reservationId))));
+    }
+
+    private ReservationResponse doReleaseReservation(String reservationId) {
         log.info("Releasing reservation: {}", reservationId);
         
         // Find the reservation
         Reservation reservation = reservationRepository.findByReservationId(reservationId)
                 .orElseThrow(() -> new ReservationNotFoundException(
                         "Reservation not found: " + reservationId));
+        InventoryOperationEvent.annotate(reservation.getInventoryItem().getSku(), reservation.getQuantity());
+        if (reservation.getLocationSplit()) {
+            // Units are held in location stock; the item row is not involved
+            return locationAllocationService.releaseReservation(reservation);
+        }
+        
+        // Get inventory item with pessimistic lock to prevent concurrent modifications
+        InventoryItem inventoryItem = lockItem(reservation.getInventoryItem().getSku());
         
         // Check if reservation can be released (must be ACTIVE)
-        if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE) {
+        // Status is re-read under the item lock so a concurrent cleanup on another instance is seen
+        Reservation.ReservationStatus currentStatus = reservationRepository.findStatusById(reservation.getId());
+        if (currentStatus != Reservation.ReservationStatus.ACTIVE) {
             log.warn("Cannot release reservation {} with status: {}", 
-                    reservationId, reservation.getStatus());
+                    reservationId, currentStatus);
             throw new IllegalStateException(
                     String.format("Cannot release reservation with status: %s. Only ACTIVE reservations can be released.", 
-                            reservation.getStatus()));
+                            currentStatus));
         }
         
-        // Get inventory item with pessimistic lock to prevent concurrent modifications
-        InventoryItem inventoryItem = inventoryRepository
-                .findBySkuWithLock(reservation.getInventoryItem().getSku())
-                .orElseThrow(() -> new InventoryNotFoundException(
-                        "Inventory not found for SKU: " + reservation.getInventoryItem().getSku()));
-        
-        // Restore inventory quantities
+        // Restore inventory quantities (lease-served units are still counted as leased)
         int releasedQuantity = reservation.getQuantity();
+        Long leaseId = reservationRepository.findLeaseIdById(reservation.getId());
+        reservation.setLeaseId(leaseId);
         inventoryItem.setAvailableQuantity(
                 inventoryItem.getAvailableQuantity() + releasedQuantity);
-        inventoryItem.setReservedQuantity(
-                inventoryItem.getReservedQuantity() - releasedQuantity);
+        if (leaseId != null) {
+            inventoryItem.setLeasedQuantity(inventoryItem.getLeasedQuantity() - releasedQuantity);
+        } else {
+            inventoryItem.setReservedQuantity(
+                    inventoryItem.getReservedQuantity() - releasedQuantity);
+            inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum()
+                    - ReservationChecksum.fingerprint(reservation.getReservationId(), releasedQuantity));
+        }
         
         inventoryRepository.save(inventoryItem);
+        afterCommit(() -> recordCommitted(inventoryItem));
         
         // Update reservation status
         reservation.setStatus(Reservation.ReservationStatus.RELEASED);
         reservationRepository.save(reservation);
+        appendEvent(inventoryItem, OutboxEvent.EventType.RELEASED, reservationId, releasedQuantity);
+        afterCommit(() -> reservationAnalytics.recordReleased(inventoryItem.getSku()));
         
         log.info("Successfully released reservation: {}. Restored {} units of SKU: {}", 
                 reservationId, releasedQuantity, inventoryItem.getSku());
@@ -166,44 +411,63 @@ public class InventoryService {
      * Confirm a reservation (convert to order)
      * Consumes the inventory and marks reservation as CONFIRMED
      */
-    @Transactional(isolation = Isolation.READ_COMMITTED)
     public ReservationResponse confirmReservation(String reservationId, String orderId) {
+        return InventoryOperationEvent.record("CONFIRM", reservationId, () ->
+                shardRouter.onShard(reservationShard(reservationId), () ->
+                        readCommittedTransaction.execute(status -> doConfirmReservation(reservationId, orderId))));
+    }
+
+    private ReservationResponse doConfirmReservation(String reservationId, String orderId) {
         log.info("Confirming reservation: {} for order: {}", reservationId, orderId);
         
         // Find the reservation
         Reservation reservation = reservationRepository.findByReservationId(reservationId)
                 .orElseThrow(() -> new ReservationNotFoundException(
                         "Reservation not found: " + reservationId));
+        InventoryOperationEvent.annotate(reservation.getInventoryItem().getSku(), reservation.getQuantity());
+        if (reservation.getLocationSplit()) {
+            return locationAllocationService.confirmReservation(reservation, orderId);
+        }
         
-        // Check if reservation can be confirmed (must be ACTIVE)
-        if (reservation.getStatus() != Reservation.ReservationStatus.ACTIVE) {
+        // Get inventory item with pessimistic lock
+        InventoryItem inventoryItem = lockItem(reservation.getInventoryItem().getSku());
+        
+        // Check if reservation can be confirmed (must be ACTIVE), re-read under the item lock
+        Reservation.ReservationStatus currentStatus = reservationRepository.findStatusById(reservation.getId());
+        if (currentStatus != Reservation.ReservationStatus.ACTIVE) {
             log.warn("Cannot confirm reservation {} with status: {}", 
-                    reservationId, reservation.getStatus());
+                    reservationId, currentStatus);
             throw new IllegalStateException(
                     String.format("Cannot confirm reservation with status: %s. Only ACTIVE reservations can be confirmed.", 
-                            reservation.getStatus()));
+                            currentStatus));
         }
         
-        // Get inventory item with pessimistic lock
-        InventoryItem inventoryItem = inventoryRepository
-                .findBySkuWithLock(reservation.getInventoryItem().getSku())
-                .orElseThrow(() -> new InventoryNotFoundException(
-                        "Inventory not found for SKU: " + reservation.getInventoryItem().getSku()));
-        
         // Consume the inventory (decrease total and reserved, available stays same)
         int confirmedQuantity = reservation.getQuantity();
+        Long leaseId = reservationRepository.findLeaseIdById(reservation.getId());
+        reservation.setLeaseId(leaseId);
         inventoryItem.setTotalQuantity(
                 inventoryItem.getTotalQuantity() - confirmedQuantity);
-        inventoryItem.setReservedQuantity(
-                inventoryItem.getReservedQuantity() - confirmedQuantity);
+        if (leaseId != null) {
+            inventoryItem.setLeasedQuantity(inventoryItem.getLeasedQuantity() - confirmedQuantity);
+        } else {
+            inventoryItem.setReservedQuantity(
+                    inventoryItem.getReservedQuantity() - confirmedQuantity);
+            inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum()
+                    - ReservationChecksum.fingerprint(reservation.getReservationId(), confirmedQuantity));
+        }
         // availableQuantity stays the same (was already reduced during reservation)
         
         inventoryRepository.save(inventoryItem);
+        afterCommit(() -> recordCommitted(inventoryItem));
         
         // Update reservation status and link to order
         reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
         reservation.setOrderId(orderId);
         reservationRepository.save(reservation);
+        appendEvent(inventoryItem, OutboxEvent.EventType.CONFIRMED, reservationId, confirmedQuantity);
+        Duration timeToConfirm = Duration.between(reservation.getCreatedAt(), LocalDateTime.now());
+        afterCommit(() -> reservationAnalytics.recordConfirmed(inventoryItem.getSku(), timeToConfirm));
         
         log.info("Successfully confirmed reservation: {} for order: {}. Consumed {} units of SKU: {}", 
                 reservationId, orderId, confirmedQuantity, inventoryItem.getSku());
@@ -211,60 +475,459 @@ public class InventoryService {
         return inventoryMapper.toReservationResponse(reservation);
     }
 
+    /**
+     * Confirm all reservations of an order in one transaction, all or nothing
+     * Reservations are loaded with one query, items are locked in SKU order (so concurrent
+     * batches cannot deadlock), counters are applied once per item and every reservation
+     * status is changed by a single guarded UPDATE.
+     * With sharding, all reservations of the batch must be on one shard: a single transaction
+     * cannot span databases, so mixed batches are rejected before anything is changed.
+     */
+    public List<ReservationResponse> confirmReservations(BatchConfirmRequest batchConfirmRequest) {
+        Set<String> reservationIds = new LinkedHashSet<>(batchConfirmRequest.getReservationIds());
+        Set<Integer> shards = new TreeSet<>();
+        for (String reservationId : reservationIds) {
+            shards.add(reservationShard(reservationId));
+        }
+        if (shards.size() > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Reservations are stored on %d different shards and cannot be confirmed in one batch. "
+                            + "No reservations were confirmed.", shards.size()));
+        }
+        int shard = shards.isEmpty() ? ShardRouter.HOME_SHARD : shards.iterator().next();
+        return shardRouter.onShard(shard, () -> readCommittedTransaction.execute(status ->
+                doConfirmReservations(batchConfirmRequest.getOrderId(), reservationIds)));
+    }
+
+    private List<ReservationResponse> doConfirmReservations(String orderId, Set<String> reservationIds) {
+        log.info("Confirming {} reservations for order: {}", reservationIds.size(), orderId);
+
+        Map<String, Reservation> reservationsById = new HashMap<>();
+        Map<String, List<Reservation>> reservationsBySku = new TreeMap<>();
+        for (Object[] row : reservationRepository.findWithSkuByReservationIdIn(reservationIds)) {
+            Reservation reservation = (Reservation) row[0];
+            reservationsById.put(reservation.getReservationId(), reservation);
+            reservationsBySku.computeIfAbsent((String) row[1], sku -> new ArrayList<>()).add(reservation);
+        }
+        if (reservationsById.size() != reservationIds.size()) {
+            List<String> missing = reservationIds.stream()
+                    .filter(id -> !reservationsById.containsKey(id))
+                    .toList();
+            throw new ReservationNotFoundException("Reservations not found: " + missing);
+        }
+        List<String> locationSplit = reservationsById.values().stream()
+                .filter(Reservation::getLocationSplit)
+                .map(Reservation::getReservationId)
+                .toList();
+        if (!locationSplit.isEmpty()) {
+            // Their location rows would be locked outside the SKU order this batch relies on
+            throw new IllegalStateException(String.format(
+                    "Location-split reservations must be confirmed individually: %s. No reservations were confirmed.",
+                    locationSplit));
+        }
+        List<String> notActive = reservationsById.values().stream()
+                .filter(r -> r.getStatus() != Reservation.ReservationStatus.ACTIVE)
+                .map(r -> r.getReservationId() + "=" + r.getStatus())
+                .toList();
+        if (!notActive.isEmpty()) {
+            log.warn("Cannot confirm order {}: reservations not ACTIVE: {}", orderId, notActive);
+            throw new IllegalStateException(String.format(
+                    "Cannot confirm reservations that are not ACTIVE: %s. No reservations were confirmed.", notActive));
+        }
+
+        Map<String, ReservationResponse> responses = new HashMap<>();
+        for (Map.Entry<String, List<Reservation>> entry : reservationsBySku.entrySet()) {
+            String sku = entry.getKey();
+            InventoryItem inventoryItem = lockItem(sku);
+
+            // Consume the inventory (decrease total and reserved, available stays same)
+            // Lease-served reservations are read under the lock; their units are still counted as leased
+            Set<Long> leaseBacked = new HashSet<>(reservationRepository.findLeaseBackedIds(
+                    entry.getValue().stream().map(Reservation::getId).toList()));
+            int confirmedQuantity = 0;
+            int confirmedLeasedQuantity = 0;
+            long confirmedChecksum = 0;
+            for (Reservation reservation : entry.getValue()) {
+                if (leaseBacked.contains(reservation.getId())) {
+                    confirmedLeasedQuantity += reservation.getQuantity();
+                } else {
+                    confirmedQuantity += reservation.getQuantity();
+                    confirmedChecksum += ReservationChecksum.fingerprint(
+                            reservation.getReservationId(), reservation.getQuantity());
+                }
+                responses.put(reservation.getReservationId(), inventoryMapper.toReservationResponse(reservation));
+            }
+            inventoryItem.setTotalQuantity(
+                    inventoryItem.getTotalQuantity() - confirmedQuantity - confirmedLeasedQuantity);
+            inventoryItem.setReservedQuantity(inventoryItem.getReservedQuantity() - confirmedQuantity);
+            inventoryItem.setLeasedQuantity(inventoryItem.getLeasedQuantity() - confirmedLeasedQuantity);
+            inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum() - confirmedChecksum);
+            inventoryRepository.save(inventoryItem);
+            for (Reservation reservation : entry.getValue()) {
+                appendEvent(inventoryItem, OutboxEvent.EventType.CONFIRMED,
+                        reservation.getReservationId(), reservation.getQuantity());
+            }
+            afterCommit(() -> recordCommitted(inventoryItem));
+        }
+
+        // Statuses are re-checked by the UPDATE itself, under the item locks taken above
+        List<Long> ids = reservationsById.values().stream().map(Reservation::getId).toList();
+        int updated = reservationRepository.confirmAllIfActive(ids, Reservation.ReservationStatus.ACTIVE,
+                Reservation.ReservationStatus.CONFIRMED, orderId, LocalDateTime.now());
+        if (updated != ids.size()) {
+            // Released or expired after they were read; roll back the whole batch
+            log.warn("Cannot confirm order {}: {} of {} reservations changed status concurrently",
+                    orderId, ids.size() - updated, ids.size());
+            throw new IllegalStateException(String.format(
+                    "%d reservations are no longer ACTIVE. No reservations were confirmed.", ids.size() - updated));
+        }
+
+        LocalDateTime confirmedAt = LocalDateTime.now();
+        for (Map.Entry<String, List<Reservation>> entry : reservationsBySku.entrySet()) {
+            for (Reservation reservation : entry.getValue()) {
+                Duration timeToConfirm = Duration.between(reservation.getCreatedAt(), confirmedAt);
+                afterCommit(() -> reservationAnalytics.recordConfirmed(entry.getKey(), timeToConfirm));
+            }
+        }
+
+        log.info("Successfully confirmed {} reservations across {} SKUs for order: {}",
+                ids.size(), reservationsBySku.size(), orderId);
+
+        List<ReservationResponse> confirmed = reservationIds.stream().map(responses::get).toList();
+        confirmed.forEach(response -> response.setStatus(Reservation.ReservationStatus.CONFIRMED.name()));
+        return confirmed;
+    }
+
+    /**
+     * Extend (heartbeat) an ACTIVE reservation so it expires the given minutes from now
+     * Uses a single guarded UPDATE on the reservation row; the inventory item is not locked.
+     * The total lease, measured from creation, is capped at the configured maximum.
+     */
+    public ReservationResponse extendReservation(String reservationId, Integer minutes) {
+        int extensionMinutes = minutes != null ? minutes : DEFAULT_RESERVATION_TIMEOUT_MINUTES;
+        if (extensionMinutes < 1) {
+            throw new IllegalArgumentException("Extension must be at least 1 minute");
+        }
+        return shardRouter.onShard(reservationShard(reservationId), () -> readCommittedTransaction.execute(
+                status -> doExtendReservation(reservationId, extensionMinutes)));
+    }
+
+    private ReservationResponse doExtendReservation(String reservationId, int extensionMinutes) {
+        log.info("Extending reservation: {} by {} minutes", reservationId, extensionMinutes);
+
+        Reservation reservation = reservationRepository.findByReservationId(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(
+                        "Reservation not found: " + reservationId));
+        // Resolve the SKU now: the persistence context is cleared by the guarded update
+        String sku = reservation.getInventoryItem().getSku();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseLimit = reservation.getCreatedAt().plusMinutes(maxLeaseMinutes);
+        LocalDateTime requestedExpiry = now.plusMinutes(extensionMinutes);
+        LocalDateTime newExpiresAt = requestedExpiry.isAfter(leaseLimit) ? leaseLimit : requestedExpiry;
+
+        if (!newExpiresAt.isAfter(reservation.getExpiresAt())) {
+            if (reservation.getStatus() == Reservation.ReservationStatus.ACTIVE
+                    && requestedExpiry.isAfter(leaseLimit)) {
+                throw new IllegalStateException(String.format(
+                        "Reservation has reached its maximum lease of %d minutes", maxLeaseMinutes));
+            }
+            // Already expires later than requested; nothing to write
+            newExpiresAt = reservation.getExpiresAt();
+        }
+
+        int updated = reservationRepository.extendIfActive(reservation.getId(),
+                Reservation.ReservationStatus.ACTIVE, newExpiresAt, now);
+        if (updated == 0) {
+            Reservation.ReservationStatus currentStatus = reservationRepository.findStatusById(reservation.getId());
+            log.warn("Cannot extend reservation {} with status: {}", reservationId, currentStatus);
+            if (currentStatus == Reservation.ReservationStatus.ACTIVE) {
+                // Past its deadline; the cleanup job will expire it
+                throw new IllegalStateException("Cannot extend reservation that has already expired");
+            }
+            throw new IllegalStateException(
+                    String.format("Cannot extend reservation with status: %s. Only ACTIVE reservations can be extended.",
+                            currentStatus));
+        }
+
+        reservation.setExpiresAt(newExpiresAt);
+        log.info("Extended reservation: {} for SKU: {} until {}", reservationId, sku, newExpiresAt);
+
+        return inventoryMapper.toReservationResponse(reservation);
+    }
+
     /**
      * Cleanup expired reservations (scheduled job)
-     * Runs periodically to release expired ACTIVE reservations
+     * Runs periodically to release expired ACTIVE reservations.
+     * Only items in cleanup partitions leased by this instance are swept, and each
+     * SKU is expired in its own short transaction so replicas split the backlog.
+     * With sharding, partitions are leased on the home shard and every shard is swept in parallel.
      */
-    @Transactional
     public void cleanupExpiredReservations() {
         log.debug("Running expired reservations cleanup job");
-        
-        List<Reservation> expiredReservations = reservationRepository
-                .findExpiredReservations(LocalDateTime.now());
-        
-        if (expiredReservations.isEmpty()) {
-            log.debug("No expired reservations found");
+
+        Set<Integer> partitions = cleanupLeaseCoordinator.claimPartitions(cleanupLeaseCoordinator.getInstanceId());
+        if (partitions.isEmpty()) {
+            log.debug("No cleanup partitions leased by this instance");
             return;
         }
-        
-        log.info("Found {} expired reservations to cleanup", expiredReservations.size());
-        
+
+        LocalDateTime now = LocalDateTime.now();
         int successCount = 0;
         int failCount = 0;
-        
-        for (Reservation reservation : expiredReservations) {
-            try {
-                // Get inventory item with lock
-                InventoryItem inventoryItem = inventoryRepository
-                        .findBySkuWithLock(reservation.getInventoryItem().getSku())
-                        .orElseThrow(() -> new InventoryNotFoundException(
-                                "Inventory not found for SKU: " + reservation.getInventoryItem().getSku()));
-                
-                // Restore inventory quantities
-                int expiredQuantity = reservation.getQuantity();
-                inventoryItem.setAvailableQuantity(
-                        inventoryItem.getAvailableQuantity() + expiredQuantity);
-                inventoryItem.setReservedQuantity(
-                        inventoryItem.getReservedQuantity() - expiredQuantity);
-                
-                inventoryRepository.save(inventoryItem);
-                
-                // Update reservation status to EXPIRED
-                reservation.setStatus(Reservation.ReservationStatus.EXPIRED);
-                reservationRepository.save(reservation);
-                
+        if (cleanupExecutor == null) {
+            int[] counts = cleanupShard(ShardRouter.HOME_SHARD, partitions, now);
+            successCount = counts[0];
+            failCount = counts[1];
+        } else {
+            List<Future<int[]>> sweeps = new ArrayList<>();
+            for (int shard : shardRouter.shards()) {
+                sweeps.add(cleanupExecutor.submit(() -> cleanupShard(shard, partitions, now)));
+            }
+            for (int shard = 0; shard < sweeps.size(); shard++) {
+                try {
+                    int[] counts = sweeps.get(shard).get();
+                    successCount += counts[0];
+                    failCount += counts[1];
+                } catch (ExecutionException e) {
+                    log.error("Cleanup sweep failed on shard {}", shard, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        if (successCount > 0 || failCount > 0) {
+            log.info("Cleanup job completed. Success: {}, Failed: {}", successCount, failCount);
+        }
+    }
+
+    /**
+     * Expire one shard's reservations in the given partitions; returns {success, failed}
+     */
+    private int[] cleanupShard(int shard, Set<Integer> partitions, LocalDateTime now) {
+        return shardRouter.onShard(shard, () -> {
+            List<Reservation> expiredReservations = reservationRepository.findExpiredReservationsInPartitions(
+                    now,
+                    (long) cleanupLeaseCoordinator.getPartitionCount(),
+                    partitions.stream().map(Integer::longValue).toList(),
+                    PageRequest.of(0, cleanupBatchSize));
+
+            if (expiredReservations.isEmpty()) {
+                log.debug("No expired reservations found on shard {}", shard);
+                return new int[] {0, 0};
+            }
+
+            log.info("Found {} expired reservations to cleanup on shard {}", expiredReservations.size(), shard);
+
+            int successCount = 0;
+            int failCount = 0;
+
+            // Location-split reservations hold location stock only; each is expired on its own
+            for (Reservation reservation : expiredReservations) {
+                if (!reservation.getLocationSplit()) {
+                    continue;
+                }
+                try {
+                    if (locationAllocationService.expireReservation(reservation, now)) {
+                        successCount++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to cleanup expired reservation: {}", reservation.getReservationId(), e);
+                    failCount++;
+                }
+            }
+
+            // Group by SKU (sorted) so each item lock is taken once per sweep
+            Map<String, List<Reservation>> reservationsBySku = expiredReservations.stream()
+                    .filter(r -> !r.getLocationSplit())
+                    .collect(Collectors.groupingBy(r -> r.getInventoryItem().getSku(), TreeMap::new, Collectors.toList()));
+
+            for (Map.Entry<String, List<Reservation>> entry : reservationsBySku.entrySet()) {
+                try {
+                    Integer expiredCount = InventoryOperationEvent.record("CLEANUP_CHUNK", null, () ->
+                            readCommittedTransaction.execute(
+                                    status -> expireReservations(entry.getKey(), entry.getValue(), now)));
+                    successCount += expiredCount != null ? expiredCount : 0;
+                } catch (Exception e) {
+                    log.error("Failed to cleanup expired reservations for SKU: {}", entry.getKey(), e);
+                    failCount += entry.getValue().size();
+                }
+            }
+            return new int[] {successCount, failCount};
+        });
+    }
+
+    private int expireReservations(String sku, List<Reservation> reservations, LocalDateTime now) {
+        // Get inventory item with lock
+        InventoryItem inventoryItem = lockItem(sku);
+
+        // Lease-served reservations are read under the lock; their units are still counted as leased
+        Set<Long> leaseBacked = new HashSet<>(reservationRepository.findLeaseBackedIds(
+                reservations.stream().map(Reservation::getId).toList()));
+        List<Reservation> expired = new ArrayList<>();
+        int expiredQuantity = 0;
+        int expiredLeasedQuantity = 0;
+        long expiredChecksum = 0;
+        for (Reservation reservation : reservations) {
+            // Guarded update skips reservations released, confirmed or extended since they were read
+            int updated = reservationRepository.transitionIfExpired(reservation.getId(),
+                    Reservation.ReservationStatus.ACTIVE, Reservation.ReservationStatus.EXPIRED, now);
+            if (updated == 1) {
+                expired.add(reservation);
+                if (leaseBacked.contains(reservation.getId())) {
+                    expiredLeasedQuantity += reservation.getQuantity();
+                } else {
+                    expiredQuantity += reservation.getQuantity();
+                    expiredChecksum += ReservationChecksum.fingerprint(
+                            reservation.getReservationId(), reservation.getQuantity());
+                }
                 log.debug("Cleaned up expired reservation: {}. Restored {} units of SKU: {}", 
-                        reservation.getReservationId(), expiredQuantity, inventoryItem.getSku());
-                
-                successCount++;
-                
-            } catch (Exception e) {
-                log.error("Failed to cleanup expired reservation: {}", 
-                        reservation.getReservationId(), e);
-                failCount++;
+                        reservation.getReservationId(), reservation.getQuantity(), sku);
             }
         }
-        
-        log.info("Cleanup job completed. Success: {}, Failed: {}", successCount, failCount);
+
+        if (!expired.isEmpty()) {
+            // Restore inventory quantities
+            inventoryItem.setAvailableQuantity(
+                    inventoryItem.getAvailableQuantity() + expiredQuantity + expiredLeasedQuantity);
+            inventoryItem.setReservedQuantity(
+                    inventoryItem.getReservedQuantity() - expiredQuantity);
+            inventoryItem.setLeasedQuantity(inventoryItem.getLeasedQuantity() - expiredLeasedQuantity);
+            inventoryItem.setActiveChecksum(inventoryItem.getActiveChecksum() - expiredChecksum);
+
+            inventoryRepository.save(inventoryItem);
+            for (Reservation reservation : expired) {
+                appendEvent(inventoryItem, OutboxEvent.EventType.EXPIRED,
+                        reservation.getReservationId(), reservation.getQuantity());
+            }
+            afterCommit(() -> recordCommitted(inventoryItem));
+            afterCommit(() -> reservationAnalytics.recordExpired(sku, expired.size()));
+        }
+        InventoryOperationEvent.annotate(sku, expiredQuantity + expiredLeasedQuantity);
+        return expired.size();
+    }
+
+    /**
+     * Restock inventory for a SKU
+     * Adds units to both total and available quantities
+     */
+    public InventoryResponse restockInventory(String sku, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Restock quantity must be at least 1");
+        }
+        return shardRouter.forSku(sku, () -> readCommittedTransaction.execute(status -> doRestockInventory(sku, quantity)));
+    }
+
+    private InventoryResponse doRestockInventory(String sku, int quantity) {
+        log.info("Restocking {} units of SKU: {}", quantity, sku);
+
+        InventoryItem inventoryItem = lockItem(sku);
+
+        inventoryItem.setTotalQuantity(inventoryItem.getTotalQuantity() + quantity);
+        inventoryItem.setAvailableQuantity(inventoryItem.getAvailableQuantity() + quantity);
+
+        inventoryRepository.save(inventoryItem);
+        appendEvent(inventoryItem, OutboxEvent.EventType.RESTOCKED, null, quantity);
+        afterCommit(() -> recordCommitted(inventoryItem));
+
+        return inventoryMapper.toInventoryResponse(inventoryItem);
+    }
+
+    /**
+     * Shard holding a reservation: taken from its id, or looked up for ids without a shard prefix
+     */
+    private int reservationShard(String reservationId) {
+        return shardRouter.shardOfReservationId(reservationId).orElseGet(() ->
+                shardRouter.locate(() -> reservationRepository.findByReservationId(reservationId).isPresent()));
+    }
+
+    /**
+     * Lock an inventory item row for the rest of the current transaction
+     * Lock wait, and hold time until the transaction completes, are fed to the contention profiler;
+     * the wait is also added to the current flight recorder event
+     */
+    private InventoryItem lockItem(String sku) {
+        long waitStart = System.nanoTime();
+        InventoryItem inventoryItem = inventoryRepository.findBySkuWithLock(sku)
+                .orElseThrow(() -> new InventoryNotFoundException(
+                        "Inventory not found for SKU: " + sku));
+        long lockedAt = System.nanoTime();
+        contentionProfiler.recordWait(sku, lockedAt - waitStart);
+        InventoryOperationEvent.addLockWait(lockedAt - waitStart);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    contentionProfiler.recordHold(sku, System.nanoTime() - lockedAt);
+                }
+            });
+        }
+        return inventoryItem;
+    }
+
+    /**
+     * Append an inventory change event to the outbox in the current transaction
+     * Called while the item lock is held, so event ids follow the commit order per SKU
+     */
+    private void appendEvent(InventoryItem inventoryItem, OutboxEvent.EventType eventType,
+                             String reservationId, int quantity) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .itemId(inventoryItem.getId())
+                .sku(inventoryItem.getSku())
+                .eventType(eventType)
+                .reservationId(reservationId)
+                .quantity(quantity)
+                .totalQuantity(inventoryItem.getTotalQuantity())
+                .availableQuantity(inventoryItem.getAvailableQuantity())
+                .reservedQuantity(inventoryItem.getReservedQuantity())
+                .build());
+    }
+
+    /**
+     * Append the RESERVED event of a lease-served reservation
+     * The item row is not locked here, so the event carries no item counters and is flagged unordered:
+     * it may be delivered after a later RELEASED or CONFIRMED event of the same SKU (even of the same
+     * reservation), and consumers needing counters read them from the next ordered event
+     */
+    private void appendLeaseServedEvent(InventoryItem inventoryItem, String reservationId, int quantity) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .itemId(inventoryItem.getId())
+                .sku(inventoryItem.getSku())
+                .eventType(OutboxEvent.EventType.RESERVED)
+                .reservationId(reservationId)
+                .quantity(quantity)
+                .unordered(true)
+                .build());
+    }
+
+    /**
+     * Publish an item's committed state to the in-memory views (sold-out index, product search,
+     * available-to-promise, reads)
+     */
+    private void recordCommitted(InventoryItem inventoryItem) {
+        soldOutIndex.record(inventoryItem);
+        productSearchIndex.record(inventoryItem);
+        availableToPromiseProjection.record(inventoryItem);
+        inventoryReadCoalescer.invalidate(inventoryItem.getSku());
+    }
+
+    /**
+     * Run an action once the current transaction commits (immediately if there is none)
+     * Used to keep in-memory views in step with committed database state
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,280 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.dto.ProductSearchResponse;
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Product Search Index
+ * In-memory index over InventoryItem.productName serving GET /api/inventory/search.
+ *
+ * Names are lower-cased and split into alphanumeric tokens. A sorted token map answers
+ * prefix matches and a trigram map answers matches inside a word ("phone" in "smartphone").
+ * Every query token must match; hits rank exact word > word prefix > inside a word.
+ * Each document carries the committed counters and row version it was observed at, so
+ * availability stays live through after-commit updates and an out-of-order update never
+ * overwrites newer state. Built before the instance reports readiness and rebuilt
+ * periodically to pick up changes made by other instances. Searches never touch the database.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex implements ApplicationRunner {
+
+    private static final int GRAM_SIZE = 3;
+    private static final int EXACT_TOKEN_SCORE = 4;
+    private static final int PREFIX_SCORE = 3;
+    private static final int INFIX_SCORE = 1;
+
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<String>> tokenIndex = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> gramIndex = new ConcurrentHashMap<>();
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.search.rebuild-page-size:500}")
+    private int rebuildPageSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reload every item, page by page on each shard, and drop SKUs that no longer exist
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        Set<String> seen = new HashSet<>();
+        for (int shard : shardRouter.shards()) {
+            shardRouter.runOnShard(shard, () -> {
+                Page<InventoryItem> page;
+                int pageNumber = 0;
+                do {
+                    page = inventoryRepository.findAll(PageRequest.of(pageNumber++, rebuildPageSize, Sort.by("id")));
+                    for (InventoryItem item : page) {
+                        record(item);
+                        seen.add(item.getSku());
+                    }
+                } while (page.hasNext());
+            });
+        }
+
+        for (String sku : List.copyOf(documents.keySet())) {
+            if (!seen.contains(sku)) {
+                remove(sku);
+            }
+        }
+        log.info("Product search index rebuilt: {} items in {} ms",
+                documents.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Record the committed state of an inventory item.
+     * Must only be called with state that is visible to other transactions.
+     */
+    public void record(InventoryItem item) {
+        long version = item.getVersion() != null ? item.getVersion() : -1L;
+        Document next = new Document(item.getSku(), item.getProductName(), tokenize(item.getProductName()),
+                item.getTotalQuantity(), item.getAvailableQuantity(), item.getReservedQuantity(), version);
+        Document[] replaced = new Document[1];
+        documents.compute(item.getSku(), (key, current) -> {
+            if (current != null && current.version() > version) {
+                return current;
+            }
+            replaced[0] = current;
+            return next;
+        });
+        // Postings only change when the name does; counter-only updates just swap the document
+        Document previous = replaced[0];
+        if (previous == null || !previous.tokens().equals(next.tokens())) {
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(next);
+        }
+    }
+
+    /**
+     * Re-read one SKU after a change made without a managed entity (e.g. a bulk UPDATE)
+     */
+    public void refresh(String sku) {
+        shardRouter.runForSku(sku, () -> inventoryRepository.findBySku(sku).ifPresentOrElse(this::record, () -> remove(sku)));
+    }
+
+    /**
+     * Ranked page of items whose names match every token of the query
+     */
+    public ProductSearchResponse search(String query, int page, int size) {
+        Map<String, Integer> scores = null;
+        for (String token : tokenize(query)) {
+            Map<String, Integer> matches = match(token);
+            if (scores == null) {
+                scores = matches;
+            } else {
+                Map<String, Integer> combined = new HashMap<>();
+                for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                    Integer score = matches.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        List<ProductSearchResponse.Hit> ranked = new ArrayList<>();
+        if (scores != null) {
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                Document document = documents.get(entry.getKey());
+                if (document != null) {
+                    ranked.add(ProductSearchResponse.Hit.builder()
+                            .sku(document.sku())
+                            .productName(document.productName())
+                            .totalQuantity(document.totalQuantity())
+                            .availableQuantity(document.availableQuantity())
+                            .reservedQuantity(document.reservedQuantity())
+                            .score(entry.getValue())
+                            .build());
+                }
+            }
+        }
+        ranked.sort(Comparator.comparing(ProductSearchResponse.Hit::getScore).reversed()
+                .thenComparing(Comparator.comparing(ProductSearchResponse.Hit::getAvailableQuantity).reversed())
+                .thenComparing(ProductSearchResponse.Hit::getSku));
+
+        int from = (int) Math.min((long) page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        return ProductSearchResponse.builder()
+                .query(query)
+                .page(page)
+                .size(size)
+                .totalMatches(ranked.size())
+                .hits(new ArrayList<>(ranked.subList(from, to)))
+                .build();
+    }
+
+    /**
+     * Best score per SKU for one query token
+     */
+    private Map<String, Integer> match(String token) {
+        Map<String, Integer> matches = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry
+                : tokenIndex.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            int score = entry.getKey().equals(token) ? EXACT_TOKEN_SCORE : PREFIX_SCORE;
+            for (String sku : entry.getValue()) {
+                matches.merge(sku, score, Math::max);
+            }
+        }
+        if (token.length() < GRAM_SIZE) {
+            return matches;
+        }
+
+        // Intersect trigram postings starting from the rarest, then verify (grams may not be adjacent)
+        List<Set<String>> postings = new ArrayList<>();
+        for (String gram : grams(token)) {
+            Set<String> skus = gramIndex.get(gram);
+            if (skus == null) {
+                return matches;
+            }
+            postings.add(skus);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        for (String sku : postings.get(0)) {
+            if (matches.containsKey(sku) || !postings.stream().allMatch(skus -> skus.contains(sku))) {
+                continue;
+            }
+            Document document = documents.get(sku);
+            if (document != null && document.tokens().stream().anyMatch(word -> word.contains(token))) {
+                matches.put(sku, INFIX_SCORE);
+            }
+        }
+        return matches;
+    }
+
+    private void index(Document document) {
+        for (String token : document.tokens()) {
+            tokenIndex.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(document.sku());
+            for (String gram : grams(token)) {
+                gramIndex.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(document.sku());
+            }
+        }
+    }
+
+    private void unindex(Document document) {
+        for (String token : document.tokens()) {
+            removePosting(tokenIndex, token, document.sku());
+            for (String gram : grams(token)) {
+                removePosting(gramIndex, gram, document.sku());
+            }
+        }
+    }
+
+    private void remove(String sku) {
+        Document removed = documents.remove(sku);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<String>> index, String key, String sku) {
+        index.computeIfPresent(key, (k, skus) -> {
+            skus.remove(sku);
+            return skus.isEmpty() ? null : skus;
+        });
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> grams(String token) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private record Document(String sku, String productName, Set<String> tokens,
+                            int totalQuantity, int availableQuantity, int reservedQuantity, long version) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.interview.practice.inventory.service;
+
+/**
+ * Reservation Checksum
+ * Order-independent fingerprint of the ACTIVE reservations of an item.
+ *
+ * Each reservation contributes a 64-bit hash of (reservationId, quantity); contributions
+ * are added on reserve and subtracted when the reservation leaves ACTIVE, so the running
+ * value on the item row can be maintained incrementally and compared against a recount.
+ */
+public final class ReservationChecksum {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ReservationChecksum() {
+    }
+
+    public static long fingerprint(String reservationId, int quantity) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < reservationId.length(); i++) {
+            hash ^= reservationId.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= quantity;
+        hash *= FNV_PRIME;
+        // Final avalanche so similar ids spread over the whole range
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,95 @@
+package com.interview.practice.inventory.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single Flight
+ * Coalesces concurrent loads of the same key: the first caller runs the loader on its own
+ * thread and every caller arriving while it runs waits for that result instead of loading again.
+ *
+ * Nothing is kept once a load finishes. forget(key) detaches a running load so later callers
+ * start a fresh one; writers call it after commit so a read started before the commit is never
+ * handed to a caller that arrives after it. A publish callback (e.g. a cache put) only runs if the
+ * load was not forgotten, atomically with respect to forget(key).
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, null);
+    }
+
+    public V execute(K key, Supplier<V> loader, Consumer<V> publish) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            if (publish != null) {
+                inFlight.computeIfPresent(key, (k, current) -> {
+                    if (current == flight) {
+                        publish.accept(value);
+                    }
+                    return current;
+                });
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Load and coalescing counters; coalescingRatio is the share of callers that did not load
+     */
+    public Map<String, Object> stats() {
+        long loadCount = loads.get();
+        long coalescedCount = coalesced.get();
+        long calls = loadCount + coalescedCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls);
+        stats.put("loads", loadCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("coalescingRatio", calls == 0 ? 0.0 : (double) coalescedCount / calls);
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Followers see the leader's exception as if they had loaded themselves
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.model.InventoryItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sold-Out Index
+ * In-memory set of SKUs whose committed available quantity is zero.
+ * Lets reservations for depleted SKUs fail fast without opening a transaction.
+ *
+ * The index is conservative: every entry carries the row version it was observed at,
+ * so an out-of-order update can never mark a restocked SKU as sold out, and entries
+ * expire after a TTL to cover changes made outside this service. Only local writes
+ * clear a mark before then, so callers confirm a hit with an unlocked read of the
+ * available quantity and invalidate the entry when stock has come back.
+ */
+@Component
+@Slf4j
+public class SoldOutIndex {
+
+    private final Map<String, Observation> observations = new ConcurrentHashMap<>();
+
+    @Value("${inventory.sold-out.ttl-ms:10000}")
+    private long ttlMillis;
+
+    /**
+     * Check whether a SKU is known to be sold out
+     */
+    public boolean isSoldOut(String sku) {
+        Observation observation = observations.get(sku);
+        return observation != null
+                && observation.soldOut()
+                && System.currentTimeMillis() - observation.observedAt() < ttlMillis;
+    }
+
+    /**
+     * Record the committed state of an inventory item.
+     * Must only be called with state that is visible to other transactions.
+     */
+    public void record(InventoryItem item) {
+        record(item.getSku(), item.getVersion(), item.getAvailableQuantity());
+    }
+
+    void record(String sku, Long version, int availableQuantity) {
+        long observedVersion = version != null ? version : -1L;
+        Observation next = new Observation(observedVersion, availableQuantity <= 0, System.currentTimeMillis());
+        observations.compute(sku, (key, current) ->
+                current != null && current.version() > observedVersion ? current : next);
+        if (next.soldOut()) {
+            log.debug("SKU {} marked sold out at version {}", sku, observedVersion);
+        }
+    }
+
+    /**
+     * Forget everything known about a SKU
+     */
+    public void invalidate(String sku) {
+        observations.remove(sku);
+    }
+
+    private record Observation(long version, boolean soldOut, long observedAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup Warm-up
+ * Preloads hot SKUs and runs every query path before the application reports readiness,
+ * so the first real requests do not pay for cold JIT code and cold Hibernate query plans.
+ * Hot SKUs are only read; locking queries are warmed with probe keys that match no row.
+ *
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after all ApplicationRunners
+ * have completed, so this runs strictly before the instance is marked ready.
+ * Enabled by the fast-startup profile (inventory.warmup.enabled).
+ */
+@Component
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String WARMUP_RESERVATION_ID = "warmup-probe";
+
+    // Longer than the sku column (50), so no item can ever match and no live row is locked
+    private static final String WARMUP_SKU = "warmup-probe-" + "x".repeat(50);
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryItemRepository inventoryRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${inventory.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.warmup.skus:}")
+    private List<String> configuredSkus;
+
+    @Value("${inventory.warmup.hot-sku-count:100}")
+    private int hotSkuCount;
+
+    @Value("${inventory.warmup.iterations:200}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+
+        List<InventoryItem> hotItems = loadHotItems();
+        if (hotItems.isEmpty()) {
+            log.info("Warm-up skipped: no inventory items found");
+            return;
+        }
+        // Items read outside a lock are committed state, so they can seed the sold-out index
+        hotItems.forEach(soldOutIndex::record);
+
+        TransactionTemplate rollbackOnly = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < iterations; i++) {
+            String sku = hotItems.get(i % hotItems.size()).getSku();
+
+            // Read paths (mapper, read-only transactions)
+            inventoryService.getInventory(sku);
+            inventoryService.getAvailableInventory(sku);
+
+            // Write-path queries, rolled back so warm-up leaves no trace; the locking query runs
+            // against a SKU that cannot exist, never a hot row live traffic on other instances needs
+            shardRouter.runForSku(sku, () -> rollbackOnly.executeWithoutResult(status -> {
+                inventoryRepository.findBySkuWithLock(WARMUP_SKU);
+                reservationRepository.findByReservationId(WARMUP_RESERVATION_ID);
+                reservationRepository.findStatusById(-1L);
+                status.setRollbackOnly();
+            }));
+        }
+        reservationRepository.findExpiredReservationsInPartitions(
+                LocalDateTime.now().minusYears(100), 1L, List.of(0L), PageRequest.of(0, 1));
+
+        log.info("Warm-up finished: {} hot SKUs, {} iterations in {} ms",
+                hotItems.size(), iterations, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<InventoryItem> loadHotItems() {
+        List<InventoryItem> items = new ArrayList<>();
+        if (configuredSkus == null || configuredSkus.isEmpty()) {
+            // The first items of each shard, up to hotSkuCount in total
+            for (int shard : shardRouter.shards()) {
+                int remaining = hotSkuCount - items.size();
+                if (remaining <= 0) {
+                    break;
+                }
+                items.addAll(shardRouter.onShard(shard, () ->
+                        inventoryRepository.findAll(PageRequest.of(0, remaining, Sort.by("id"))).getContent()));
+            }
+            return items;
+        }
+        for (String sku : configuredSkus) {
+            if (!sku.isBlank()) {
+                shardRouter.forSku(sku.trim(), () -> inventoryRepository.findBySku(sku.trim())).ifPresent(items::add);
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,80 @@
+package com.interview.practice.inventory.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent Hash Ring
+ * Maps SKUs to shards in two steps: a SKU hashes to one of a fixed number of slots, and each
+ * slot belongs to the shard whose virtual node follows it clockwise on the ring.
+ *
+ * The slot of a SKU never changes, so it can be embedded in reservation ids. Shards are placed
+ * on the ring by index, so adding shard N only moves the slots its virtual nodes take over
+ * (about 1/(N+1) of them) and leaves every other slot where it was.
+ */
+public final class ConsistentHashRing {
+
+    public static final int SLOT_COUNT = 4096;
+
+    private final int shardCount;
+    private final int[] slotOwners = new int[SLOT_COUNT];
+
+    public ConsistentHashRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("Shard count and virtual nodes must be at least 1");
+        }
+        this.shardCount = shardCount;
+        TreeMap<Integer, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.putIfAbsent(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            Map.Entry<Integer, Integer> owner = ring.ceilingEntry(mix(slot * 0x9E3779B9));
+            slotOwners[slot] = (owner != null ? owner : ring.firstEntry()).getValue();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Fixed slot of a SKU, independent of the number of shards
+     */
+    public static int slotOf(String sku) {
+        return Math.floorMod(hash(sku), SLOT_COUNT);
+    }
+
+    public int shardOfSlot(int slot) {
+        return slotOwners[slot];
+    }
+
+    public int shardOf(String sku) {
+        return slotOwners[slotOf(sku)];
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with a Murmur3 mix for an even spread
+     */
+    private static int hash(String key) {
+        int hash = 0x811C9DC5;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int value) {
+        int h = value;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,63 @@
+package com.interview.practice.inventory.sharding;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resharding Tool
+ * Offline command line entry point for the ShardRebalancer: given the new list of shard URLs
+ * (existing shards first, in their current order, then any new ones), creates the schema on new
+ * shards and moves every item to the shard owning its SKU on the new ring.
+ *
+ * ./gradlew reshard -PshardUrls=jdbc:h2:file:./build/shard0,jdbc:h2:file:./build/shard1 [-PdryRun]
+ */
+public final class ReshardingTool {
+
+    private ReshardingTool() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                usage("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals),
+                    equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+        String urls = options.get("urls");
+        if (urls == null || urls.isBlank()) {
+            usage("--urls is required");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                shards.add(new DriverManagerDataSource(url.trim(),
+                        options.getOrDefault("username", "sa"), options.getOrDefault("password", "")));
+            }
+        }
+        int virtualNodes = Integer.parseInt(options.getOrDefault("virtual-nodes", "64"));
+        boolean dryRun = Boolean.parseBoolean(options.getOrDefault("dry-run", "false"));
+
+        ShardRebalancer rebalancer = new ShardRebalancer(shards, new ConsistentHashRing(shards.size(), virtualNodes));
+        rebalancer.prepare(new ClassPathResource("schema.sql"));
+        ShardRebalancer.Result result = rebalancer.rebalance(dryRun);
+        System.out.printf("%s: %d items scanned, %d %s %s%n", dryRun ? "Dry run" : "Resharded",
+                result.scanned(), result.moved(), dryRun ? "to move" : "moved", result.moves());
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: ReshardingTool --urls=<url,url,...> [--username=sa] [--password=]"
+                + " [--virtual-nodes=64] [--dry-run]");
+        System.exit(2);
+    }
+}
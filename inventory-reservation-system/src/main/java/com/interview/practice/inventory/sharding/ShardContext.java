@@ -0,0 +1,29 @@
+package com.interview.practice.inventory.sharding;
+
+/**
+ * Shard Context
+ * The shard the current thread's next transaction should run on.
+ * Read by the shard routing DataSource when a connection is fetched; set through ShardRouter.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Current shard, or null when none was chosen (the home shard is used)
+     */
+    public static Integer get() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+}
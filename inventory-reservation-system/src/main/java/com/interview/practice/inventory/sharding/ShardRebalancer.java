@@ -0,0 +1,161 @@
+package com.interview.practice.inventory.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shard Rebalancer
+ * Offline maintenance of SKU-hash shards: prepares every shard (schema, its own id range, the
+ * shared locations) and moves each item, with every row that hangs off it, to the shard that
+ * owns its SKU under the given ring.
+ *
+ * Ids are kept when rows move, and shard k generates ids from k * ID_RANGE, so ids stay unique
+ * across shards. An item is copied to its new shard in one transaction and deleted from the old
+ * one in a second; a run that stops in between is completed by running it again (rows already
+ * present on the target are not copied twice). Run with the application stopped.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    public static final long ID_RANGE = 1_000_000_000_000L;
+
+    // Item-scoped tables in insert (foreign key) order, with the rows belonging to one item
+    private static final Map<String, String> ITEM_ROWS = new LinkedHashMap<>();
+
+    static {
+        ITEM_ROWS.put("inventory_items", "id = ?");
+        ITEM_ROWS.put("stock_leases", "inventory_item_id = ?");
+        ITEM_ROWS.put("inbound_shipments", "inventory_item_id = ?");
+        ITEM_ROWS.put("location_stock", "inventory_item_id = ?");
+        ITEM_ROWS.put("reservations", "inventory_item_id = ?");
+        ITEM_ROWS.put("reservation_lines", "reservation_id IN (SELECT id FROM reservations WHERE inventory_item_id = ?)");
+        ITEM_ROWS.put("outbox_events", "item_id = ?");
+    }
+
+    private final ConsistentHashRing ring;
+    private final List<JdbcTemplate> jdbc = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+    private final List<DataSource> shards;
+
+    public ShardRebalancer(List<DataSource> shards, ConsistentHashRing ring) {
+        if (shards.size() != ring.getShardCount()) {
+            throw new IllegalArgumentException(String.format(
+                    "Ring has %d shards but %d datasources were given", ring.getShardCount(), shards.size()));
+        }
+        this.shards = List.copyOf(shards);
+        this.ring = ring;
+        for (DataSource dataSource : shards) {
+            jdbc.add(new JdbcTemplate(dataSource));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+    }
+
+    /**
+     * Create the schema where it is missing (null to skip), move each shard's id generation into
+     * its own range and copy locations from the home shard
+     */
+    public void prepare(Resource schema) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (schema != null) {
+                new ResourceDatabasePopulator(schema).execute(shards.get(shard));
+            }
+            if (shard == ShardRouter.HOME_SHARD) {
+                continue;
+            }
+            long rangeStart = shard * ID_RANGE;
+            for (String table : ITEM_ROWS.keySet()) {
+                Long maxId = jdbc.get(shard).queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+                if (maxId == null || maxId < rangeStart) {
+                    jdbc.get(shard).execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + rangeStart);
+                }
+            }
+            for (Map<String, Object> location : jdbc.get(ShardRouter.HOME_SHARD).queryForList("SELECT * FROM locations")) {
+                Integer present = jdbc.get(shard).queryForObject(
+                        "SELECT COUNT(*) FROM locations WHERE code = ?", Integer.class, location.get("CODE"));
+                if (present == null || present == 0) {
+                    insert(shard, "locations", location);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move every item that is not on the shard owning its SKU
+     */
+    public Result rebalance(boolean dryRun) {
+        int scanned = 0;
+        Map<String, Integer> moves = new TreeMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (Map<String, Object> item : jdbc.get(shard).queryForList("SELECT id, sku FROM inventory_items ORDER BY id")) {
+                scanned++;
+                long itemId = ((Number) item.get("ID")).longValue();
+                String sku = (String) item.get("SKU");
+                int owner = ring.shardOf(sku);
+                if (owner == shard) {
+                    continue;
+                }
+                if (!dryRun) {
+                    moveItem(itemId, shard, owner);
+                }
+                log.info("{} SKU {} (item {}) from shard {} to shard {}", dryRun ? "Would move" : "Moved",
+                        sku, itemId, shard, owner);
+                moves.merge(shard + "->" + owner, 1, Integer::sum);
+            }
+        }
+        int moved = moves.values().stream().mapToInt(Integer::intValue).sum();
+        log.info("Rebalance {}: {} items scanned, {} on the wrong shard {}", dryRun ? "dry run" : "finished",
+                scanned, moved, moves);
+        return new Result(scanned, moved, moves);
+    }
+
+    private void moveItem(long itemId, int from, int to) {
+        Map<String, List<Map<String, Object>>> rows = new LinkedHashMap<>();
+        for (Map.Entry<String, String> table : ITEM_ROWS.entrySet()) {
+            rows.put(table.getKey(), jdbc.get(from).queryForList(
+                    "SELECT * FROM " + table.getKey() + " WHERE " + table.getValue() + " ORDER BY id", itemId));
+        }
+
+        transactions.get(to).executeWithoutResult(status -> rows.forEach((table, tableRows) -> {
+            for (Map<String, Object> row : tableRows) {
+                Integer present = jdbc.get(to).queryForObject(
+                        "SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, row.get("ID"));
+                if (present == null || present == 0) {
+                    insert(to, table, row);
+                }
+            }
+        }));
+
+        List<String> deleteOrder = new ArrayList<>(ITEM_ROWS.keySet());
+        Collections.reverse(deleteOrder);
+        transactions.get(from).executeWithoutResult(status -> {
+            for (String table : deleteOrder) {
+                jdbc.get(from).update("DELETE FROM " + table + " WHERE " + ITEM_ROWS.get(table), itemId);
+            }
+        });
+    }
+
+    private void insert(int shard, String table, Map<String, Object> row) {
+        String columns = String.join(", ", row.keySet());
+        String placeholders = String.join(", ", Collections.nCopies(row.size(), "?"));
+        jdbc.get(shard).update("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")",
+                row.values().toArray());
+    }
+
+    /**
+     * Items scanned, items moved and moves per "from->to" shard pair
+     */
+    public record Result(int scanned, int moved, Map<String, Integer> moves) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.interview.practice.inventory.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Shard Router
+ * Chooses the database shard for work on a SKU. Items and everything hanging off them
+ * (reservations, leases, location stock, inbound shipments, outbox events) live on the shard of
+ * their SKU; instance-wide tables (cleanup leases, locations) are read from the home shard.
+ *
+ * The shard has to be chosen before a transaction starts, because the connection is taken when
+ * it begins: switching to another shard inside a transaction is rejected. With a single
+ * datasource (inventory.sharding.urls not set) everything runs on shard 0 and routing is a no-op.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int HOME_SHARD = 0;
+
+    // "<3 hex digit slot>-<uuid>"; plain UUIDs (unsharded deployments) never match
+    private static final Pattern SHARDED_RESERVATION_ID = Pattern.compile("^([0-9a-f]{3})-[0-9a-f-]{36}$");
+
+    private final ConsistentHashRing ring;
+
+    public ShardRouter(@Value("${inventory.sharding.urls:}") List<String> urls,
+                       @Value("${inventory.sharding.virtual-nodes:64}") int virtualNodes) {
+        int shardCount = (int) urls.stream().filter(url -> !url.isBlank()).count();
+        this.ring = new ConsistentHashRing(Math.max(1, shardCount), virtualNodes);
+    }
+
+    public int getShardCount() {
+        return ring.getShardCount();
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    public boolean isSharded() {
+        return ring.getShardCount() > 1;
+    }
+
+    public List<Integer> shards() {
+        return IntStream.range(0, ring.getShardCount()).boxed().toList();
+    }
+
+    public int shardOf(String sku) {
+        return ring.shardOf(sku);
+    }
+
+    /**
+     * SKUs grouped by shard, shards and SKUs in order
+     */
+    public Map<Integer, List<String>> groupBySku(Collection<String> skus) {
+        Map<Integer, List<String>> groups = new TreeMap<>();
+        skus.stream().sorted().forEach(sku ->
+                groups.computeIfAbsent(shardOf(sku), shard -> new ArrayList<>()).add(sku));
+        return groups;
+    }
+
+    /**
+     * New reservation id for a SKU; when sharded it starts with the SKU's slot, so lookups go
+     * straight to the right shard (also after resharding, since slots never move between SKUs)
+     */
+    public String newReservationId(String sku) {
+        String uuid = UUID.randomUUID().toString();
+        return isSharded()
+                ? String.format("%03x-%s", ConsistentHashRing.slotOf(sku), uuid)
+                : uuid;
+    }
+
+    /**
+     * Shard encoded in a reservation id, empty for ids without a slot prefix
+     */
+    public OptionalInt shardOfReservationId(String reservationId) {
+        if (!isSharded()) {
+            return OptionalInt.of(HOME_SHARD);
+        }
+        Matcher matcher = SHARDED_RESERVATION_ID.matcher(reservationId);
+        return matcher.matches()
+                ? OptionalInt.of(ring.shardOfSlot(Integer.parseInt(matcher.group(1), 16)))
+                : OptionalInt.empty();
+    }
+
+    /**
+     * First shard on which the probe finds a row (for lookups by id alone).
+     * Falls back to the home shard, so a missing row is reported there as not found.
+     */
+    public int locate(BooleanSupplier presentOnCurrentShard) {
+        if (!isSharded()) {
+            return HOME_SHARD;
+        }
+        for (int shard : shards()) {
+            if (onShard(shard, presentOnCurrentShard::getAsBoolean)) {
+                return shard;
+            }
+        }
+        return HOME_SHARD;
+    }
+
+    public <T> T forSku(String sku, Supplier<T> action) {
+        return onShard(shardOf(sku), action);
+    }
+
+    public void runForSku(String sku, Runnable action) {
+        runOnShard(shardOf(sku), action);
+    }
+
+    /**
+     * Run an action with the given shard as the current one, restoring the previous shard afterwards
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = ShardContext.get();
+        int current = previous != null ? previous : HOME_SHARD;
+        if (current != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(String.format(
+                    "Cannot switch to shard %d inside a transaction on shard %d", shard, current));
+        }
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void runOnShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -7,3 +7,9 @@ VALUES
     ('MONITOR-001', '4K Monitor', 200, 200, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
     ('KEYBOARD-001', 'Mechanical Keyboard', 150, 150, 0, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
+-- Warehouses for location-scoped stock
+INSERT INTO locations (code, name, latitude, longitude)
+VALUES
+    ('WH-EAST', 'East Coast Warehouse', 40.7128, -74.0060),
+    ('WH-CENTRAL', 'Central Warehouse', 41.8781, -87.6298),
+    ('WH-WEST', 'West Coast Warehouse', 34.0522, -118.2437);
@@ -6,11 +6,45 @@ CREATE TABLE IF NOT EXISTS inventory_items (
     total_quantity INT NOT NULL,
     available_quantity INT NOT NULL,
     reserved_quantity INT NOT NULL DEFAULT 0,
+    leased_quantity INT NOT NULL DEFAULT 0,
+    inbound_quantity INT NOT NULL DEFAULT 0,
+    active_checksum BIGINT NOT NULL DEFAULT 0,
     version BIGINT NOT NULL DEFAULT 0,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL
 );
 
+-- Stock Leases Table
+-- Blocks of units an instance has taken from an item's available quantity
+-- and serves reservations from locally, without locking the item row
+CREATE TABLE IF NOT EXISTS stock_leases (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL,
+    sku VARCHAR(50) NOT NULL,
+    owner_id VARCHAR(100) NOT NULL,
+    granted_units INT NOT NULL,
+    lease_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    UNIQUE (inventory_item_id, owner_id),
+    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id)
+);
+
+-- Inbound Shipments Table
+-- Stock expected to arrive for an item on a given day; counted towards
+-- available-to-promise from that day until it is received or cancelled
+CREATE TABLE IF NOT EXISTS inbound_shipments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL,
+    sku VARCHAR(50) NOT NULL,
+    reference VARCHAR(100),
+    quantity INT NOT NULL,
+    expected_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id)
+);
+
 -- Reservations Table
 CREATE TABLE IF NOT EXISTS reservations (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -20,13 +54,99 @@ CREATE TABLE IF NOT EXISTS reservations (
     status VARCHAR(20) NOT NULL,
     expires_at TIMESTAMP NOT NULL,
     order_id VARCHAR(100),
+    lease_id BIGINT,
+    location_split BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL,
     updated_at TIMESTAMP NOT NULL,
-    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id)
+    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id),
+    FOREIGN KEY (lease_id) REFERENCES stock_leases(id)
 );
 
--- Indexes for performance
-CREATE INDEX idx_reservations_status ON reservations(status);
-CREATE INDEX idx_reservations_expires_at ON reservations(expires_at);
-CREATE INDEX idx_inventory_sku ON inventory_items(sku);
+-- Locations Tables
+-- Warehouses with their own stock rows per SKU. Units moved into location_stock leave the
+-- item's counters, so reservations split across locations lock only the location rows they use
+CREATE TABLE IF NOT EXISTS locations (
+    code VARCHAR(50) PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    latitude DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS location_stock (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    inventory_item_id BIGINT NOT NULL,
+    sku VARCHAR(50) NOT NULL,
+    location_code VARCHAR(50) NOT NULL,
+    total_quantity INT NOT NULL,
+    available_quantity INT NOT NULL,
+    reserved_quantity INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    UNIQUE (sku, location_code),
+    FOREIGN KEY (inventory_item_id) REFERENCES inventory_items(id),
+    FOREIGN KEY (location_code) REFERENCES locations(code)
+);
+
+-- Reservation Lines Table
+-- Units a location-split reservation holds at each location
+CREATE TABLE IF NOT EXISTS reservation_lines (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    reservation_id BIGINT NOT NULL,
+    location_stock_id BIGINT NOT NULL,
+    location_code VARCHAR(50) NOT NULL,
+    quantity INT NOT NULL,
+    FOREIGN KEY (reservation_id) REFERENCES reservations(id),
+    FOREIGN KEY (location_stock_id) REFERENCES location_stock(id)
+);
+
+-- Cleanup Coordination Tables
+-- Instances heartbeat into cleanup_members and lease partitions of the SKU space
+-- from cleanup_leases, so expiry work is split across replicas instead of duplicated
+CREATE TABLE IF NOT EXISTS cleanup_members (
+    instance_id VARCHAR(100) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS cleanup_leases (
+    partition_no INT PRIMARY KEY,
+    owner_id VARCHAR(100),
+    lease_until TIMESTAMP NOT NULL
+);
 
+-- Replica Heartbeat Table
+-- Written on the primary and read back from the replica to measure replication lag
+CREATE TABLE IF NOT EXISTS replica_heartbeats (
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
+-- Transactional Outbox
+-- Inventory change events appended in the same transaction as the change,
+-- relayed to downstream systems in batches and pruned once delivered
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    item_id BIGINT NOT NULL,
+    sku VARCHAR(100) NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    reservation_id VARCHAR(100),
+    location_code VARCHAR(50),
+    quantity INT NOT NULL,
+    total_quantity INT,
+    available_quantity INT,
+    reserved_quantity INT,
+    unordered BOOLEAN DEFAULT FALSE NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+-- Indexes for performance
+CREATE INDEX IF NOT EXISTS idx_reservations_status ON reservations(status);
+CREATE INDEX IF NOT EXISTS idx_reservations_expires_at ON reservations(expires_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_sku ON inventory_items(sku);
+CREATE INDEX IF NOT EXISTS idx_reservations_item_status ON reservations(inventory_item_id, status);
+CREATE INDEX IF NOT EXISTS idx_outbox_published_id ON outbox_events(published_at, id);
+CREATE INDEX IF NOT EXISTS idx_reservations_lease ON reservations(lease_id);
+CREATE INDEX IF NOT EXISTS idx_stock_leases_until ON stock_leases(lease_until);
+CREATE INDEX IF NOT EXISTS idx_reservation_lines_reservation ON reservation_lines(reservation_id);
+CREATE INDEX IF NOT EXISTS idx_inbound_sku_status ON inbound_shipments(sku, status, expected_date);
@@ -0,0 +1,18 @@
+package com.interview.practice.inventory.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Reactive deployment of the inventory API (WebFlux + R2DBC)
+ * Built from the reactive source set (./gradlew bootRunReactive); shares DTOs, schema and seed data with main
+ */
+@SpringBootApplication
+public class ReactiveInventoryApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveInventoryApplication.class)
+                .profiles("reactive")
+                .run(args);
+    }
+}
@@ -0,0 +1,87 @@
+package com.interview.practice.inventory.reactive;
+
+import com.interview.practice.inventory.dto.InventoryResponse;
+import com.interview.practice.inventory.dto.ReservationRequest;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive REST controller for inventory management
+ * Same /api/inventory contract as the servlet controller for status, get, reserve, release and confirm
+ */
+@RestController
+@RequestMapping("/api/inventory")
+@Slf4j
+public class ReactiveInventoryController {
+
+    @Autowired
+    private ReactiveInventoryService inventoryService;
+
+    /**
+     * Health check / status endpoint
+     */
+    @GetMapping("/status")
+    public Mono<ResponseEntity<Map<String, String>>> status() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "UP");
+        response.put("service", "Inventory Reservation System");
+        response.put("message", "Reactive deployment (WebFlux + R2DBC)");
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    /**
+     * Get inventory details for a SKU
+     */
+    @GetMapping("/{sku}")
+    public Mono<ResponseEntity<InventoryResponse>> getInventory(@PathVariable String sku,
+                                                                ServerWebExchange exchange) {
+        log.debug("Fetching inventory for SKU: {}", sku);
+        return inventoryService.getInventory(sku)
+                .map(response -> {
+                    String etag = "\"" + sku + "-" + response.getVersion() + "\"";
+                    return exchange.checkNotModified(etag)
+                            ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<InventoryResponse>build()
+                            : ResponseEntity.ok().eTag(etag).body(response);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reserve inventory
+     */
+    @PostMapping("/reserve")
+    public Mono<ResponseEntity<ReservationResponse>> reserveInventory(
+            @Validated @RequestBody ReservationRequest request) {
+        log.debug("Reserve inventory request: SKU={}, quantity={}", request.getSku(), request.getQuantity());
+        return inventoryService.reserveInventory(request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Release a reservation
+     */
+    @PostMapping("/release/{reservationId}")
+    public Mono<ResponseEntity<ReservationResponse>> releaseReservation(@PathVariable String reservationId) {
+        log.debug("Release reservation request: {}", reservationId);
+        return inventoryService.releaseReservation(reservationId).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Confirm a reservation (convert to order)
+     */
+    @PostMapping("/confirm/{reservationId}")
+    public Mono<ResponseEntity<ReservationResponse>> confirmReservation(@PathVariable String reservationId,
+                                                                        @RequestParam String orderId) {
+        log.debug("Confirm reservation request: {} for order: {}", reservationId, orderId);
+        return inventoryService.confirmReservation(reservationId, orderId).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,209 @@
+package com.interview.practice.inventory.reactive;
+
+import com.interview.practice.inventory.dto.InventoryResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Non-blocking data access for the reactive deployment
+ * Plain SQL over DatabaseClient against the same tables the JPA entities map. Every counter
+ * change also bumps version and updated_at, exactly as a JPA save would, so both deployments
+ * can share a database.
+ */
+@Repository
+public class ReactiveInventoryRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<InventoryResponse> findInventoryBySku(String sku) {
+        return databaseClient.sql("SELECT sku, product_name, available_quantity, total_quantity, "
+                        + "reserved_quantity, leased_quantity, version FROM inventory_items WHERE sku = :sku")
+                .bind("sku", sku)
+                .map((row, metadata) -> InventoryResponse.builder()
+                        .sku(row.get("sku", String.class))
+                        .productName(row.get("product_name", String.class))
+                        .availableQuantity(row.get("available_quantity", Integer.class))
+                        .totalQuantity(row.get("total_quantity", Integer.class))
+                        .reservedQuantity(row.get("reserved_quantity", Integer.class))
+                        .leasedQuantity(row.get("leased_quantity", Integer.class))
+                        .version(row.get("version", Long.class))
+                        .build())
+                .one();
+    }
+
+    public Mono<Item> findItemBySku(String sku) {
+        return databaseClient.sql("SELECT id, sku, product_name, available_quantity FROM inventory_items WHERE sku = :sku")
+                .bind("sku", sku)
+                .map((row, metadata) -> new Item(
+                        row.get("id", Long.class),
+                        row.get("sku", String.class),
+                        row.get("product_name", String.class),
+                        row.get("available_quantity", Integer.class)))
+                .one();
+    }
+
+    /**
+     * Row lock on an item for the rest of the transaction (same lock the servlet deployment takes)
+     */
+    public Mono<Void> lockItem(Long itemId) {
+        return databaseClient.sql("SELECT id FROM inventory_items WHERE id = :id FOR UPDATE")
+                .bind("id", itemId)
+                .fetch()
+                .all()
+                .then();
+    }
+
+    /**
+     * Take units for a new reservation only if enough are available, in one statement
+     * Returns the number of rows updated (0 if the SKU is unknown or short of stock)
+     */
+    public Mono<Long> reserveUnits(String sku, int quantity, long checksumDelta, LocalDateTime now) {
+        return databaseClient.sql("UPDATE inventory_items SET available_quantity = available_quantity - :quantity, "
+                        + "reserved_quantity = reserved_quantity + :quantity, "
+                        + "active_checksum = active_checksum + :checksum, "
+                        + "version = version + 1, updated_at = :now "
+                        + "WHERE sku = :sku AND available_quantity >= :quantity")
+                .bind("quantity", quantity)
+                .bind("checksum", checksumDelta)
+                .bind("now", now)
+                .bind("sku", sku)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Apply counter deltas to an item (callers hold its row lock)
+     */
+    public Mono<Long> applyCounters(Long itemId, int totalDelta, int availableDelta, int reservedDelta,
+                                    int leasedDelta, long checksumDelta, LocalDateTime now) {
+        return databaseClient.sql("UPDATE inventory_items SET total_quantity = total_quantity + :total, "
+                        + "available_quantity = available_quantity + :available, "
+                        + "reserved_quantity = reserved_quantity + :reserved, "
+                        + "leased_quantity = leased_quantity + :leased, "
+                        + "active_checksum = active_checksum + :checksum, "
+                        + "version = version + 1, updated_at = :now WHERE id = :id")
+                .bind("total", totalDelta)
+                .bind("available", availableDelta)
+                .bind("reserved", reservedDelta)
+                .bind("leased", leasedDelta)
+                .bind("checksum", checksumDelta)
+                .bind("now", now)
+                .bind("id", itemId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> insertReservation(String reservationId, Long itemId, int quantity,
+                                        LocalDateTime expiresAt, LocalDateTime now) {
+        return databaseClient.sql("INSERT INTO reservations (reservation_id, inventory_item_id, quantity, status, "
+                        + "expires_at, created_at, updated_at) "
+                        + "VALUES (:reservationId, :itemId, :quantity, 'ACTIVE', :expiresAt, :now, :now)")
+                .bind("reservationId", reservationId)
+                .bind("itemId", itemId)
+                .bind("quantity", quantity)
+                .bind("expiresAt", expiresAt)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Load a reservation by its public id together with its item SKU and product name
+     * Location-split reservations hold location stock, which this deployment does not manage
+     */
+    public Mono<ReservationRow> findReservation(String reservationId) {
+        return databaseClient.sql("SELECT r.id, r.reservation_id, r.inventory_item_id, r.quantity, r.status, "
+                        + "r.expires_at, r.created_at, i.sku, i.product_name "
+                        + "FROM reservations r JOIN inventory_items i ON i.id = r.inventory_item_id "
+                        + "WHERE r.reservation_id = :reservationId AND r.location_split = FALSE")
+                .bind("reservationId", reservationId)
+                .map((row, metadata) -> new ReservationRow(
+                        row.get("id", Long.class),
+                        row.get("reservation_id", String.class),
+                        row.get("inventory_item_id", Long.class),
+                        row.get("quantity", Integer.class),
+                        row.get("status", String.class),
+                        row.get("expires_at", LocalDateTime.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("sku", String.class),
+                        row.get("product_name", String.class)))
+                .one();
+    }
+
+    public Mono<String> findStatusById(Long id) {
+        return databaseClient.sql("SELECT status FROM reservations WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("status", String.class))
+                .one();
+    }
+
+    public Mono<Optional<Long>> findLeaseIdById(Long id) {
+        return databaseClient.sql("SELECT lease_id FROM reservations WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> Optional.ofNullable(row.get("lease_id", Long.class)))
+                .one();
+    }
+
+    /**
+     * Move a reservation to a new status only if it is still in the expected status
+     * Returns the number of rows updated (0 if it was changed concurrently)
+     */
+    public Mono<Long> transition(Long id, String from, String to, LocalDateTime now) {
+        return databaseClient.sql("UPDATE reservations SET status = :to, updated_at = :now "
+                        + "WHERE id = :id AND status = :from")
+                .bind("to", to)
+                .bind("now", now)
+                .bind("id", id)
+                .bind("from", from)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Confirm a reservation only if it is still in the expected status, linking it to the order
+     */
+    public Mono<Long> confirm(Long id, String from, String to, String orderId, LocalDateTime now) {
+        return databaseClient.sql("UPDATE reservations SET status = :to, order_id = :orderId, updated_at = :now "
+                        + "WHERE id = :id AND status = :from")
+                .bind("to", to)
+                .bind("orderId", orderId)
+                .bind("now", now)
+                .bind("id", id)
+                .bind("from", from)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Append an outbox event carrying the item's counters as of this transaction
+     */
+    public Mono<Long> appendEvent(Long itemId, String eventType, String reservationId, int quantity,
+                                  LocalDateTime now) {
+        return databaseClient.sql("INSERT INTO outbox_events (item_id, sku, event_type, reservation_id, quantity, "
+                        + "total_quantity, available_quantity, reserved_quantity, created_at) "
+                        + "SELECT id, sku, :eventType, :reservationId, :quantity, "
+                        + "total_quantity, available_quantity, reserved_quantity, :now "
+                        + "FROM inventory_items WHERE id = :itemId")
+                .bind("eventType", eventType)
+                .bind("reservationId", reservationId)
+                .bind("quantity", quantity)
+                .bind("now", now)
+                .bind("itemId", itemId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public record Item(Long id, String sku, String productName, int availableQuantity) {
+    }
+
+    public record ReservationRow(Long id, String reservationId, Long itemId, int quantity, String status,
+                                 LocalDateTime expiresAt, LocalDateTime createdAt, String sku,
+                                 String productName) {
+    }
+}
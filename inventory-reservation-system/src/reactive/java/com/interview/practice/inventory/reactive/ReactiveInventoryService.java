@@ -0,0 +1,185 @@
+package com.interview.practice.inventory.reactive;
+
+import com.interview.practice.inventory.dto.InventoryResponse;
+import com.interview.practice.inventory.dto.ReservationRequest;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.exception.InsufficientInventoryException;
+import com.interview.practice.inventory.exception.InventoryNotFoundException;
+import com.interview.practice.inventory.exception.ReservationNotFoundException;
+import com.interview.practice.inventory.service.ReservationChecksum;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reactive Inventory Service
+ * Reserve, release, confirm and get for the WebFlux deployment, with no blocking calls.
+ *
+ * Reserve takes its units with one guarded UPDATE (available >= quantity) instead of locking
+ * the item first, so a request waits on the row only for the length of that statement. Release
+ * and confirm lock the item row like the servlet deployment does (stock lease settlement relies
+ * on it), then move the reservation with a guarded status UPDATE. Each operation runs in one
+ * READ_COMMITTED transaction together with its outbox event. The sold-out index, analytics and
+ * stock quota leasing of the servlet deployment are in-process and not part of this variant.
+ */
+@Service
+@Slf4j
+public class ReactiveInventoryService {
+
+    private static final int DEFAULT_RESERVATION_TIMEOUT_MINUTES = 15;
+    private static final String ACTIVE = "ACTIVE";
+    private static final String RESERVED = "RESERVED";
+    private static final String RELEASED = "RELEASED";
+    private static final String CONFIRMED = "CONFIRMED";
+
+    @Autowired
+    private ReactiveInventoryRepository repository;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    private TransactionalOperator readCommittedTransaction;
+
+    @PostConstruct
+    void initTransactionalOperator() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        readCommittedTransaction = TransactionalOperator.create(transactionManager, definition);
+    }
+
+    public Mono<InventoryResponse> getInventory(String sku) {
+        return repository.findInventoryBySku(sku);
+    }
+
+    public Mono<ReservationResponse> reserveInventory(ReservationRequest reservationRequest) {
+        String sku = reservationRequest.getSku();
+        int quantity = reservationRequest.getQuantity();
+        int timeoutMinutes = reservationRequest.getTimeoutMinutes() != null
+                ? reservationRequest.getTimeoutMinutes()
+                : DEFAULT_RESERVATION_TIMEOUT_MINUTES;
+        String reservationId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(timeoutMinutes);
+
+        return repository.reserveUnits(sku, quantity, ReservationChecksum.fingerprint(reservationId, quantity), now)
+                .flatMap(updated -> updated == 1
+                        ? repository.findItemBySku(sku)
+                        : this.<ReactiveInventoryRepository.Item>rejectReservation(sku, quantity))
+                .flatMap(item -> repository.insertReservation(reservationId, item.id(), quantity, expiresAt, now)
+                        .then(repository.appendEvent(item.id(), RESERVED, reservationId, quantity, now))
+                        .thenReturn(ReservationResponse.builder()
+                                .reservationId(reservationId)
+                                .sku(sku)
+                                .productName(item.productName())
+                                .quantity(quantity)
+                                .status(ACTIVE)
+                                .expiresAt(expiresAt)
+                                .createdAt(now)
+                                .build()))
+                .as(readCommittedTransaction::transactional)
+                .doOnSuccess(response -> log.info("Successfully created reservation: {} for SKU: {}",
+                        reservationId, sku));
+    }
+
+    public Mono<ReservationResponse> releaseReservation(String reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+        return findReservation(reservationId)
+                .flatMap(reservation -> repository.lockItem(reservation.itemId())
+                        .then(repository.transition(reservation.id(), ACTIVE, RELEASED, now))
+                        .flatMap(updated -> updated == 1
+                                ? repository.findLeaseIdById(reservation.id())
+                                : this.<Optional<Long>>rejectTransition(reservation, "release", "released"))
+                        .flatMap(leaseId -> {
+                            // Lease-served units are still counted as leased, not reserved
+                            int quantity = reservation.quantity();
+                            boolean leased = leaseId.isPresent();
+                            return repository.applyCounters(reservation.itemId(), 0, quantity,
+                                    leased ? 0 : -quantity, leased ? -quantity : 0,
+                                    leased ? 0 : -ReservationChecksum.fingerprint(reservationId, quantity), now);
+                        })
+                        .then(repository.appendEvent(reservation.itemId(), RELEASED, reservationId,
+                                reservation.quantity(), now))
+                        .thenReturn(toResponse(reservation, RELEASED)))
+                .as(readCommittedTransaction::transactional)
+                .doOnSuccess(response -> log.info("Successfully released reservation: {}", reservationId));
+    }
+
+    public Mono<ReservationResponse> confirmReservation(String reservationId, String orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        return findReservation(reservationId)
+                .flatMap(reservation -> repository.lockItem(reservation.itemId())
+                        .then(repository.confirm(reservation.id(), ACTIVE, CONFIRMED, orderId, now))
+                        .flatMap(updated -> updated == 1
+                                ? repository.findLeaseIdById(reservation.id())
+                                : this.<Optional<Long>>rejectTransition(reservation, "confirm", "confirmed"))
+                        .flatMap(leaseId -> {
+                            // Consume the units: total and reserved (or leased) go down, available stays
+                            int quantity = reservation.quantity();
+                            boolean leased = leaseId.isPresent();
+                            return repository.applyCounters(reservation.itemId(), -quantity, 0,
+                                    leased ? 0 : -quantity, leased ? -quantity : 0,
+                                    leased ? 0 : -ReservationChecksum.fingerprint(reservationId, quantity), now);
+                        })
+                        .then(repository.appendEvent(reservation.itemId(), CONFIRMED, reservationId,
+                                reservation.quantity(), now))
+                        .thenReturn(toResponse(reservation, CONFIRMED)))
+                .as(readCommittedTransaction::transactional)
+                .doOnSuccess(response -> log.info("Successfully confirmed reservation: {} for order: {}",
+                        reservationId, orderId));
+    }
+
+    private Mono<ReactiveInventoryRepository.ReservationRow> findReservation(String reservationId) {
+        return repository.findReservation(reservationId)
+                .switchIfEmpty(Mono.error(() -> new ReservationNotFoundException(
+                        "Reservation not found: " + reservationId)));
+    }
+
+    /**
+     * The guarded UPDATE matched nothing: tell an unknown SKU apart from a short one
+     */
+    private <T> Mono<T> rejectReservation(String sku, int quantity) {
+        return repository.findItemBySku(sku)
+                .switchIfEmpty(Mono.error(() -> new InventoryNotFoundException("Inventory not found for SKU: " + sku)))
+                .flatMap(item -> {
+                    log.warn("Insufficient inventory for SKU: {}. Available: {}, Requested: {}",
+                            sku, item.availableQuantity(), quantity);
+                    return Mono.error(new InsufficientInventoryException(String.format(
+                            "Insufficient inventory. Available: %d, Requested: %d",
+                            item.availableQuantity(), quantity)));
+                });
+    }
+
+    private <T> Mono<T> rejectTransition(ReactiveInventoryRepository.ReservationRow reservation,
+                                         String action, String outcome) {
+        return repository.findStatusById(reservation.id())
+                .flatMap(status -> {
+                    log.warn("Cannot {} reservation {} with status: {}", action, reservation.reservationId(), status);
+                    return Mono.error(new IllegalStateException(String.format(
+                            "Cannot %s reservation with status: %s. Only ACTIVE reservations can be %s.",
+                            action, status, outcome)));
+                });
+    }
+
+    private static ReservationResponse toResponse(ReactiveInventoryRepository.ReservationRow reservation,
+                                                  String status) {
+        return ReservationResponse.builder()
+                .reservationId(reservation.reservationId())
+                .sku(reservation.sku())
+                .productName(reservation.productName())
+                .quantity(reservation.quantity())
+                .status(status)
+                .expiresAt(reservation.expiresAt())
+                .createdAt(reservation.createdAt())
+                .build();
+    }
+}
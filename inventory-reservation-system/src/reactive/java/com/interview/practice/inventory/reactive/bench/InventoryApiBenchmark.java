@@ -0,0 +1,147 @@
+package com.interview.practice.inventory.reactive.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.practice.inventory.metrics.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inventory API Benchmark
+ * Closed-loop load against a running deployment: each of N concurrent clients repeatedly reserves
+ * one unit of the SKU and releases it again, over its own connection, for a fixed duration.
+ * Requests are sent asynchronously, so N can be far above the number of client threads.
+ *
+ * Usage: InventoryApiBenchmark baseUrl connections durationSeconds sku
+ * Prints key=value lines: throughput, latency percentiles (ms) and error counts.
+ */
+public final class InventoryApiBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final int connections;
+    private final long deadlineNanos;
+    private final String sku;
+    private final HttpClient client;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private InventoryApiBenchmark(String baseUrl, int connections, int durationSeconds, String sku,
+                                  ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.connections = connections;
+        this.deadlineNanos = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        this.sku = sku;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: InventoryApiBenchmark <baseUrl> <connections> <durationSeconds> <sku>");
+            System.exit(2);
+        }
+        int connections = Integer.parseInt(args[1]);
+        int durationSeconds = Integer.parseInt(args[2]);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            new InventoryApiBenchmark(args[0], connections, durationSeconds, args[3], executor)
+                    .run(durationSeconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run(int durationSeconds) {
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            clients.add(loop(histogram));
+        }
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+
+        // Each client records into its own histogram; merge once everything has finished
+        LatencyHistogram latency = new LatencyHistogram();
+        histograms.forEach(latency::merge);
+        System.out.printf(Locale.ROOT,
+                "connections=%d%nrequests=%d%nerrors=%d%nthroughput_rps=%.1f%n"
+                        + "latency_mean_ms=%.2f%nlatency_p50_ms=%.2f%nlatency_p99_ms=%.2f%nlatency_max_ms=%.2f%n",
+                connections, completed.get(), errors.get(), (double) completed.get() / durationSeconds,
+                latency.getMean() / 1000.0, latency.valueAtPercentile(50) / 1000.0,
+                latency.valueAtPercentile(99) / 1000.0, latency.getMax() / 1000.0);
+    }
+
+    /**
+     * One client: reserve, then release what was reserved, until the deadline
+     * Each round is started from the previous one's callback rather than composed onto it,
+     * so a long run does not build an ever-growing chain of futures.
+     */
+    private CompletableFuture<Void> loop(LatencyHistogram histogram) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        nextRound(histogram, done);
+        return done;
+    }
+
+    private void nextRound(LatencyHistogram histogram, CompletableFuture<Void> done) {
+        if (System.nanoTime() >= deadlineNanos) {
+            done.complete(null);
+            return;
+        }
+        String body = "{\"sku\":\"" + sku + "\",\"quantity\":1}";
+        send(histogram, HttpRequest.newBuilder(URI.create(baseUrl + "/reserve"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)))
+                .thenCompose(reserved -> {
+                    String reservationId = reservationId(reserved);
+                    if (reservationId == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return send(histogram, HttpRequest.newBuilder(URI.create(baseUrl + "/release/" + reservationId))
+                            .POST(HttpRequest.BodyPublishers.noBody()));
+                })
+                .whenComplete((ignored, failure) -> nextRound(histogram, done));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(LatencyHistogram histogram, HttpRequest.Builder request) {
+        long started = System.nanoTime();
+        return client.sendAsync(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    histogram.record((System.nanoTime() - started) / 1000);
+                    completed.incrementAndGet();
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                        return null;
+                    }
+                    return response;
+                });
+    }
+
+    private static String reservationId(HttpResponse<String> response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            JsonNode reservationId = OBJECT_MAPPER.readTree(response.body()).get("reservationId");
+            return reservationId != null ? reservationId.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.interview.practice.inventory.reactive;
+
+import com.interview.practice.inventory.dto.ReservationRequest;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the reactive deployment
+ * Drives the WebFlux API over an in-memory H2 database and checks the item counters it leaves behind
+ */
+@SpringBootTest(classes = ReactiveInventoryApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("reactive")
+class ReactiveInventoryControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void testReserve_TakesUnitsFromAvailable() {
+        Counters before = counters("LAPTOP-001");
+
+        ReservationResponse reservation = reserve("LAPTOP-001", 5);
+
+        assertEquals("ACTIVE", reservation.getStatus());
+        assertEquals("LAPTOP-001", reservation.getSku());
+        Counters after = counters("LAPTOP-001");
+        assertEquals(before.available() - 5, after.available());
+        assertEquals(before.reserved() + 5, after.reserved());
+        assertEquals(before.total(), after.total());
+        assertEquals(before.version() + 1, after.version());
+    }
+
+    @Test
+    void testReserve_ShortfallRejectedWithoutChanges() {
+        Counters before = counters("TABLET-001");
+
+        webTestClient.post().uri("/api/inventory/reserve")
+                .bodyValue(ReservationRequest.builder().sku("TABLET-001").quantity(before.available() + 1).build())
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        assertEquals(before, counters("TABLET-001"));
+    }
+
+    @Test
+    void testRelease_ReturnsUnitsAndRejectsSecondRelease() {
+        ReservationResponse reservation = reserve("PHONE-001", 7);
+        Counters reserved = counters("PHONE-001");
+
+        webTestClient.post().uri("/api/inventory/release/{id}", reservation.getReservationId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("RELEASED");
+        Counters released = counters("PHONE-001");
+        assertEquals(reserved.available() + 7, released.available());
+        assertEquals(reserved.reserved() - 7, released.reserved());
+        assertEquals(reserved.total(), released.total());
+
+        // The guarded status UPDATE matches nothing the second time, so counters stay put
+        webTestClient.post().uri("/api/inventory/release/{id}", reservation.getReservationId())
+                .exchange()
+                .expectStatus().is5xxServerError();
+        assertEquals(released, counters("PHONE-001"));
+    }
+
+    @Test
+    void testConfirm_ConsumesReservedUnits() {
+        ReservationResponse reservation = reserve("MONITOR-001", 4);
+        Counters reserved = counters("MONITOR-001");
+
+        webTestClient.post().uri(uri -> uri.path("/api/inventory/confirm/{id}")
+                        .queryParam("orderId", "ORDER-REACTIVE")
+                        .build(reservation.getReservationId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("CONFIRMED");
+
+        Counters confirmed = counters("MONITOR-001");
+        assertEquals(reserved.total() - 4, confirmed.total());
+        assertEquals(reserved.available(), confirmed.available());
+        assertEquals(reserved.reserved() - 4, confirmed.reserved());
+    }
+
+    @Test
+    void testRelease_LeaseServedReservationMovesLeasedUnits() {
+        // Given - 10 units leased to an instance, 3 of them handed out as a lease-served reservation
+        Long itemId = databaseClient.sql("SELECT id FROM inventory_items WHERE sku = 'KEYBOARD-001'")
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+        LocalDateTime now = LocalDateTime.now();
+        databaseClient.sql("UPDATE inventory_items SET available_quantity = available_quantity - 10, "
+                        + "leased_quantity = leased_quantity + 10 WHERE id = :id")
+                .bind("id", itemId)
+                .fetch().rowsUpdated().block();
+        databaseClient.sql("INSERT INTO stock_leases (inventory_item_id, sku, owner_id, granted_units, lease_until, "
+                        + "created_at) VALUES (:id, 'KEYBOARD-001', 'reactive-test', 10, :until, :now)")
+                .bind("id", itemId)
+                .bind("until", now.plusMinutes(5))
+                .bind("now", now)
+                .fetch().rowsUpdated().block();
+        Long leaseId = databaseClient.sql("SELECT id FROM stock_leases WHERE owner_id = 'reactive-test'")
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one()
+                .block();
+        databaseClient.sql("INSERT INTO reservations (reservation_id, inventory_item_id, quantity, status, "
+                        + "expires_at, lease_id, created_at, updated_at) "
+                        + "VALUES ('reactive-leased', :id, 3, 'ACTIVE', :expires, :leaseId, :now, :now)")
+                .bind("id", itemId)
+                .bind("expires", now.plusMinutes(15))
+                .bind("leaseId", leaseId)
+                .bind("now", now)
+                .fetch().rowsUpdated().block();
+        Counters before = counters("KEYBOARD-001");
+
+        // When
+        webTestClient.post().uri("/api/inventory/release/reactive-leased")
+                .exchange()
+                .expectStatus().isOk();
+
+        // Then - the units leave leased, not reserved
+        Counters after = counters("KEYBOARD-001");
+        assertEquals(before.leased() - 3, after.leased());
+        assertEquals(before.reserved(), after.reserved());
+        assertEquals(before.available() + 3, after.available());
+    }
+
+    private ReservationResponse reserve(String sku, int quantity) {
+        ReservationResponse response = webTestClient.post().uri("/api/inventory/reserve")
+                .bodyValue(ReservationRequest.builder().sku(sku).quantity(quantity).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReservationResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        return response;
+    }
+
+    private Counters counters(String sku) {
+        return databaseClient.sql("SELECT total_quantity, available_quantity, reserved_quantity, leased_quantity, "
+                        + "version FROM inventory_items WHERE sku = :sku")
+                .bind("sku", sku)
+                .map((row, metadata) -> new Counters(
+                        row.get("total_quantity", Integer.class),
+                        row.get("available_quantity", Integer.class),
+                        row.get("reserved_quantity", Integer.class),
+                        row.get("leased_quantity", Integer.class),
+                        row.get("version", Long.class)))
+                .one()
+                .block();
+    }
+
+    private record Counters(int total, int available, int reserved, int leased, long version) {
+    }
+}
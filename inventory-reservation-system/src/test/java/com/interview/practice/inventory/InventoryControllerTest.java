@@ -1,12 +1,27 @@
 package com.interview.practice.inventory;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -19,6 +34,9 @@ class InventoryControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     void testStatusEndpoint() throws Exception {
         mockMvc.perform(get("/api/inventory/status"))
@@ -27,6 +45,13 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.service").value("Inventory Reservation System"));
     }
 
+    @Test
+    void testReadinessProbe() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
     @Test
     void testGetInventoryEndpoint() throws Exception {
         mockMvc.perform(get("/api/inventory/LAPTOP-001"))
@@ -40,5 +65,167 @@ class InventoryControllerTest {
         mockMvc.perform(get("/api/inventory/INVALID-SKU"))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void testGetInventoryConditional() throws Exception {
+        String etag = mockMvc.perform(get("/api/inventory/LAPTOP-001"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/inventory/LAPTOP-001").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetInventoriesConditional() throws Exception {
+        String etag = mockMvc.perform(get("/api/inventory").param("skus", "PHONE-001", "LAPTOP-001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].sku").value("LAPTOP-001"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/inventory").param("skus", "LAPTOP-001", "PHONE-001")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testSearchEndpoint() throws Exception {
+        // "phone" only appears inside a word ("Smartphone X")
+        mockMvc.perform(get("/api/inventory/search").param("q", "phone"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalMatches").value(1))
+                .andExpect(jsonPath("$.hits[0].sku").value("PHONE-001"))
+                .andExpect(jsonPath("$.hits[0].availableQuantity").exists());
+
+        mockMvc.perform(get("/api/inventory/search").param("q", "m").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalMatches").value(2))
+                .andExpect(jsonPath("$.hits.length()").value(1));
+
+        mockMvc.perform(get("/api/inventory/search").param("q", "laptop").param("size", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAvailableToPromiseEndpoint() throws Exception {
+        mockMvc.perform(get("/api/inventory/LAPTOP-001/atp").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sku").value("LAPTOP-001"))
+                .andExpect(jsonPath("$.availableToPromise").exists())
+                .andExpect(jsonPath("$.buckets").isArray());
+
+        mockMvc.perform(get("/api/inventory/INVALID-SKU/atp"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/inventory/LAPTOP-001/atp").param("days", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBulkOperationsStream() throws Exception {
+        String body = String.join("\n",
+                "{\"id\":\"a\",\"op\":\"RESERVE\",\"sku\":\"KEYBOARD-001\",\"quantity\":1}",
+                "{\"id\":\"b\",\"op\":\"RESERVE\",\"sku\":\"KEYBOARD-001\",\"quantity\":1}",
+                "not json",
+                "{\"id\":\"d\",\"op\":\"RELEASE\",\"reservationId\":\"missing\"}",
+                "null",
+                "{\"id\":\"f\",\"op\":\"RESERVE\",\"sku\":\"KEYBOARD-001\",\"quantity\":1}");
+
+        MvcResult result = mockMvc.perform(post("/api/inventory/ops")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = response.lines().toList();
+        assertEquals(6, lines.size());
+        assertEquals(3, lines.stream().filter(line -> line.contains("\"status\":200")).count());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"seq\":3") && line.contains("\"status\":400")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"id\":\"d\"") && line.contains("\"status\":404")));
+        // A null line is rejected on its own and the stream carries on past it
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"seq\":5") && line.contains("\"status\":400")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"id\":\"f\"") && line.contains("\"status\":200")));
+    }
+
+    @Test
+    void testBulkOperationsStream_SameSkuRunsInStreamOrder() throws Exception {
+        // Given - two more single-unit reserves than TABLET-001 has available
+        int available = objectMapper.readTree(mockMvc.perform(get("/api/inventory/TABLET-001"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("availableQuantity").asInt();
+        int operations = available + 2;
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= operations; i++) {
+            body.append("{\"id\":\"t").append(i).append("\",\"op\":\"RESERVE\",\"sku\":\"TABLET-001\",\"quantity\":1}\n");
+        }
+
+        // When
+        MvcResult result = mockMvc.perform(post("/api/inventory/ops")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then - the first lines take the stock and exactly the last two run out, so none overtook another
+        Map<Long, Integer> statusBySeq = new HashMap<>();
+        for (String line : response.lines().toList()) {
+            JsonNode node = objectMapper.readTree(line);
+            statusBySeq.put(node.get("seq").asLong(), node.get("status").asInt());
+        }
+        assertEquals(operations, statusBySeq.size());
+        for (long seq = 1; seq <= operations; seq++) {
+            assertEquals(seq <= available ? 200 : 409, statusBySeq.get(seq), "line " + seq);
+        }
+        mockMvc.perform(get("/api/inventory/TABLET-001"))
+                .andExpect(jsonPath("$.availableQuantity").value(0));
+    }
+
+    @Test
+    void testExportStreamsEverySku() throws Exception {
+        MvcResult ndjson = mockMvc.perform(get("/api/inventory/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        List<String> lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().lines().toList();
+        assertTrue(lines.size() >= 5);
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"sku\":\"LAPTOP-001\"")
+                && line.contains("\"totalQuantity\":100")));
+
+        MvcResult csv = mockMvc.perform(get("/api/inventory/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] gzipped = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            List<String> rows = new String(input.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            assertTrue(rows.get(0).startsWith("sku,productName,totalQuantity"));
+            assertEquals(lines.size() + 1, rows.size());
+            assertTrue(rows.stream().anyMatch(row -> row.startsWith("PHONE-001,Smartphone X,500,")));
+        }
+
+        mockMvc.perform(get("/api/inventory/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAnalyticsEndpoint() throws Exception {
+        mockMvc.perform(get("/api/inventory/analytics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowMinutes").value(60))
+                .andExpect(jsonPath("$.overall").exists());
+
+        mockMvc.perform(get("/api/inventory/analytics/UNTRACKED-SKU"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,117 @@
+package com.interview.practice.inventory.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for read replica routing
+ * The replica is a second in-memory H2 database with the schema but no data; the tests stand in
+ * for replication by writing its heartbeat row directly
+ */
+@SpringBootTest(properties = {
+        "inventory.cleanup.enabled=false",
+        "inventory.reconciliation.enabled=false",
+        "inventory.outbox.relay.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:replicatest-primary;DB_CLOSE_DELAY=-1",
+        "inventory.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "inventory.datasource.replica.max-staleness-ms=500",
+        "inventory.datasource.replica.heartbeat-ms=600000"
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicatest-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void createReplicaSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replica.getDataSource());
+    }
+
+    @Test
+    void testReadOnlyTransactions_RoutedToFreshReplica() {
+        // Given - the replica has caught up with a heartbeat just written
+        replicateHeartbeat(System.currentTimeMillis());
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        long replicaReads = counter("replicaReadRoutes");
+        long writes = counter("writeRoutes");
+
+        // When / Then - a read-only transaction sees the replica, which holds no items
+        assertEquals(0, countItems(true));
+        assertTrue(counter("replicaReadRoutes") > replicaReads);
+
+        // And a read-write transaction sees the primary and its seeded items
+        assertTrue(countItems(false) > 0);
+        assertTrue(counter("writeRoutes") > writes);
+    }
+
+    @Test
+    void testStaleHeartbeat_ReadsFallBackToPrimary() {
+        // Given - the newest heartbeat on the replica is a minute old
+        replicateHeartbeat(System.currentTimeMillis() - 60_000);
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        long fallbacks = counter("fallbackReadRoutes");
+
+        // When / Then - read-only transactions are served by the primary
+        assertTrue(countItems(true) > 0);
+        assertTrue(counter("fallbackReadRoutes") > fallbacks);
+    }
+
+    @Test
+    void testHeartbeatAge_CheckedOnEveryRoute() throws InterruptedException {
+        // Given - a fresh heartbeat, and no further heartbeats
+        replicateHeartbeat(System.currentTimeMillis());
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+
+        // When - more than max-staleness-ms passes
+        Thread.sleep(700);
+
+        // Then - reads fall back although the monitor has not run again
+        long fallbacks = counter("fallbackReadRoutes");
+        assertTrue(countItems(true) > 0);
+        assertTrue(counter("fallbackReadRoutes") > fallbacks);
+    }
+
+    private void replicateHeartbeat(long beatMillis) {
+        if (replica.update("UPDATE replica_heartbeats SET beat_millis = ? WHERE id = 1", beatMillis) == 0) {
+            replica.update("INSERT INTO replica_heartbeats (id, beat_millis) VALUES (1, ?)", beatMillis);
+        }
+        // Reads the replica back; its own write lands on the primary, which the replica never sees
+        replicaLagMonitor.heartbeat();
+    }
+
+    private int countItems(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(dataSource)
+                .queryForObject("SELECT COUNT(*) FROM inventory_items", Integer.class));
+    }
+
+    private long counter(String name) {
+        return (Long) routingDataSource.stats().get(name);
+    }
+}
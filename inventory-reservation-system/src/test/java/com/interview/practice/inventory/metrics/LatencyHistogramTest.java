@@ -0,0 +1,115 @@
+package com.interview.practice.inventory.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyHistogram
+ * Percentiles must stay within the bucket resolution and merging must be lossless
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.valueAtPercentile(99));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+
+        assertEquals(0, histogram.valueAtPercentile(25));
+        assertEquals(1, histogram.valueAtPercentile(50));
+        assertEquals(3, histogram.valueAtPercentile(100));
+        assertEquals(1.5, histogram.getMean());
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        for (double percentile : new double[] {1, 10, 50, 90, 99, 99.9}) {
+            long exact = (long) Math.ceil(percentile / 100.0 * 10_000);
+            long reported = histogram.valueAtPercentile(percentile);
+            // Upper bound of the exact value's bucket: never below it, at most 25% above
+            assertTrue(reported >= exact, "p" + percentile + " reported " + reported + " < " + exact);
+            assertTrue(reported <= exact * 1.25, "p" + percentile + " reported " + reported + " > 1.25 * " + exact);
+        }
+        assertEquals(10_000, histogram.valueAtPercentile(100));
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5_000.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    void testPercentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(1_001);
+
+        assertEquals(1_001, histogram.valueAtPercentile(99));
+    }
+
+    @Test
+    void testNegativeValuesClampToZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    void testMergeMatchesSingleHistogram() {
+        LatencyHistogram combined = new LatencyHistogram();
+        LatencyHistogram low = new LatencyHistogram();
+        LatencyHistogram high = new LatencyHistogram();
+        for (long value = 1; value <= 5_000; value++) {
+            combined.record(value * 7);
+            (value % 2 == 0 ? low : high).record(value * 7);
+        }
+
+        LatencyHistogram merged = low.copy();
+        merged.merge(high);
+
+        assertEquals(combined.getCount(), merged.getCount());
+        assertEquals(combined.getMax(), merged.getMax());
+        assertEquals(combined.getMean(), merged.getMean(), 1e-9);
+        for (double percentile : new double[] {50, 90, 99, 99.9, 100}) {
+            assertEquals(combined.valueAtPercentile(percentile), merged.valueAtPercentile(percentile));
+        }
+        // Merging into a copy leaves the source untouched
+        assertEquals(2_500, low.getCount());
+    }
+
+    @Test
+    void testValuesBeyondRangeLandInLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertEquals(Long.MAX_VALUE / 2, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    void testResetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+}
@@ -0,0 +1,160 @@
+package com.interview.practice.inventory.metrics;
+
+import com.interview.practice.inventory.dto.ReservationAnalyticsResponse;
+import com.interview.practice.inventory.dto.SkuAnalyticsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReservationAnalytics
+ * Runs on a manual clock so window expiry and eviction order are deterministic
+ */
+class ReservationAnalyticsTest {
+
+    private static final long MINUTE = 60_000;
+    // Start on a minute boundary so "n minutes later" lands in a known slot
+    private static final long START = 1_000 * MINUTE;
+
+    private final AtomicLong clock = new AtomicLong(START);
+
+    @Test
+    void testCountersAndRatios() {
+        ReservationAnalytics analytics = new ReservationAnalytics(5, 100, clock::get);
+
+        analytics.recordReserved("LAPTOP-001", 2);
+        analytics.recordReserved("LAPTOP-001", 3);
+        analytics.recordReserved("LAPTOP-001", 1);
+        analytics.recordReserved("LAPTOP-001", 4);
+        analytics.recordConfirmed("LAPTOP-001", Duration.ofSeconds(10));
+        analytics.recordConfirmed("LAPTOP-001", Duration.ofSeconds(40));
+        analytics.recordReleased("LAPTOP-001");
+        analytics.recordExpired("LAPTOP-001", 1);
+
+        SkuAnalyticsResponse laptop = analytics.snapshot("LAPTOP-001").orElseThrow();
+        assertEquals("LAPTOP-001", laptop.getSku());
+        assertEquals(4L, laptop.getReserved());
+        assertEquals(10L, laptop.getReservedUnits());
+        assertEquals(2L, laptop.getConfirmed());
+        assertEquals(1L, laptop.getReleased());
+        assertEquals(1L, laptop.getExpired());
+        assertEquals(0.8, laptop.getReservationsPerMinute(), 1e-9);
+        assertEquals(0.5, laptop.getConfirmRatio(), 1e-9);
+        assertEquals(0.25, laptop.getReleaseRatio(), 1e-9);
+        assertEquals(0.25, laptop.getExpireRatio(), 1e-9);
+
+        SkuAnalyticsResponse.LatencySummary timeToConfirm = laptop.getTimeToConfirmSeconds();
+        assertEquals(2L, timeToConfirm.getCount());
+        assertEquals(25.0, timeToConfirm.getMean(), 1e-9);
+        assertEquals(40L, timeToConfirm.getMax());
+        assertTrue(timeToConfirm.getP50() >= 10 && timeToConfirm.getP50() <= 12);
+        assertEquals(40L, timeToConfirm.getP99());
+    }
+
+    @Test
+    void testRatiosWithoutOutcomesAreZero() {
+        ReservationAnalytics analytics = new ReservationAnalytics(5, 100, clock::get);
+
+        analytics.recordReserved("PHONE-001", 1);
+
+        SkuAnalyticsResponse phone = analytics.snapshot("PHONE-001").orElseThrow();
+        assertEquals(0.0, phone.getConfirmRatio());
+        assertEquals(0.0, phone.getReleaseRatio());
+        assertEquals(0.0, phone.getExpireRatio());
+        assertTrue(analytics.snapshot("TABLET-001").isEmpty());
+    }
+
+    @Test
+    void testWindowDropsExpiredMinutes() {
+        ReservationAnalytics analytics = new ReservationAnalytics(5, 100, clock::get);
+
+        analytics.recordReserved("LAPTOP-001", 1);
+        clock.set(START + 3 * MINUTE);
+        analytics.recordReserved("LAPTOP-001", 1);
+        analytics.recordReleased("LAPTOP-001");
+
+        clock.set(START + 4 * MINUTE);
+        assertEquals(2L, analytics.snapshot("LAPTOP-001").orElseThrow().getReserved());
+
+        // The first minute has left the 5-minute window; the later one has not
+        clock.set(START + 5 * MINUTE);
+        SkuAnalyticsResponse laptop = analytics.snapshot("LAPTOP-001").orElseThrow();
+        assertEquals(1L, laptop.getReserved());
+        assertEquals(1L, laptop.getReleased());
+        assertEquals(1L, analytics.snapshot(10).getOverall().getReserved());
+
+        // Recording into a reused ring slot starts that minute from zero
+        analytics.recordReserved("LAPTOP-001", 1);
+        assertEquals(2L, analytics.snapshot("LAPTOP-001").orElseThrow().getReserved());
+
+        clock.set(START + 20 * MINUTE);
+        laptop = analytics.snapshot("LAPTOP-001").orElseThrow();
+        assertEquals(0L, laptop.getReserved());
+        assertEquals(0L, laptop.getReleased());
+    }
+
+    @Test
+    void testTimeToConfirmCoversPreviousAndCurrentWindow() {
+        ReservationAnalytics analytics = new ReservationAnalytics(5, 100, clock::get);
+
+        analytics.recordConfirmed("LAPTOP-001", Duration.ofSeconds(30));
+        clock.set(START + 6 * MINUTE);
+        analytics.recordConfirmed("LAPTOP-001", Duration.ofSeconds(60));
+        assertEquals(2L, analytics.snapshot("LAPTOP-001").orElseThrow().getTimeToConfirmSeconds().getCount());
+
+        // Two windows on, only the second confirmation is still reported
+        clock.set(START + 11 * MINUTE);
+        assertEquals(1L, analytics.snapshot("LAPTOP-001").orElseThrow().getTimeToConfirmSeconds().getCount());
+
+        clock.set(START + 30 * MINUTE);
+        assertEquals(0L, analytics.snapshot("LAPTOP-001").orElseThrow().getTimeToConfirmSeconds().getCount());
+    }
+
+    @Test
+    void testTrackedSkusBoundedByEvictingStalest() {
+        ReservationAnalytics analytics = new ReservationAnalytics(60, 3, clock::get);
+
+        analytics.recordReserved("SKU-A", 1);
+        clock.addAndGet(1_000);
+        analytics.recordReserved("SKU-B", 1);
+        clock.addAndGet(1_000);
+        analytics.recordReserved("SKU-C", 1);
+        clock.addAndGet(1_000);
+        analytics.recordReleased("SKU-A");
+        clock.addAndGet(1_000);
+
+        analytics.recordReserved("SKU-D", 1);
+
+        ReservationAnalyticsResponse snapshot = analytics.snapshot(10);
+        assertEquals(3, snapshot.getTrackedSkus());
+        assertTrue(analytics.snapshot("SKU-B").isEmpty());
+        assertTrue(analytics.snapshot("SKU-A").isPresent());
+        assertTrue(analytics.snapshot("SKU-D").isPresent());
+        // Overall totals survive eviction
+        assertEquals(4L, snapshot.getOverall().getReserved());
+        assertEquals(1L, snapshot.getOverall().getReleased());
+    }
+
+    @Test
+    void testSnapshotOrdersSkusByReservations() {
+        ReservationAnalytics analytics = new ReservationAnalytics(5, 100, clock::get);
+
+        analytics.recordReserved("LAPTOP-001", 1);
+        for (int i = 0; i < 3; i++) {
+            analytics.recordReserved("PHONE-001", 1);
+        }
+        analytics.recordReserved("TABLET-001", 1);
+        analytics.recordReserved("TABLET-001", 1);
+
+        ReservationAnalyticsResponse snapshot = analytics.snapshot(2);
+        assertEquals(5, snapshot.getWindowMinutes());
+        assertEquals(3, snapshot.getTrackedSkus());
+        assertEquals(2, snapshot.getSkus().size());
+        assertEquals("PHONE-001", snapshot.getSkus().get(0).getSku());
+        assertEquals("TABLET-001", snapshot.getSkus().get(1).getSku());
+        assertNull(snapshot.getOverall().getSku());
+    }
+}
@@ -1,33 +1,83 @@
 package com.interview.practice.inventory.service;
 
+import com.interview.practice.inventory.allocation.LocationAllocationService;
+import com.interview.practice.inventory.dto.AvailableToPromiseResponse;
+import com.interview.practice.inventory.dto.BatchConfirmRequest;
+import com.interview.practice.inventory.dto.ContentionResponse;
+import com.interview.practice.inventory.dto.DriftReport;
+import com.interview.practice.inventory.dto.InboundShipmentRequest;
+import com.interview.practice.inventory.dto.InboundShipmentResponse;
+import com.interview.practice.inventory.dto.LocationStockResponse;
+import com.interview.practice.inventory.dto.ProductSearchResponse;
 import com.interview.practice.inventory.dto.ReservationRequest;
 import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.dto.SkuAnalyticsResponse;
+import com.interview.practice.inventory.dto.SkuContentionResponse;
+import com.interview.practice.inventory.dto.SplitReservationRequest;
 import com.interview.practice.inventory.exception.InsufficientInventoryException;
 import com.interview.practice.inventory.exception.InventoryNotFoundException;
 import com.interview.practice.inventory.exception.ReservationNotFoundException;
+import com.interview.practice.inventory.metrics.ContentionProfiler;
+import com.interview.practice.inventory.metrics.FlightRecordingService;
+import com.interview.practice.inventory.metrics.ReservationAnalytics;
 import com.interview.practice.inventory.model.InventoryItem;
+import com.interview.practice.inventory.model.OutboxEvent;
 import com.interview.practice.inventory.model.Reservation;
+import com.interview.practice.inventory.model.StockLease;
+import com.interview.practice.inventory.outbox.InMemoryOutboxPublisher;
+import com.interview.practice.inventory.outbox.OutboxRelay;
+import com.interview.practice.inventory.quota.StockQuotaManager;
+import com.interview.practice.inventory.repository.CleanupLeaseRepository;
 import com.interview.practice.inventory.repository.InventoryItemRepository;
+import com.interview.practice.inventory.repository.OutboxEventRepository;
 import com.interview.practice.inventory.repository.ReservationRepository;
+import com.interview.practice.inventory.repository.StockLeaseRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 
 /**
  * Integration tests for InventoryService
  * Tests the reserve inventory flow including concurrency scenarios
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        "inventory.cleanup.enabled=false",
+        "inventory.reconciliation.enabled=false",
+        "inventory.outbox.relay.enabled=false",
+        "inventory.quota.enabled=true",
+        "inventory.quota.skus=QUOTA-001",
+        "inventory.quota.maintenance-interval-ms=600000"
+})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class InventoryServiceTest {
 
@@ -40,6 +90,54 @@ class InventoryServiceTest {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private SoldOutIndex soldOutIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private AvailableToPromiseProjection availableToPromiseProjection;
+
+    @Autowired
+    private InboundStockService inboundStockService;
+
+    @Autowired
+    private LocationAllocationService locationAllocationService;
+
+    @Autowired
+    private CleanupLeaseCoordinator cleanupLeaseCoordinator;
+
+    @SpyBean
+    private CleanupLeaseRepository cleanupLeaseRepository;
+
+    @Autowired
+    private InventoryReconciliationService reconciliationService;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+
+    @Autowired
+    private ReservationAnalytics reservationAnalytics;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @SpyBean
+    private InMemoryOutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StockQuotaManager stockQuotaManager;
+
+    @Autowired
+    private StockLeaseRepository stockLeaseRepository;
+
     @BeforeEach
     void setUp() {
         // Clean up any existing reservations before each test
@@ -324,6 +422,348 @@ class InventoryServiceTest {
         assertEquals(0, item.getReservedQuantity());
     }
 
+    @Test
+    void testConfirmReservations_Batch() {
+        // Given - an order spanning two SKUs
+        ReservationResponse laptop = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(3).build());
+        ReservationResponse phone1 = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001").quantity(4).build());
+        ReservationResponse phone2 = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001").quantity(6).build());
+
+        // When
+        List<ReservationResponse> confirmed = inventoryService.confirmReservations(BatchConfirmRequest.builder()
+                .orderId("ORDER-42")
+                .reservationIds(List.of(laptop.getReservationId(), phone1.getReservationId(), phone2.getReservationId()))
+                .build());
+
+        // Then
+        assertEquals(3, confirmed.size());
+        assertTrue(confirmed.stream().allMatch(r -> "CONFIRMED".equals(r.getStatus())));
+        InventoryItem phone = inventoryRepository.findBySku("PHONE-001").orElseThrow();
+        assertEquals(490, phone.getTotalQuantity());
+        assertEquals(0, phone.getReservedQuantity());
+        assertEquals(0L, phone.getActiveChecksum());
+        Reservation stored = reservationRepository.findByReservationId(phone2.getReservationId()).orElseThrow();
+        assertEquals("ORDER-42", stored.getOrderId());
+    }
+
+    @Test
+    void testConfirmReservations_AllOrNothing() {
+        ReservationResponse active = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(2).build());
+        ReservationResponse released = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001").quantity(2).build());
+        inventoryService.releaseReservation(released.getReservationId());
+
+        BatchConfirmRequest request = BatchConfirmRequest.builder()
+                .orderId("ORDER-43")
+                .reservationIds(List.of(active.getReservationId(), released.getReservationId()))
+                .build();
+        assertThrows(IllegalStateException.class, () -> inventoryService.confirmReservations(request));
+
+        // Nothing was confirmed
+        Reservation stillActive = reservationRepository.findByReservationId(active.getReservationId()).orElseThrow();
+        assertEquals(Reservation.ReservationStatus.ACTIVE, stillActive.getStatus());
+        InventoryItem laptop = inventoryRepository.findBySku("LAPTOP-001").orElseThrow();
+        assertEquals(100, laptop.getTotalQuantity());
+        assertEquals(2, laptop.getReservedQuantity());
+    }
+
+    @Test
+    void testContentionProfiler_TracksLockedSkus() {
+        contentionProfiler.reset();
+        for (int i = 0; i < 3; i++) {
+            inventoryService.reserveInventory(ReservationRequest.builder().sku("LAPTOP-001").quantity(1).build());
+        }
+        inventoryService.reserveInventory(ReservationRequest.builder().sku("PHONE-001").quantity(1).build());
+
+        ContentionResponse contention = contentionProfiler.snapshot(10);
+        assertEquals(4L, contention.getLockAcquisitions());
+        SkuContentionResponse laptop = contention.getSkus().stream()
+                .filter(s -> "LAPTOP-001".equals(s.getSku()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3L, laptop.getLockAcquisitions());
+        assertEquals(3L, laptop.getWaitMicros().getCount());
+        assertEquals(3L, laptop.getHoldMicros().getCount());
+    }
+
+    @Test
+    void testContentionProfiler_CompactionKeepsHeaviestSkus() {
+        ContentionProfiler profiler = new ContentionProfiler(3);
+        profiler.recordWait("HOT-001", 9_000_000);
+        profiler.recordWait("WARM-001", 5_000_000);
+        profiler.recordWait("COLD-001", 1_000_000);
+        profiler.recordWait("COLD-002", 2_000_000);
+        assertEquals(4, profiler.snapshot(10).getTrackedSkus());
+
+        // Compaction evicts the lightest counters; newcomers inherit the heaviest evicted weight
+        profiler.compact();
+        ContentionResponse compacted = profiler.snapshot(10);
+        assertEquals(3, compacted.getTrackedSkus());
+        assertEquals(List.of("HOT-001", "WARM-001", "COLD-002"),
+                compacted.getSkus().stream().map(SkuContentionResponse::getSku).toList());
+        profiler.recordWait("NEW-001", 1_000);
+        SkuContentionResponse newcomer = profiler.snapshot(10).getSkus().stream()
+                .filter(s -> "NEW-001".equals(s.getSku()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1_000L, newcomer.getErrorMicros());
+        assertEquals(1_001L, newcomer.getTotalWaitMicros());
+        assertEquals(5L, profiler.snapshot(10).getLockAcquisitions());
+    }
+
+    @Test
+    void testContentionProfiler_FullTableNeverCompactsOnRecord() {
+        // Given - a table at twice its capacity
+        ContentionProfiler profiler = new ContentionProfiler(1);
+        profiler.recordWait("HOT-001", 9_000_000);
+        profiler.recordWait("WARM-001", 5_000_000);
+
+        // When - a new SKU waits before the next compaction
+        profiler.recordWait("NEW-001", 1_000_000);
+
+        // Then - it only counts towards the totals; the recorder did not trim the table
+        ContentionResponse full = profiler.snapshot(10);
+        assertEquals(2, full.getTrackedSkus());
+        assertEquals(1L, full.getUntrackedWaits());
+        assertEquals(3L, full.getLockAcquisitions());
+        assertEquals(15_000L, full.getTotalWaitMicros());
+
+        // And the scheduled compaction makes room again
+        profiler.compact();
+        profiler.recordWait("NEW-001", 1_000_000);
+        ContentionResponse compacted = profiler.snapshot(10);
+        assertEquals(2, compacted.getTrackedSkus());
+        assertEquals(List.of("HOT-001", "NEW-001"),
+                compacted.getSkus().stream().map(SkuContentionResponse::getSku).toList());
+    }
+
+    @Test
+    void testOutbox_RelaysEventsInOrder() {
+        // Given - a reserve and a release of the same SKU
+        ReservationResponse reservation = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(7).build());
+        inventoryService.releaseReservation(reservation.getReservationId());
+
+        // When
+        outboxRelay.drain();
+
+        // Then - both events delivered, in order, with the item state after each change
+        List<OutboxEvent> events = outboxPublisher.getPublished().stream()
+                .filter(e -> reservation.getReservationId().equals(e.getReservationId()))
+                .toList();
+        assertEquals(2, events.size());
+        assertEquals(OutboxEvent.EventType.RESERVED, events.get(0).getEventType());
+        assertEquals(93, events.get(0).getAvailableQuantity());
+        assertEquals(OutboxEvent.EventType.RELEASED, events.get(1).getEventType());
+        assertEquals(100, events.get(1).getAvailableQuantity());
+        assertFalse(events.get(0).isUnordered() || events.get(1).isUnordered());
+        assertEquals(0L, outboxEventRepository.countByPublishedAtIsNull());
+    }
+
+    @Test
+    void testOutbox_FailingSkuDoesNotBlockOthers() throws Exception {
+        // Given - small batches, and a publisher that rejects every LAPTOP-001 event
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "retryBackoffMillis", 2000L);
+        doThrow(new IllegalStateException("broker down")).when(outboxPublisher).publish(
+                argThat(events -> events.stream().anyMatch(e -> "LAPTOP-001".equals(e.getSku()))));
+        for (int i = 0; i < 3; i++) {
+            inventoryService.reserveInventory(ReservationRequest.builder().sku("LAPTOP-001").quantity(1).build());
+        }
+        ReservationResponse phone = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001").quantity(1).build());
+
+        // When - the failing SKU fills the first batch
+        outboxRelay.drain();
+        outboxRelay.drain();
+
+        // Then - it backs off and the other SKU is still delivered
+        assertTrue(outboxPublisher.getPublished().stream()
+                .anyMatch(e -> phone.getReservationId().equals(e.getReservationId())));
+        assertEquals(3L, outboxEventRepository.countByPublishedAtIsNull());
+
+        // And once the publisher recovers and the backoff passes, the SKU drains in order
+        doCallRealMethod().when(outboxPublisher).publish(any());
+        Thread.sleep(2100);
+        outboxRelay.drain();
+        assertEquals(0L, outboxEventRepository.countByPublishedAtIsNull());
+        List<Long> laptopIds = outboxPublisher.getPublished().stream()
+                .filter(e -> "LAPTOP-001".equals(e.getSku()))
+                .map(OutboxEvent::getId)
+                .toList();
+        assertEquals(3, laptopIds.size());
+        assertEquals(laptopIds.stream().sorted().toList(), laptopIds);
+    }
+
+    @Test
+    void testStockQuota_ServesFromLeaseAndSettles() throws Exception {
+        // Given - a hot SKU served from stock leases
+        inventoryRepository.save(InventoryItem.builder()
+                .sku("QUOTA-001")
+                .productName("Quota Item")
+                .totalQuantity(100)
+                .availableQuantity(100)
+                .reservedQuantity(0)
+                .build());
+        ReservationRequest request = ReservationRequest.builder().sku("QUOTA-001").quantity(1).build();
+
+        // When - the first requests use the item row while the lease is granted in the background
+        Reservation leased = null;
+        for (int attempt = 0; attempt < 100 && leased == null; attempt++) {
+            ReservationResponse response = inventoryService.reserveInventory(request);
+            Reservation stored = reservationRepository.findByReservationId(response.getReservationId()).orElseThrow();
+            if (stored.getLeaseId() != null) {
+                leased = stored;
+            } else {
+                Thread.sleep(20);
+            }
+        }
+
+        // Then - later requests are served from the lease, and no units are lost
+        assertNotNull(leased);
+        InventoryItem during = inventoryRepository.findBySku("QUOTA-001").orElseThrow();
+        assertTrue(during.getLeasedQuantity() > 0);
+        assertEquals(100, during.getAvailableQuantity() + during.getReservedQuantity() + during.getLeasedQuantity());
+
+        // Its event was written without the item lock, so it carries no item counters
+        String leasedId = leased.getReservationId();
+        OutboxEvent leasedEvent = outboxEventRepository.findAll().stream()
+                .filter(event -> leasedId.equals(event.getReservationId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(OutboxEvent.EventType.RESERVED, leasedEvent.getEventType());
+        assertNull(leasedEvent.getAvailableQuantity());
+        assertTrue(leasedEvent.isUnordered());
+
+        // Releasing a lease-served reservation puts the unit back to available
+        inventoryService.releaseReservation(leased.getReservationId());
+
+        // Settling returns the unused units and turns remaining lease reservations into ordinary ones
+        for (StockLease lease : stockLeaseRepository.findAll()) {
+            stockQuotaManager.settle(lease.getId());
+        }
+        InventoryItem after = inventoryRepository.findBySku("QUOTA-001").orElseThrow();
+        long active = reservationRepository.findAllBySkuAndStatus("QUOTA-001", Reservation.ReservationStatus.ACTIVE).size();
+        assertEquals(0, after.getLeasedQuantity());
+        assertEquals(active, after.getReservedQuantity());
+        assertEquals(100 - active, after.getAvailableQuantity());
+        assertTrue(reconciliationService.auditSku("QUOTA-001").isEmpty());
+    }
+
+    @Test
+    void testStockQuota_SettleWhileServingFromLease() throws Exception {
+        // Given - a hot SKU whose lease is open
+        inventoryRepository.save(InventoryItem.builder()
+                .sku("QUOTA-001")
+                .productName("Quota Item")
+                .totalQuantity(100)
+                .availableQuantity(100)
+                .reservedQuantity(0)
+                .build());
+        ReservationRequest request = ReservationRequest.builder().sku("QUOTA-001").quantity(1).build();
+        for (int attempt = 0; attempt < 100 && stockLeaseRepository.findAll().isEmpty(); attempt++) {
+            inventoryService.reserveInventory(request);
+            Thread.sleep(20);
+        }
+        assertFalse(stockLeaseRepository.findAll().isEmpty());
+
+        // When - leases are settled while lease-served reservations keep coming in
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> reservers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            reservers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 15; i++) {
+                    try {
+                        inventoryService.reserveInventory(request);
+                    } catch (InsufficientInventoryException e) {
+                        // Sold out while racing the settlement is fine; overselling is not
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (int round = 0; round < 10; round++) {
+            for (StockLease lease : stockLeaseRepository.findAll()) {
+                stockQuotaManager.settle(lease.getId());
+            }
+            Thread.sleep(5);
+        }
+        for (Future<?> reserver : reservers) {
+            reserver.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        for (StockLease lease : stockLeaseRepository.findAll()) {
+            stockQuotaManager.settle(lease.getId());
+        }
+
+        // Then - every reservation is counted exactly once
+        InventoryItem after = inventoryRepository.findBySku("QUOTA-001").orElseThrow();
+        List<Reservation> active = reservationRepository.findAllBySkuAndStatus("QUOTA-001", Reservation.ReservationStatus.ACTIVE);
+        int activeUnits = active.stream().mapToInt(Reservation::getQuantity).sum();
+        assertEquals(0, after.getLeasedQuantity());
+        assertEquals(activeUnits, after.getReservedQuantity());
+        assertEquals(100 - activeUnits, after.getAvailableQuantity());
+        assertTrue(active.stream().allMatch(reservation -> reservation.getLeaseId() == null));
+        assertTrue(reconciliationService.auditSku("QUOTA-001").isEmpty());
+    }
+
+    @Test
+    void testExtendReservation_PushesOutExpiry() {
+        // Given
+        ReservationResponse reservation = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001")
+                .quantity(5)
+                .timeoutMinutes(5)
+                .build());
+        long versionBefore = inventoryRepository.findBySku("LAPTOP-001").orElseThrow().getVersion();
+
+        // When
+        ReservationResponse extended = inventoryService.extendReservation(reservation.getReservationId(), 30);
+
+        // Then - expiry moved, item row untouched
+        assertTrue(extended.getExpiresAt().isAfter(reservation.getExpiresAt()));
+        Reservation stored = reservationRepository.findByReservationId(reservation.getReservationId()).orElseThrow();
+        assertEquals(extended.getExpiresAt(), stored.getExpiresAt());
+        assertEquals(versionBefore, inventoryRepository.findBySku("LAPTOP-001").orElseThrow().getVersion());
+    }
+
+    @Test
+    void testExtendReservation_CappedAtMaxLease() {
+        ReservationResponse reservation = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001")
+                .quantity(1)
+                .build());
+
+        // Asking for far more than the maximum lease is capped at created + max
+        ReservationResponse extended = inventoryService.extendReservation(reservation.getReservationId(), 10_000);
+        Reservation stored = reservationRepository.findByReservationId(reservation.getReservationId()).orElseThrow();
+        assertEquals(stored.getCreatedAt().plusMinutes(120), extended.getExpiresAt());
+
+        // Once at the cap, further extensions are rejected
+        assertThrows(IllegalStateException.class, () ->
+                inventoryService.extendReservation(reservation.getReservationId(), 10_000));
+    }
+
+    @Test
+    void testExtendReservation_NotActive() {
+        ReservationResponse reservation = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001")
+                .quantity(1)
+                .build());
+        inventoryService.releaseReservation(reservation.getReservationId());
+
+        assertThrows(IllegalStateException.class, () ->
+                inventoryService.extendReservation(reservation.getReservationId(), 10));
+    }
+
     @Test
     void testReleaseReservation_MultipleSequential() {
         // Given - create multiple reservations
@@ -387,5 +827,480 @@ class InventoryServiceTest {
         assertEquals(80, item.getAvailableQuantity()); // 150 - 70
         assertEquals(70, item.getReservedQuantity());
     }
-}
 
+    // ==================== Sold-Out Index Tests ====================
+
+    @Test
+    void testReserveInventory_SoldOutSkuFailsFast() {
+        // Given - deplete TABLET-001 (50 units)
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(50)
+                .build());
+
+        // Then - SKU is indexed as sold out and further reservations are rejected
+        assertTrue(soldOutIndex.isSoldOut("TABLET-001"));
+        assertThrows(InsufficientInventoryException.class, () -> {
+            inventoryService.reserveInventory(ReservationRequest.builder()
+                    .sku("TABLET-001")
+                    .quantity(1)
+                    .build());
+        });
+        assertFalse(soldOutIndex.isSoldOut("LAPTOP-001"));
+    }
+
+    @Test
+    void testReserveInventory_SoldOutMarkRecheckedAgainstDatabase() {
+        // Given - TABLET-001 is marked sold out
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(50)
+                .build());
+        assertTrue(soldOutIndex.isSoldOut("TABLET-001"));
+
+        // When - stock is added behind the service's back, well inside the TTL
+        InventoryItem item = inventoryRepository.findBySku("TABLET-001").orElseThrow();
+        item.setTotalQuantity(item.getTotalQuantity() + 5);
+        item.setAvailableQuantity(5);
+        inventoryRepository.save(item);
+        assertTrue(soldOutIndex.isSoldOut("TABLET-001"));
+
+        // Then - the stale mark is dropped and the reservation goes through
+        ReservationResponse response = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(2)
+                .build());
+        assertEquals("ACTIVE", response.getStatus());
+        assertFalse(soldOutIndex.isSoldOut("TABLET-001"));
+        assertEquals(3, inventoryRepository.findBySku("TABLET-001").orElseThrow().getAvailableQuantity());
+    }
+
+    @Test
+    void testReleaseReservation_ClearsSoldOut() {
+        // Given - a sold out SKU
+        ReservationResponse reservation = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(50)
+                .build());
+        assertTrue(soldOutIndex.isSoldOut("TABLET-001"));
+
+        // When - stock comes back
+        inventoryService.releaseReservation(reservation.getReservationId());
+
+        // Then - reservations are accepted again
+        assertFalse(soldOutIndex.isSoldOut("TABLET-001"));
+        assertNotNull(inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(10)
+                .build()));
+    }
+
+    @Test
+    void testRestockInventory_ClearsSoldOut() {
+        // Given - a sold out SKU
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(50)
+                .build());
+
+        // When
+        inventoryService.restockInventory("TABLET-001", 20);
+
+        // Then
+        assertFalse(soldOutIndex.isSoldOut("TABLET-001"));
+        InventoryItem item = inventoryRepository.findBySku("TABLET-001").orElseThrow();
+        assertEquals(70, item.getTotalQuantity());
+        assertEquals(20, item.getAvailableQuantity());
+        assertEquals(50, item.getReservedQuantity());
+    }
+
+    @Test
+    void testProductSearch_ReflectsCommittedAvailability() {
+        // Given
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001")
+                .quantity(10)
+                .build());
+
+        // When
+        ProductSearchResponse response = productSearchIndex.search("gaming lap", 0, 10);
+
+        // Then
+        assertEquals(1, response.getTotalMatches());
+        ProductSearchResponse.Hit hit = response.getHits().get(0);
+        assertEquals("LAPTOP-001", hit.getSku());
+        assertEquals(90, hit.getAvailableQuantity());
+        assertEquals(10, hit.getReservedQuantity());
+
+        // And a restock shows up without a rebuild
+        inventoryService.restockInventory("LAPTOP-001", 5);
+        assertEquals(95, productSearchIndex.search("laptop", 0, 10).getHits().get(0).getAvailableQuantity());
+    }
+
+    @Test
+    void testAvailableToPromise_IncludesInboundByDay() {
+        // Given - 50 on hand, 40 arriving in 3 days and 10 in 10 days, 5 reserved
+        LocalDate today = LocalDate.now();
+        InboundShipmentResponse first = inboundStockService.scheduleShipment("TABLET-001",
+                InboundShipmentRequest.builder().quantity(40).expectedDate(today.plusDays(3)).build());
+        InboundShipmentResponse second = inboundStockService.scheduleShipment("TABLET-001",
+                InboundShipmentRequest.builder().quantity(10).expectedDate(today.plusDays(10)).build());
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("TABLET-001")
+                .quantity(5)
+                .build());
+
+        // When
+        AvailableToPromiseResponse atp = availableToPromiseProjection.project("TABLET-001", today, 30).orElseThrow();
+
+        // Then - one cumulative bucket per arrival day
+        assertEquals(45, atp.getAvailableQuantity());
+        assertEquals(50, atp.getInboundQuantity());
+        assertEquals(95, atp.getAvailableToPromise());
+        assertEquals(2, atp.getBuckets().size());
+        assertEquals(today.plusDays(3), atp.getBuckets().get(0).getDate());
+        assertEquals(85, atp.getBuckets().get(0).getAvailableToPromise());
+        assertEquals(40, availableToPromiseProjection.project("TABLET-001", today, 5).orElseThrow()
+                .getInboundQuantity());
+
+        // And receiving moves units on hand, cancelling drops them
+        inboundStockService.receiveShipment(first.getId());
+        inboundStockService.cancelShipment(second.getId());
+        atp = availableToPromiseProjection.project("TABLET-001", today, 30).orElseThrow();
+        assertEquals(85, atp.getAvailableQuantity());
+        assertEquals(85, atp.getAvailableToPromise());
+        assertTrue(atp.getBuckets().isEmpty());
+
+        InventoryItem item = inventoryRepository.findBySku("TABLET-001").orElseThrow();
+        assertEquals(90, item.getTotalQuantity());
+        assertEquals(0, item.getInboundQuantity());
+        assertThrows(IllegalStateException.class, () -> inboundStockService.receiveShipment(first.getId()));
+    }
+
+    @Test
+    void testSplitReservation_AllocatesAcrossLocations() {
+        // Given - 30 units in the east, 20 in the west
+        locationAllocationService.stockLocation("PHONE-001", "WH-EAST", 30);
+        locationAllocationService.stockLocation("PHONE-001", "WH-WEST", 20);
+        Long itemVersion = inventoryRepository.findVersionBySku("PHONE-001").orElseThrow();
+
+        // When - 40 units for a customer in Los Angeles, nearest first
+        ReservationResponse nearest = locationAllocationService.reserve(SplitReservationRequest.builder()
+                .sku("PHONE-001")
+                .quantity(40)
+                .latitude(34.05)
+                .longitude(-118.24)
+                .build());
+        ReservationResponse fewest = locationAllocationService.reserve(SplitReservationRequest.builder()
+                .sku("PHONE-001")
+                .quantity(10)
+                .policy("FEWEST_SPLITS")
+                .build());
+
+        // Then - the west is drained first, and the item row is never touched
+        assertEquals(2, nearest.getLines().size());
+        assertEquals("WH-WEST", nearest.getLines().get(1).getLocationCode());
+        assertEquals(20, nearest.getLines().get(1).getQuantity());
+        assertEquals(1, fewest.getLines().size());
+        assertEquals("WH-EAST", fewest.getLines().get(0).getLocationCode());
+        assertEquals(itemVersion, inventoryRepository.findVersionBySku("PHONE-001").orElseThrow());
+        assertEquals(450, inventoryRepository.findBySku("PHONE-001").orElseThrow().getAvailableQuantity());
+
+        // One event per line, carrying the location's counters rather than the item's
+        List<OutboxEvent> nearestEvents = outboxEventRepository.findAll().stream()
+                .filter(event -> nearest.getReservationId().equals(event.getReservationId()))
+                .toList();
+        assertEquals(2, nearestEvents.size());
+        OutboxEvent west = nearestEvents.stream()
+                .filter(event -> "WH-WEST".equals(event.getLocationCode()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(20, west.getQuantity());
+        assertEquals(0, west.getAvailableQuantity());
+        assertEquals(20, west.getReservedQuantity());
+        assertThrows(InsufficientInventoryException.class, () -> locationAllocationService.reserve(
+                SplitReservationRequest.builder().sku("PHONE-001").quantity(1).build()));
+
+        // And release / confirm go through the usual endpoints
+        inventoryService.releaseReservation(nearest.getReservationId());
+        inventoryService.confirmReservation(fewest.getReservationId(), "ORDER-SPLIT");
+        List<LocationStockResponse> stock = locationAllocationService.getLocationStock("PHONE-001");
+        assertEquals("WH-EAST", stock.get(0).getLocationCode());
+        assertEquals(20, stock.get(0).getTotalQuantity());
+        assertEquals(20, stock.get(0).getAvailableQuantity());
+        assertEquals(0, stock.get(0).getReservedQuantity());
+        assertEquals(20, stock.get(1).getAvailableQuantity());
+        assertTrue(reconciliationService.auditSku("PHONE-001").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlightRecording_SummarizesOperations() throws Exception {
+        // Given - a recording is running
+        Recording recording = flightRecordingService.start("default", Duration.ZERO).orElseThrow();
+        assertTrue(flightRecordingService.start("default", Duration.ZERO).isEmpty());
+
+        // When - two reservations, a rejected one, a release and a confirm
+        ReservationResponse first = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(2).build());
+        ReservationResponse second = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(3).build());
+        assertThrows(InsufficientInventoryException.class, () -> inventoryService.reserveInventory(
+                ReservationRequest.builder().sku("LAPTOP-001").quantity(1000).build()));
+        inventoryService.releaseReservation(first.getReservationId());
+        inventoryService.confirmReservation(second.getReservationId(), "ORDER-JFR");
+        Map<String, Object> summary = flightRecordingService.summarize(recording, Duration.ZERO).get(30, TimeUnit.SECONDS);
+
+        // Then - one breakdown per operation, with outcomes
+        Map<String, Map<String, Object>> operations = (Map<String, Map<String, Object>>) summary.get("operations");
+        assertEquals(Set.of("CONFIRM", "RELEASE", "RESERVE"), operations.keySet());
+        assertEquals(3L, operations.get("RESERVE").get("count"));
+        assertEquals(Map.of("InsufficientInventoryException", 1L, "OK", 2L), operations.get("RESERVE").get("outcomes"));
+        assertEquals(1L, operations.get("RELEASE").get("count"));
+        assertEquals(Map.of("OK", 1L), operations.get("CONFIRM").get("outcomes"));
+        assertTrue(operations.get("CONFIRM").containsKey("meanBreakdownMicros"));
+
+        // And the next recording can start
+        flightRecordingService.summarize(flightRecordingService.start("profile", Duration.ZERO).orElseThrow(), Duration.ZERO)
+                .get(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFlightRecording_UncollectedRecordingIsClosed() throws Exception {
+        // Given - a recording whose response body never ran
+        ReflectionTestUtils.setField(flightRecordingService, "abandonAfterSeconds", 0);
+        Recording abandoned = flightRecordingService.start("default", Duration.ofMillis(100)).orElseThrow();
+
+        // When - its duration has passed, the watchdog frees the slot
+        Optional<Recording> next = Optional.empty();
+        for (int attempt = 0; attempt < 100 && next.isEmpty(); attempt++) {
+            Thread.sleep(50);
+            next = flightRecordingService.start("default", Duration.ZERO);
+        }
+
+        // Then - a new recording could start
+        assertTrue(next.isPresent());
+        assertEquals(RecordingState.CLOSED, abandoned.getState());
+        flightRecordingService.summarize(next.get(), Duration.ZERO).get(30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testSingleFlight_CoalescesConcurrentLoads() throws Exception {
+        // Given - a load that blocks until released
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("LAPTOP-001", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 42;
+        })));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When - four more callers arrive while it is in flight
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("LAPTOP-001", () -> {
+                loads.incrementAndGet();
+                return -1;
+            })));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) singleFlight.stats().get("coalesced") < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then - everyone gets the one result
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0.8, (double) singleFlight.stats().get("coalescingRatio"), 1e-9);
+        executor.shutdown();
+    }
+
+    @Test
+    void testGetInventory_SeesCommittedWrites() {
+        // Given
+        assertEquals(100, inventoryService.getAvailableInventory("LAPTOP-001"));
+
+        // When
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001")
+                .quantity(10)
+                .build());
+
+        // Then
+        assertEquals(90, inventoryService.getInventory("LAPTOP-001").orElseThrow().getAvailableQuantity());
+        assertEquals(inventoryRepository.findVersionBySku("LAPTOP-001"),
+                inventoryService.getInventoryVersion("LAPTOP-001"));
+    }
+
+    // ==================== Analytics Tests ====================
+
+    @Test
+    void testReservationAnalytics_TracksLifecycleOutcomes() {
+        // Given - four reservations: one confirmed, one released, one expired, one left active
+        ReservationResponse confirmed = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(2).build());
+        ReservationResponse released = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(3).build());
+        ReservationResponse expired = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(4).build());
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(1).build());
+
+        // When
+        inventoryService.confirmReservation(confirmed.getReservationId(), "ORDER-ANALYTICS");
+        inventoryService.releaseReservation(released.getReservationId());
+        Reservation expiring = reservationRepository.findByReservationId(expired.getReservationId()).orElseThrow();
+        expiring.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        reservationRepository.save(expiring);
+        inventoryService.cleanupExpiredReservations();
+
+        // Then - outcomes are counted once each and ratios are over resolved reservations only
+        SkuAnalyticsResponse laptop = reservationAnalytics.snapshot("LAPTOP-001").orElseThrow();
+        assertEquals(4L, laptop.getReserved());
+        assertEquals(10L, laptop.getReservedUnits());
+        assertEquals(1L, laptop.getConfirmed());
+        assertEquals(1L, laptop.getReleased());
+        assertEquals(1L, laptop.getExpired());
+        assertEquals(1.0 / 3, laptop.getConfirmRatio(), 1e-9);
+        assertEquals(1.0 / 3, laptop.getReleaseRatio(), 1e-9);
+        assertEquals(1.0 / 3, laptop.getExpireRatio(), 1e-9);
+        assertEquals(1L, laptop.getTimeToConfirmSeconds().getCount());
+
+        assertEquals(4L, reservationAnalytics.snapshot(10).getOverall().getReserved());
+        assertTrue(reservationAnalytics.snapshot("PHONE-001").isEmpty());
+    }
+
+    // ==================== Cleanup Tests ====================
+
+    @Test
+    void testCleanupExpiredReservations_RestoresInventory() {
+        // Given - one expired and one live reservation
+        ReservationResponse expired = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("MONITOR-001")
+                .quantity(30)
+                .build());
+        ReservationResponse live = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("MONITOR-001")
+                .quantity(20)
+                .build());
+        Reservation expiredReservation = reservationRepository
+                .findByReservationId(expired.getReservationId()).orElseThrow();
+        expiredReservation.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        reservationRepository.save(expiredReservation);
+
+        // When
+        inventoryService.cleanupExpiredReservations();
+
+        // Then - only the expired reservation is released
+        assertEquals(Reservation.ReservationStatus.EXPIRED, reservationRepository
+                .findByReservationId(expired.getReservationId()).orElseThrow().getStatus());
+        assertEquals(Reservation.ReservationStatus.ACTIVE, reservationRepository
+                .findByReservationId(live.getReservationId()).orElseThrow().getStatus());
+
+        InventoryItem item = inventoryRepository.findBySku("MONITOR-001").orElseThrow();
+        assertEquals(180, item.getAvailableQuantity()); // 200 - 20
+        assertEquals(20, item.getReservedQuantity());
+
+        // Expired reservations can no longer be released
+        assertThrows(IllegalStateException.class, () -> {
+            inventoryService.releaseReservation(expired.getReservationId());
+        });
+    }
+
+    @Test
+    void testCleanupLeases_PartitionsSplitAcrossInstances() {
+        int partitionCount = cleanupLeaseCoordinator.getPartitionCount();
+
+        // First instance alone takes every partition
+        assertEquals(partitionCount, cleanupLeaseCoordinator.claimPartitions("node-a").size());
+        // Second instance joins while everything is leased
+        assertTrue(cleanupLeaseCoordinator.claimPartitions("node-b").isEmpty());
+
+        // Next round: first instance gives back its excess, second picks it up
+        Set<Integer> nodeA = cleanupLeaseCoordinator.claimPartitions("node-a");
+        Set<Integer> nodeB = cleanupLeaseCoordinator.claimPartitions("node-b");
+
+        assertEquals(partitionCount / 2, nodeA.size());
+        assertEquals(partitionCount / 2, nodeB.size());
+        Set<Integer> union = new HashSet<>(nodeA);
+        union.addAll(nodeB);
+        assertEquals(partitionCount, union.size(), "Partitions must be disjoint and cover the space");
+
+        // When an instance leaves, the other takes over its partitions
+        cleanupLeaseCoordinator.leave("node-b");
+        assertEquals(partitionCount, cleanupLeaseCoordinator.claimPartitions("node-a").size());
+    }
+
+    @Test
+    void testCleanupLeases_ConcurrentPartitionCreationTolerated() {
+        int partitionCount = cleanupLeaseCoordinator.getPartitionCount();
+        assertEquals(partitionCount, cleanupLeaseCoordinator.claimPartitions("node-a").size());
+
+        // Given - a second instance boots and loses the race for partition 0: it sees no row,
+        // but another instance has inserted one by the time it writes
+        ReflectionTestUtils.setField(cleanupLeaseCoordinator, "partitionsInitialized", false);
+        doReturn(false).doCallRealMethod().when(cleanupLeaseRepository).existsById(0);
+
+        // When
+        Set<Integer> claimed = cleanupLeaseCoordinator.claimPartitions("node-b");
+
+        // Then - the duplicate insert is absorbed and the existing lease is left as it was
+        assertTrue(claimed.isEmpty());
+        assertEquals(partitionCount, cleanupLeaseRepository.count());
+        assertEquals("node-a", cleanupLeaseRepository.findById(0).orElseThrow().getOwnerId());
+    }
+
+    // ==================== Reconciliation Tests ====================
+
+    @Test
+    void testReconciliation_NoDriftAfterMutations() {
+        // Given - a mix of reserve, release and confirm on one SKU
+        ReservationResponse first = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("KEYBOARD-001").quantity(10).build());
+        ReservationResponse second = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("KEYBOARD-001").quantity(20).build());
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("KEYBOARD-001").quantity(5).build());
+        inventoryService.releaseReservation(first.getReservationId());
+        inventoryService.confirmReservation(second.getReservationId(), "ORDER-1");
+
+        // Then - counters and checksum agree with the ACTIVE reservations
+        assertTrue(reconciliationService.auditSku("KEYBOARD-001").isEmpty());
+        assertTrue(reconciliationService.auditNextBatch().isEmpty());
+    }
+
+    @Test
+    void testReconciliation_DetectsAndRepairsDrift() {
+        // Given - an ACTIVE reservation and a corrupted reserved quantity
+        inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("PHONE-001").quantity(40).build());
+        InventoryItem corrupted = inventoryRepository.findBySku("PHONE-001").orElseThrow();
+        corrupted.setReservedQuantity(55);
+        inventoryRepository.save(corrupted);
+
+        // When
+        DriftReport drift = reconciliationService.auditSku("PHONE-001").orElseThrow();
+
+        // Then
+        assertEquals(55, drift.getRecordedReservedQuantity());
+        assertEquals(40, drift.getActualReservedQuantity());
+
+        reconciliationService.repairSku("PHONE-001");
+        InventoryItem repaired = inventoryRepository.findBySku("PHONE-001").orElseThrow();
+        assertEquals(40, repaired.getReservedQuantity());
+        assertEquals(460, repaired.getAvailableQuantity()); // 500 - 40
+        assertTrue(reconciliationService.auditSku("PHONE-001").isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+package com.interview.practice.inventory.service;
+
+import com.interview.practice.inventory.config.ShardRoutingDataSource;
+import com.interview.practice.inventory.dto.BatchConfirmRequest;
+import com.interview.practice.inventory.dto.InventoryResponse;
+import com.interview.practice.inventory.dto.ReservationRequest;
+import com.interview.practice.inventory.dto.ReservationResponse;
+import com.interview.practice.inventory.sharding.ConsistentHashRing;
+import com.interview.practice.inventory.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Integration tests for SKU-hash sharding
+ * Three in-memory H2 databases; the seed data is moved to its shards on startup
+ */
+@SpringBootTest(properties = {
+        "inventory.cleanup.enabled=false",
+        "inventory.reconciliation.enabled=false",
+        "inventory.outbox.relay.enabled=false",
+        "inventory.sharding.urls=jdbc:h2:mem:shardtest0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:shardtest1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shardtest2;DB_CLOSE_DELAY=-1",
+        "inventory.sharding.rebalance-on-startup=true"
+})
+class ShardedInventoryServiceTest {
+
+    private static final List<String> SEED_SKUS =
+            List.of("LAPTOP-001", "PHONE-001", "TABLET-001", "MONITOR-001", "KEYBOARD-001");
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Test
+    void testSeedItemsLiveOnTheirOwnerShard() {
+        assertEquals(3, shardRouter.getShardCount());
+        for (String sku : SEED_SKUS) {
+            int owner = shardRouter.shardOf(sku);
+            for (int shard = 0; shard < 3; shard++) {
+                Integer rows = jdbc(shard).queryForObject(
+                        "SELECT COUNT(*) FROM inventory_items WHERE sku = ?", Integer.class, sku);
+                assertEquals(shard == owner ? 1 : 0, rows, sku + " on shard " + shard);
+            }
+            // Locations are shared reference data, present on every shard
+            Integer locations = jdbc(owner).queryForObject("SELECT COUNT(*) FROM locations", Integer.class);
+            assertEquals(3, locations);
+        }
+
+        List<InventoryResponse> inventories = inventoryService.getInventories(SEED_SKUS);
+        assertEquals(SEED_SKUS.size(), inventories.size());
+        assertEquals(SEED_SKUS.size(), inventoryService.getInventoryVersions(SEED_SKUS).size());
+    }
+
+    @Test
+    void testReserveReleaseConfirm_RoutedByReservationId() {
+        ReservationResponse released = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("MONITOR-001").quantity(5).build());
+        // The id carries the SKU's slot, which maps back to the owner shard
+        assertTrue(released.getReservationId().matches("[0-9a-f]{3}-[0-9a-f-]{36}"));
+        assertEquals(shardRouter.shardOf("MONITOR-001"),
+                shardRouter.shardOfReservationId(released.getReservationId()).orElseThrow());
+        assertEquals(195, inventoryService.getAvailableInventory("MONITOR-001"));
+
+        inventoryService.releaseReservation(released.getReservationId());
+        assertEquals(200, inventoryService.getAvailableInventory("MONITOR-001"));
+
+        ReservationResponse confirmed = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("MONITOR-001").quantity(3).build());
+        inventoryService.confirmReservation(confirmed.getReservationId(), "ORDER-SHARD-1");
+        InventoryResponse monitor = inventoryService.getInventory("MONITOR-001").orElseThrow();
+        assertEquals(197, monitor.getTotalQuantity());
+        assertEquals(197, monitor.getAvailableQuantity());
+        assertEquals(0, monitor.getReservedQuantity());
+
+        // The reservation and its events never left the owner shard
+        Map<String, Object> row = jdbc(shardRouter.shardOf("MONITOR-001")).queryForMap(
+                "SELECT status, order_id FROM reservations WHERE reservation_id = ?", confirmed.getReservationId());
+        assertEquals("CONFIRMED", row.get("STATUS"));
+        assertEquals("ORDER-SHARD-1", row.get("ORDER_ID"));
+    }
+
+    @Test
+    void testBatchConfirm_AcrossShardsRejected() {
+        String first = SEED_SKUS.get(0);
+        String second = SEED_SKUS.stream()
+                .filter(sku -> shardRouter.shardOf(sku) != shardRouter.shardOf(first))
+                .findFirst()
+                .orElse(null);
+        assumeTrue(second != null, "all seed SKUs hash to one shard");
+
+        ReservationResponse a = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku(first).quantity(1).build());
+        ReservationResponse b = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku(second).quantity(1).build());
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.confirmReservations(
+                BatchConfirmRequest.builder()
+                        .orderId("ORDER-SHARD-2")
+                        .reservationIds(List.of(a.getReservationId(), b.getReservationId()))
+                        .build()));
+
+        inventoryService.releaseReservation(a.getReservationId());
+        inventoryService.releaseReservation(b.getReservationId());
+    }
+
+    @Test
+    void testCleanup_SweepsEveryShard() {
+        ReservationResponse laptop = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("LAPTOP-001").quantity(4).build());
+        ReservationResponse keyboard = inventoryService.reserveInventory(ReservationRequest.builder()
+                .sku("KEYBOARD-001").quantity(6).build());
+        for (String sku : List.of("LAPTOP-001", "KEYBOARD-001")) {
+            jdbc(shardRouter.shardOf(sku)).update(
+                    "UPDATE reservations SET expires_at = ? WHERE reservation_id IN (?, ?)",
+                    LocalDateTime.now().minusMinutes(1), laptop.getReservationId(), keyboard.getReservationId());
+        }
+
+        inventoryService.cleanupExpiredReservations();
+
+        assertEquals(100, inventoryService.getAvailableInventory("LAPTOP-001"));
+        assertEquals(150, inventoryService.getAvailableInventory("KEYBOARD-001"));
+        assertEquals("EXPIRED", jdbc(shardRouter.shardOf("KEYBOARD-001")).queryForObject(
+                "SELECT status FROM reservations WHERE reservation_id = ?", String.class, keyboard.getReservationId()));
+    }
+
+    @Test
+    void testRing_AddingShardMovesOnlyItsShare() {
+        ConsistentHashRing three = new ConsistentHashRing(3, 64);
+        ConsistentHashRing four = new ConsistentHashRing(4, 64);
+        int moved = 0;
+        for (int slot = 0; slot < ConsistentHashRing.SLOT_COUNT; slot++) {
+            if (three.shardOfSlot(slot) != four.shardOfSlot(slot)) {
+                moved++;
+                // Slots only ever move to the new shard
+                assertEquals(3, four.shardOfSlot(slot));
+            }
+        }
+        // Roughly a quarter of the slots, never anywhere near all of them
+        assertTrue(moved > ConsistentHashRing.SLOT_COUNT / 8, "moved " + moved);
+        assertTrue(moved < ConsistentHashRing.SLOT_COUNT * 2 / 5, "moved " + moved);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+    }
+}
@@ -1,5 +1,8 @@
 -- Clean up existing data
+DELETE FROM reservation_lines;
 DELETE FROM reservations;
+DELETE FROM inbound_shipments;
+DELETE FROM location_stock;
 DELETE FROM inventory_items;
 
 -- Insert test inventory data